@@ -0,0 +1,143 @@
+package search.engines.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import search.engines.AbstractBoundedSearchEngine;
+import search.engines.BeamSearchEngine;
+import search.engines.BestFirstSearchEngine;
+import search.engines.BoundedBreadthFirstSearchEngine;
+import search.engines.BoundedDepthFirstSearchEngine;
+import search.engines.IterativeDeepeningSearchEngine;
+import search.engines.ParallelBoundedBreadthFirstSearchEngine;
+import search.engines.ParallelBoundedDepthFirstSearchEngine;
+
+/**
+ * Title:        SearchEngineBenchmark<p>
+ * Description:  JMH benchmark of the search engines on synthetic problems. Each invocation runs a
+ *               whole search, with the engine, depth, branching factor, success density, cost of the
+ *               problem's routines and number of workers given as parameters (e.g., with a success
+ *               density of 0, every engine exhausts the state space). Problems are seeded, and forks,
+ *               iterations and heap size are fixed, so that results are comparable from run to run.
+ *               Run it with the benchmarks profile:
+ *               <pre>
+ *               mvn -P benchmarks test-compile exec:exec
+ *               </pre>
+ *               and pass JMH options (e.g., -p engine=bfs,dfs -prof gc) through -Djmh.args="...".<p>
+ * @version 0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SearchEngineBenchmark {
+
+	/**
+	 * The engine to benchmark.
+	 */
+	@Param({"bfs", "dfs", "iddfs", "best-first", "beam", "parallel-bfs", "parallel-dfs"})
+	public String engine;
+
+	/**
+	 * Max depth of the search.
+	 */
+	@Param({"8"})
+	public int depth;
+
+	/**
+	 * Number of successors of each state.
+	 */
+	@Param({"4"})
+	public int branching;
+
+	/**
+	 * Fraction of successful states.
+	 */
+	@Param({"0", "0.0001"})
+	public double successDensity;
+
+	/**
+	 * Busy work, in JMH tokens, of each call to getSuccessors.
+	 */
+	@Param({"0"})
+	public long successorsCost;
+
+	/**
+	 * Busy work, in JMH tokens, of each call to success.
+	 */
+	@Param({"0"})
+	public long successCost;
+
+	/**
+	 * Number of workers of the parallel engines.
+	 */
+	@Param({"4"})
+	public int workers;
+
+	/**
+	 * Width of the beam, for beam search.
+	 */
+	@Param({"64"})
+	public int beamWidth;
+
+	/**
+	 * Seed deciding which states are successful.
+	 */
+	@Param({"42"})
+	public long seed;
+
+	private AbstractBoundedSearchEngine<SyntheticState, SyntheticProblem> searchEngine;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SyntheticProblem problem = new SyntheticProblem(branching, successDensity, seed, successorsCost, successCost);
+		if ("bfs".equals(engine)) {
+			searchEngine = new BoundedBreadthFirstSearchEngine<SyntheticState, SyntheticProblem>(problem, depth);
+		}
+		else if ("dfs".equals(engine)) {
+			searchEngine = new BoundedDepthFirstSearchEngine<SyntheticState, SyntheticProblem>(problem, depth);
+		}
+		else if ("iddfs".equals(engine)) {
+			searchEngine = new IterativeDeepeningSearchEngine<SyntheticState, SyntheticProblem>(problem, depth);
+		}
+		else if ("best-first".equals(engine)) {
+			searchEngine = new BestFirstSearchEngine<SyntheticState, SyntheticProblem>(problem, problem, depth);
+		}
+		else if ("beam".equals(engine)) {
+			searchEngine = new BeamSearchEngine<SyntheticState, SyntheticProblem>(problem, problem, beamWidth, depth);
+		}
+		else if ("parallel-bfs".equals(engine)) {
+			searchEngine = new ParallelBoundedBreadthFirstSearchEngine<SyntheticState, SyntheticProblem>(problem, depth, workers);
+		}
+		else if ("parallel-dfs".equals(engine)) {
+			searchEngine = new ParallelBoundedDepthFirstSearchEngine<SyntheticState, SyntheticProblem>(problem, depth, workers);
+		}
+		else {
+			throw new IllegalArgumentException("unknown engine " + engine);
+		}
+	}
+
+	/**
+	 * Runs a whole search, up to the first solution (or exhausting the state space).
+	 * @return the outcome of the search.
+	 */
+	@Benchmark
+	public boolean search() {
+		return searchEngine.performSearch();
+	}
+
+}
@@ -0,0 +1,104 @@
+package search.engines.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import search.AbstractSearchProblem;
+import search.Heuristic;
+
+/**
+ * Title:        SyntheticProblem<p>
+ * Description:  Synthetic search problem, for benchmarking the search engines. Its state space is a
+ *               complete tree with a given branching factor. Successful states are spread over the tree
+ *               with a given density: whether a state is successful is decided by a hash of its position
+ *               and a seed, so the same states are successful in every run. The cost of each call to
+ *               getSuccessors and success can be configured (in JMH tokens of busy work), to simulate
+ *               problems whose routines are cheap (where the overhead of the engines dominates) or 
+ *               expensive (as mutant generation and verification are in program repair).<p>
+ * @version 0.1
+ */
+public class SyntheticProblem implements AbstractSearchProblem<SyntheticState>, Heuristic<SyntheticState> {
+
+	/**
+	 * Number of successors of each state.
+	 */
+	private final int branching;
+
+	/**
+	 * Successful states are those whose hash is below this threshold.
+	 */
+	private final long successThreshold;
+
+	/**
+	 * Seed mixed in the hash that decides which states are successful.
+	 */
+	private final long seed;
+
+	/**
+	 * Busy work, in JMH tokens, performed by each call to getSuccessors.
+	 */
+	private final long successorsCost;
+
+	/**
+	 * Busy work, in JMH tokens, performed by each call to success.
+	 */
+	private final long successCost;
+
+	/**
+	 * Constructor for class SyntheticProblem.
+	 * @param branching is the number of successors of each state.
+	 * @param successDensity is the fraction of successful states (0 for no successful state).
+	 * @param seed decides which states are successful.
+	 * @param successorsCost is the busy work, in JMH tokens, performed by each call to getSuccessors.
+	 * @param successCost is the busy work, in JMH tokens, performed by each call to success.
+	 * @pre. branching>0 && 0<=successDensity<=1 && successorsCost>=0 && successCost>=0.
+	 */
+	public SyntheticProblem(int branching, double successDensity, long seed, long successorsCost, long successCost) {
+		if (branching<=0) throw new IllegalArgumentException("invalid branching factor");
+		if (successDensity<0 || successDensity>1) throw new IllegalArgumentException("invalid success density");
+		if (successorsCost<0 || successCost<0) throw new IllegalArgumentException("invalid cost");
+		this.branching = branching;
+		this.successThreshold = (successDensity>=1)?Long.MAX_VALUE:(long) (successDensity*Long.MAX_VALUE);
+		this.seed = seed;
+		this.successorsCost = successorsCost;
+		this.successCost = successCost;
+	}
+
+	public SyntheticState initialState() {
+		return new SyntheticState(0);
+	}
+
+	public List<SyntheticState> getSuccessors(SyntheticState s) {
+		if (successorsCost>0) Blackhole.consumeCPU(successorsCost);
+		List<SyntheticState> successors = new ArrayList<SyntheticState>(branching);
+		long first = s.getId()*branching+1;
+		for (int i = 0; i < branching; i++) {
+			successors.add(new SyntheticState(first+i));
+		}
+		return successors;
+	}
+
+	public boolean success(SyntheticState s) {
+		if (successCost>0) Blackhole.consumeCPU(successCost);
+		return s.getId()!=0 && (hash(s.getId()) & Long.MAX_VALUE)<successThreshold;
+	}
+
+	/**
+	 * Scores states by their hash, so that informed engines explore the tree in a fixed, 
+	 * but not trivially ordered, way.
+	 */
+	public double score(SyntheticState s, int depth) {
+		return (hash(s.getId()^0x5DEECE66DL) & 0xFFFF)/65536.0;
+	}
+
+	private long hash(long id) {
+		// splitmix64 finaliser
+		long z = id+seed+0x9E3779B97F4A7C15L;
+		z = (z^(z>>>30))*0xBF58476D1CE4E5B9L;
+		z = (z^(z>>>27))*0x94D049BB133111EBL;
+		return z^(z>>>31);
+	}
+
+}
@@ -0,0 +1,58 @@
+package search.engines.benchmark;
+
+import search.FingerprintedState;
+import search.State;
+
+/**
+ * Title:        SyntheticState<p>
+ * Description:  State of a synthetic search problem: a node of a complete tree, identified by its
+ *               position in the tree (in breadth-first order). States are immutable and cheap to create,
+ *               so that benchmarks measure the overhead of the engines, not of the states.<p>
+ * @version 0.1
+ */
+public class SyntheticState implements FingerprintedState {
+
+	/**
+	 * Position of the state in the tree of states (0 is the root).
+	 */
+	private final long id;
+
+	/**
+	 * Constructor for class SyntheticState.
+	 * @param id is the position of the state in the tree of states.
+	 */
+	public SyntheticState(long id) {
+		this.id = id;
+	}
+
+	/**
+	 * @return the position of the state in the tree of states.
+	 */
+	public long getId() {
+		return id;
+	}
+
+	public long fingerprint() {
+		return id;
+	}
+
+	public boolean equals(State other) {
+		return (other instanceof SyntheticState) && ((SyntheticState) other).id==id;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return (other instanceof State) && equals((State) other);
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (id ^ (id>>>32));
+	}
+
+	@Override
+	public String toString() {
+		return "s"+id;
+	}
+
+}
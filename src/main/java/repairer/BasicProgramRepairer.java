@@ -1,5 +1,6 @@
 package repairer;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.FileAlreadyExistsException;
@@ -14,14 +15,30 @@ import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
 import mujava.api.MutantIdentifier;
+import search.Heuristic;
 import search.engines.AbstractBoundedSearchEngine;
+import search.engines.BeamSearchEngine;
+import search.engines.BestFirstSearchEngine;
 import search.engines.BoundedBreadthFirstSearchEngine;
 import search.engines.BoundedDepthFirstSearchEngine;
+import search.engines.Checkpointable;
+import search.engines.IterativeDeepeningSearchEngine;
+import search.engines.MonteCarloSearchEngine;
+import search.engines.ParallelBoundedBreadthFirstSearchEngine;
+import search.engines.ParallelBoundedDepthFirstSearchEngine;
+import search.engines.PipelinedSearchEngine;
+import search.engines.PortfolioSearchEngine;
+import search.engines.SearchBudget;
+import search.engines.SearchListener;
+import search.engines.SearchStatistics;
 
 /**
  * BasicProgramRepairer is a command line application that calls Stryker on a given class and method, and performs the
@@ -47,17 +64,103 @@ public class BasicProgramRepairer {
 	private String subjectMethod;
 	
 	
+	/**
+	 * Search strategies that can be used for searching for a program repair.
+	 */
+	private enum Strategy { DFS, BFS, ITERATIVE_DEEPENING, BEST_FIRST, BEAM, PORTFOLIO, MONTE_CARLO, PIPELINED, PARALLEL_BFS, PARALLEL_DFS }
+	
 	/**
 	 * Indicates which search strategy is used for searching for a program repair.
 	 * By default, the strategy is (bounded) DFS.
 	 */
-	private boolean dfsStrategy = true;
+	private Strategy strategy = Strategy.DFS;
+	
+	/**
+	 * heuristic used to score candidates, when the search strategy is best-first or beam search (or 
+	 * when best-first search races in the portfolio, or Monte Carlo search learns first mutations).
+	 */
+	private Heuristic<FixCandidate> heuristic = null;
+	
+	/**
+	 * max number of candidates kept in each level, when the search strategy is beam search.
+	 */
+	private int beamWidth = 0;
+	
+	/**
+	 * max number of random descents, when the search strategy is Monte Carlo search.
+	 */
+	private int maxDescents = 0;
+	
+	/**
+	 * seed of the random descents, when the search strategy is Monte Carlo search.
+	 */
+	private long seed = 0;
+	
+	/**
+	 * max number of generated candidates waiting to be verified, when the search strategy is pipelined.
+	 */
+	private int maxPendingCandidates = 0;
+	
+	/**
+	 * number of workers, when the search strategy is parallel bfs or dfs.
+	 */
+	private int workers = 0;
 	
 	/**
 	 * max depth to be considered in the search of program repairs
 	 */
 	private int maxDepth = 3;
 	
+	/**
+	 * max number of visited candidates remembered for detecting duplicated candidates during 
+	 * the search of program repairs. By default (0), duplicate detection is disabled.
+	 */
+	private int maxVisitedCandidates = 0;
+	
+	/**
+	 * limits on the time and work spent in the search of program repairs. By default (null), 
+	 * the search is unlimited.
+	 */
+	private SearchBudget budget = null;
+	
+	/**
+	 * max number of fixes to look for in the search of program repairs. 0 looks for all fixes up to
+	 * max depth. By default, the search stops at the first fix found.
+	 */
+	private int maxFixes = 1;
+	
+	/**
+	 * fixes found in the last repair, in the order in which they were found.
+	 */
+	private List<FixCandidate> fixes = Collections.emptyList();
+	
+	/**
+	 * file where checkpoints of the search of program repairs are saved. By default (null), no
+	 * checkpoints are saved.
+	 */
+	private String checkpointFile = null;
+	
+	/**
+	 * time between checkpoints of the search of program repairs, in milliseconds.
+	 */
+	private long checkpointInterval = 0;
+	
+	/**
+	 * max number of candidates to keep in memory at each end of the queue of candidates still to visit
+	 * (only for BFS strategy); the rest are spilled to disk. By default (0), nothing is spilled.
+	 */
+	private int maxCandidatesInMemory = 0;
+	
+	/**
+	 * statistics of the search in the last repair.
+	 */
+	private SearchStatistics statistics = null;
+	
+	/**
+	 * listeners of the events of the search of program repairs (e.g., to report progress).
+	 */
+	private List<SearchListener<FixCandidate>> listeners = new ArrayList<SearchListener<FixCandidate>>();
+	
 	/**
 	 * Constructor of class ProgramRepair. It sets the subject of the repair process
 	 * with the provided parameter.
@@ -128,14 +231,142 @@ public class BasicProgramRepairer {
 	 * Sets Bounded Depth First Search as the strategy to use in the search for program repairs.
 	 */
 	public void setDfsStrategy() {
-		this.dfsStrategy = true;
+		this.strategy = Strategy.DFS;
 	}
 
 	/**
 	 * Sets Bounded Breadth First Search as the strategy to use in the search for program repairs.
 	 */
 	public void setBfsStrategy() {
-		this.dfsStrategy = false;
+		this.strategy = Strategy.BFS;
+	}
+	
+	/**
+	 * Sets Iterative Deepening Search as the strategy to use in the search for program repairs.
+	 * As BFS, it finds repairs with the least number of mutations, but it only keeps in memory
+	 * (and on disk) the candidates along the current search path.
+	 */
+	public void setIterativeDeepeningStrategy() {
+		this.strategy = Strategy.ITERATIVE_DEEPENING;
+	}
+	
+	/**
+	 * Sets Bounded Best First Search as the strategy to use in the search for program repairs.
+	 * Candidates with lower scores are verified first.
+	 * @param heuristic is the heuristic used to score candidates (e.g., a {@code FixCandidateHeuristic}).
+	 */
+	public void setBestFirstStrategy(Heuristic<FixCandidate> heuristic) {
+		if (heuristic==null) throw new IllegalArgumentException("heuristic is null");
+		this.strategy = Strategy.BEST_FIRST;
+		this.heuristic = heuristic;
+	}
+	
+	/**
+	 * Sets Beam Search as the strategy to use in the search for program repairs. Only the best 
+	 * {@code beamWidth} candidates of each level are verified and expanded, so at most 
+	 * {@code beamWidth} times max depth candidates are verified.
+	 * @param beamWidth is the max number of candidates kept in each level of the search.
+	 * @param heuristic is the heuristic used to score candidates (e.g., a {@code FixCandidateHeuristic}).
+	 */
+	public void setBeamStrategy(int beamWidth, Heuristic<FixCandidate> heuristic) {
+		if (beamWidth<=0) throw new IllegalArgumentException("beam width must be >0");
+		if (heuristic==null) throw new IllegalArgumentException("heuristic is null");
+		this.strategy = Strategy.BEAM;
+		this.beamWidth = beamWidth;
+		this.heuristic = heuristic;
+	}
+	
+	/**
+	 * Sets a portfolio of strategies to use in the search for program repairs: bounded DFS and BFS
+	 * race concurrently, and the first fix found stops both. When duplicate detection is enabled,
+	 * candidates verified by one strategy are not verified again by the other. 
+	 */
+	public void setPortfolioStrategy() {
+		this.strategy = Strategy.PORTFOLIO;
+		this.heuristic = null;
+	}
+	
+	/**
+	 * Sets a portfolio of strategies to use in the search for program repairs: bounded DFS, BFS and
+	 * best-first search race concurrently, and the first fix found stops all of them. When duplicate
+	 * detection is enabled, candidates verified by one strategy are not verified again by the others. 
+	 * @param heuristic is the heuristic used to score candidates in best-first search (e.g., a {@code FixCandidateHeuristic}).
+	 */
+	public void setPortfolioStrategy(Heuristic<FixCandidate> heuristic) {
+		if (heuristic==null) throw new IllegalArgumentException("heuristic is null");
+		this.strategy = Strategy.PORTFOLIO;
+		this.heuristic = heuristic;
+	}
+	
+	/**
+	 * Sets Monte Carlo search as the strategy to use in the search for program repairs: random
+	 * sequences of mutations (up to max depth) are tried, restarting from the original program after
+	 * each one. Deep repairs, with several mutations, are usually found much sooner than with
+	 * exhaustive strategies.
+	 * @param maxDescents is the max number of sequences of mutations to try (0 for trying them until the budget runs out).
+	 * @param seed is the seed for choosing mutations at random; searches with the same seed are reproducible.
+	 */
+	public void setMonteCarloStrategy(int maxDescents, long seed) {
+		if (maxDescents<0) throw new IllegalArgumentException("max descents must be >=0");
+		this.strategy = Strategy.MONTE_CARLO;
+		this.maxDescents = maxDescents;
+		this.seed = seed;
+		this.heuristic = null;
+	}
+	
+	/**
+	 * Sets Monte Carlo search as the strategy to use in the search for program repairs, learning
+	 * which first mutations lead to promising candidates (as scored by a heuristic): they are then
+	 * tried more often.
+	 * @param maxDescents is the max number of sequences of mutations to try (0 for trying them until the budget runs out).
+	 * @param seed is the seed for choosing mutations at random; searches with the same seed are reproducible.
+	 * @param heuristic is the heuristic used to score candidates (e.g., a {@code FixCandidateHeuristic}).
+	 */
+	public void setMonteCarloStrategy(int maxDescents, long seed, Heuristic<FixCandidate> heuristic) {
+		if (heuristic==null) throw new IllegalArgumentException("heuristic is null");
+		setMonteCarloStrategy(maxDescents, seed);
+		this.heuristic = heuristic;
+	}
+	
+	/**
+	 * Sets a pipelined search as the strategy to use in the search for program repairs: mutants are
+	 * generated (by muJava) while other candidates are verified (by TACO), instead of one after the
+	 * other. Candidates are verified roughly in breadth-first order.
+	 * @param maxPendingCandidates is the max number of generated candidates waiting to be verified;
+	 * once reached, the generation of mutants waits for verification.
+	 */
+	public void setPipelinedStrategy(int maxPendingCandidates) {
+		if (maxPendingCandidates<=0) throw new IllegalArgumentException("max pending candidates must be >0");
+		this.strategy = Strategy.PIPELINED;
+		this.maxPendingCandidates = maxPendingCandidates;
+	}
+	
+	/**
+	 * Sets level-synchronous parallel Bounded Breadth First Search as the strategy to use in the search
+	 * for program repairs: the candidates of each level are verified and mutated by several workers.
+	 * Each worker verifies candidates in a verification sandbox of its own, by a separate JVM (see
+	 * VerificationSandbox), so that candidates are verified in parallel; mutants are still generated
+	 * one at a time, as muJava is not reentrant.
+	 * @param workers is the number of workers.
+	 */
+	public void setParallelBfsStrategy(int workers) {
+		if (workers<=0) throw new IllegalArgumentException("workers must be >0");
+		this.strategy = Strategy.PARALLEL_BFS;
+		this.workers = workers;
+	}
+	
+	/**
+	 * Sets parallel Bounded Depth First Search as the strategy to use in the search for program 
+	 * repairs: several workers search depth-first, stealing candidates from each other, and the first
+	 * fix found stops all of them. Each worker verifies candidates in a verification sandbox of its own,
+	 * by a separate JVM (see VerificationSandbox), so that candidates are verified in parallel; mutants
+	 * are still generated one at a time, as muJava is not reentrant.
+	 * @param workers is the number of workers.
+	 */
+	public void setParallelDfsStrategy(int workers) {
+		if (workers<=0) throw new IllegalArgumentException("workers must be >0");
+		this.strategy = Strategy.PARALLEL_DFS;
+		this.workers = workers;
 	}
 	
 	/**
@@ -147,6 +378,99 @@ public class BasicProgramRepairer {
 		this.maxDepth = maxDepth;
 	}
 	
+	/**
+	 * Enables the detection of duplicated candidates in the search of program repairs: candidates
+	 * whose programs are equal (modulo comments and blank spaces) to an already visited one are
+	 * not verified again.
+	 * @param maxVisitedCandidates is the maximum number of visited candidates to remember. 
+	 * 0 disables duplicate detection.
+	 */
+	public void setDuplicateDetection(int maxVisitedCandidates) {
+		if (maxVisitedCandidates<0) throw new IllegalArgumentException("max visited candidates must be >=0");
+		this.maxVisitedCandidates = maxVisitedCandidates;
+	}
+	
+	/**
+	 * Limits the time and work spent in the search of program repairs. When the budget runs out, the
+	 * search stops and its statistics are reported, together with how far the search got.
+	 * @param timeLimit is the time limit for the search, in milliseconds (0 for no limit).
+	 * @param maxVisitedCandidates is the max number of candidates to visit (0 for no limit).
+	 * @param maxVerifications is the max number of candidates to verify with TACO (0 for no limit).
+	 */
+	public void setBudget(long timeLimit, int maxVisitedCandidates, int maxVerifications) {
+		this.budget = new SearchBudget(timeLimit, maxVisitedCandidates, maxVerifications);
+	}
+	
+	/**
+	 * Sets the max number of fixes to look for in the search of program repairs. The search goes on
+	 * after each fix found (without starting over) until this number of fixes is reached.
+	 * @param maxFixes is the max number of fixes to look for (0 for all fixes up to max depth).
+	 */
+	public void setMaxFixes(int maxFixes) {
+		if (maxFixes<0) throw new IllegalArgumentException("max fixes must be >=0");
+		this.maxFixes = maxFixes;
+	}
+	
+	/**
+	 * Enables checkpoints of the search of program repairs (only for BFS and DFS strategies): the 
+	 * candidates still to visit are periodically saved to a file, and when the search runs out of budget. 
+	 * If the file holds a checkpoint of a previous repair (e.g., one that crashed or ran out of time), the
+	 * search resumes from it.
+	 * @param checkpointFile is the file where checkpoints are saved.
+	 * @param checkpointInterval is the time between checkpoints, in milliseconds.
+	 */
+	public void setCheckpointing(String checkpointFile, long checkpointInterval) {
+		if (checkpointFile==null) throw new IllegalArgumentException("checkpoint file is null");
+		if (checkpointInterval<=0) throw new IllegalArgumentException("checkpoint interval must be >0");
+		this.checkpointFile = checkpointFile;
+		this.checkpointInterval = checkpointInterval;
+	}
+	
+	/**
+	 * Enables spilling to disk of the candidates still to visit (only for BFS strategy): at most 
+	 * maxCandidatesInMemory candidates are kept in memory at each end of the queue, and the rest are
+	 * spilled, as their mutation paths, to the system's temporary directory. Spilled candidates are 
+	 * rebuilt by replaying their mutation paths when they are reached.
+	 * @param maxCandidatesInMemory is the max number of candidates kept in memory at each end of the queue.
+	 */
+	public void setFrontierSpilling(int maxCandidatesInMemory) {
+		if (maxCandidatesInMemory<=0) throw new IllegalArgumentException("max candidates in memory must be >0");
+		this.maxCandidatesInMemory = maxCandidatesInMemory;
+	}
+	
+	/**
+	 * @return the statistics of the search in the last repair (e.g., time spent generating mutants 
+	 * and verifying them), or null if no repair was run.
+	 */
+	public SearchStatistics getStatistics() {
+		return this.statistics;
+	}
+	
+	/**
+	 * Registers a listener of the events of the search of program repairs: candidates expanded
+	 * (mutated) and verified, with the time each took, fixes found and the end of the search.
+	 * @param listener is the listener to register.
+	 */
+	public void addSearchListener(SearchListener<FixCandidate> listener) {
+		if (listener==null) throw new IllegalArgumentException("listener is null");
+		this.listeners.add(listener);
+	}
+	
+	/**
+	 * Unregisters a listener of the events of the search of program repairs.
+	 * @param listener is the listener to unregister.
+	 */
+	public void removeSearchListener(SearchListener<FixCandidate> listener) {
+		this.listeners.remove(listener);
+	}
+	
+	/**
+	 * @return the fixes found in the last repair, in the order in which they were found.
+	 */
+	public List<FixCandidate> getFixes() {
+		return this.fixes;
+	}
+	
 	/**
 	 * @return the class to repair and all its dependencies (only java classes)
 	 */
@@ -166,6 +490,11 @@ public class BasicProgramRepairer {
 			// if a scope is provided, we pass it to the problem (to be used in success method).
 			problem.setScope(this.typeScope);
 		}
+		problem.setCanonicalOrder(this.canonicalOrder);
+		problem.setNogoodLearning(this.nogoodLearning);
+		problem.setInMemoryMutants(this.inMemoryMutants);
+		// beam and monte carlo searches may discard the shallower copy of a repeated mutant
+		problem.setDropDeeperRepeats(this.strategy!=Strategy.BEAM && this.strategy!=Strategy.MONTE_CARLO);
 		// +++++++++++++++++++++++++++++++++++++++++++++++
 		// create compilation sandbox
 		String sandboxDir = generateSandboxDirOnTmp();
@@ -178,31 +507,124 @@ public class BasicProgramRepairer {
 			return false;
 		}
 		FixCandidate.setSandboxDir(sandboxDir);
+		if (this.strategy==Strategy.PARALLEL_BFS || this.strategy==Strategy.PARALLEL_DFS) {
+			// each worker verifies candidates in a sandbox of its own
+			try {
+				problem.setVerificationSandboxes(this.workers);
+			} catch (IOException e) {
+				System.err.println("couldn't create verification sandboxes: " + e.getMessage());
+				deleteDir(sandboxDir);
+				return false;
+			}
+		}
 		// ------------------------------------------------
 		AbstractBoundedSearchEngine<FixCandidate,StrykerRepairSearchProblem> engine = null;
-		if (this.dfsStrategy) {
-			engine = new BoundedDepthFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem>();
-		}
-		else {
+		switch (this.strategy) {
+		case BFS:
 			engine = new BoundedBreadthFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem>();
+			break;
+		case ITERATIVE_DEEPENING:
+			engine = new IterativeDeepeningSearchEngine<FixCandidate,StrykerRepairSearchProblem>();
+			break;
+		case BEST_FIRST:
+			engine = new BestFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem>(this.heuristic);
+			break;
+		case BEAM:
+			engine = new BeamSearchEngine<FixCandidate,StrykerRepairSearchProblem>(this.heuristic, this.beamWidth);
+			break;
+		case MONTE_CARLO:
+			MonteCarloSearchEngine<FixCandidate,StrykerRepairSearchProblem> monteCarlo = new MonteCarloSearchEngine<FixCandidate,StrykerRepairSearchProblem>(this.seed);
+			monteCarlo.setMaxDescents(this.maxDescents);
+			if (this.heuristic!=null) {
+				monteCarlo.setFirstMoveLearning(MonteCarloSearchEngine.DEFAULT_EXPLORATION, this.heuristic);
+			}
+			engine = monteCarlo;
+			break;
+		case PIPELINED:
+			// candidates are verified one at a time (see StrykerRepairSearchProblem.success), so one verifier suffices
+			PipelinedSearchEngine<FixCandidate,StrykerRepairSearchProblem> pipelined = new PipelinedSearchEngine<FixCandidate,StrykerRepairSearchProblem>();
+			pipelined.setVerifiers(1);
+			pipelined.setCapacity(this.maxPendingCandidates);
+			engine = pipelined;
+			break;
+		case PARALLEL_BFS:
+			ParallelBoundedBreadthFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem> parallelBfs = new ParallelBoundedBreadthFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem>();
+			parallelBfs.setParallelism(this.workers);
+			engine = parallelBfs;
+			break;
+		case PARALLEL_DFS:
+			ParallelBoundedDepthFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem> parallelDfs = new ParallelBoundedDepthFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem>();
+			parallelDfs.setParallelism(this.workers);
+			engine = parallelDfs;
+			break;
+		case PORTFOLIO:
+			List<AbstractBoundedSearchEngine<FixCandidate,StrykerRepairSearchProblem>> strategies = new ArrayList<AbstractBoundedSearchEngine<FixCandidate,StrykerRepairSearchProblem>>();
+			strategies.add(new BoundedDepthFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem>());
+			strategies.add(new BoundedBreadthFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem>());
+			if (this.heuristic!=null) {
+				strategies.add(new BestFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem>(this.heuristic));
+			}
+			engine = new PortfolioSearchEngine<FixCandidate,StrykerRepairSearchProblem>(strategies);
+			break;
+		default:
+			engine = new BoundedDepthFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem>();
 		}
 		engine.setProblem(problem);
 		engine.setMaxDepth(this.maxDepth);
-		boolean outcome = engine.performSearch();
+		if (this.maxVisitedCandidates>0) {
+			engine.setDuplicateDetection(this.maxVisitedCandidates);
+		}
+		engine.setBudget(this.budget);
+		this.statistics = new SearchStatistics();
+		engine.setStatistics(this.statistics);
+		for (SearchListener<FixCandidate> listener : this.listeners) {
+			engine.addSearchListener(listener);
+		}
+		if (this.checkpointFile!=null) {
+			if (!(engine instanceof Checkpointable)) throw new IllegalStateException("checkpoints are only supported by bfs and dfs strategies");
+			@SuppressWarnings("unchecked")
+			Checkpointable<FixCandidate> checkpointable = (Checkpointable<FixCandidate>) engine;
+			FixCandidateSerializer serializer = new FixCandidateSerializer(problem);
+			File checkpoint = new File(this.checkpointFile);
+			if (checkpoint.exists()) {
+				try {
+					checkpointable.resumeFrom(checkpoint, serializer);
+					System.out.println("*** Resuming search from checkpoint " + checkpoint);
+				} catch (IOException e) {
+					System.err.println("couldn't resume search from checkpoint " + checkpoint + ": " + e.getMessage());
+				}
+			}
+			checkpointable.setCheckpointing(checkpoint, serializer, this.checkpointInterval);
+		}
+		if (this.maxCandidatesInMemory>0) {
+			if (this.strategy!=Strategy.BFS) throw new IllegalStateException("spilling candidates to disk is only supported by bfs strategy");
+			File spillDir = new File(System.getProperty("java.io.tmpdir"));
+			((BoundedBreadthFirstSearchEngine<FixCandidate,StrykerRepairSearchProblem>) engine).setFrontierSpilling(spillDir, new FixCandidateSerializer(problem), this.maxCandidatesInMemory);
+		}
+		this.fixes = engine.findSolutions(this.maxFixes);
+		boolean outcome = !this.fixes.isEmpty();
 		if (outcome) {
-			FixCandidate solution = engine.getSolution();
-			String solutionLocation = solution.program.getAbsolutePath() + solution.program.getClassName() + ".java";
-			System.out.println("*** FOUND SOLUTION! Get it from: " + solutionLocation);
-			System.out.println("*** Mutations that produced the fix: ");
-			for (MutantIdentifier mutation : solution.getMutations()) {
-				System.out.println(mutation.toString() + " in method " + (mutation.isOneLineInMethodOp()?(this.subjectMethod + " in line " + mutation.getAffectedLine()):"not a method mutation"));
+			for (FixCandidate solution : this.fixes) {
+				String solutionLocation = solution.getProgram().getAbsolutePath() + solution.getProgram().getClassName() + ".java";
+				System.out.println("*** FOUND SOLUTION! Get it from: " + solutionLocation);
+				System.out.println("*** Mutations that produced the fix: ");
+				for (MutantIdentifier mutation : solution.getMutations()) {
+					System.out.println(mutation.toString() + " in method " + (mutation.isOneLineInMethodOp()?(this.subjectMethod + " in line " + mutation.getAffectedLine()):"not a method mutation"));
+				}
 			}
 			System.out.println("*** Stats: " + engine.report());
 		}
+		else if (engine.getExhaustedBudget()!=null) {
+			System.out.println("*** COULD NOT REPAIR PROGRAM WITHIN BUDGET. Try increasing the limits of the search");
+			System.out.println("*** Stats: " + engine.report());
+		}
 		else {
 			System.out.println("*** COULD NOT REPAIR PROGRAM. Try increasing depth in the search for solutions");
 			System.out.println("*** Stats: " + engine.report());
 		}
+		System.out.println("*** Search statistics: " + this.statistics.report());
+		System.out.println("*** Repeated mutants dropped: " + problem.getDroppedMutants());
+		problem.deleteVerificationSandboxes();
 		deleteDir(FixCandidate.getSandboxDir());
 		return outcome;
 	}
@@ -327,4 +749,37 @@ public class BasicProgramRepairer {
 	
 	private String typeScope = null;
 	
+	/**
+	 * Enables or disables pruning of fix candidates whose mutations are a permutation (not in
+	 * canonical order) of those of another candidate. It is disabled by default.
+	 * @param canonicalOrder is true iff candidates not in canonical order are pruned.
+	 */
+	public void setCanonicalOrder(boolean canonicalOrder) {
+		this.canonicalOrder = canonicalOrder;
+	}
+	
+	private boolean canonicalOrder = false;
+	
+	/**
+	 * Enables or disables learning of nogoods: mutations leading to fix candidates that do not compile,
+	 * or that taco cannot analyze, prune later candidates containing them. It is disabled by default.
+	 * @param nogoodLearning is true iff nogoods are learned.
+	 */
+	public void setNogoodLearning(boolean nogoodLearning) {
+		this.nogoodLearning = nogoodLearning;
+	}
+	
+	private boolean nogoodLearning = false;
+	
+	/**
+	 * Enables or disables in-memory generation of fix candidates: mutants are produced as source buffers,
+	 * and only written to disk when they are verified or mutated. It is disabled by default.
+	 * @param inMemoryMutants is true iff mutants are produced in memory.
+	 */
+	public void setInMemoryMutants(boolean inMemoryMutants) {
+		this.inMemoryMutants = inMemoryMutants;
+	}
+	
+	private boolean inMemoryMutants = false;
+	
 }
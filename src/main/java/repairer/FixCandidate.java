@@ -1,9 +1,15 @@
 package repairer;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
 import mujava.api.MutantIdentifier;
+import search.FingerprintedState;
 import search.State;
 
 /**
@@ -12,13 +18,42 @@ import search.State;
  * @author Nazareno Matías Aguirre
  * @version 0.3
  */
-public class FixCandidate implements State {
+public class FixCandidate implements FingerprintedState {
 
-	protected JMLAnnotatedClass program; // JML program constituting the fix candidate.
+	protected JMLAnnotatedClass program; // JML program constituting the fix candidate (null while
+										 // the candidate is only in memory, see getProgram()).
+	
+	/**
+	 * source of a candidate produced in memory, not yet written to its file (null once written).
+	 */
+	private String source;
+	
+	/**
+	 * source folder and qualified class name of a candidate produced in memory, where it is written.
+	 */
+	private String sourceFolder;
+	private String className;
 	
 	protected List<MutantIdentifier> mutations; // it holds the mutant identifiers that led to current candidate
 						   			   			// empty for initial fix candidate.
  	
+	/**
+	 * md5 digest of the program, modulo comments and blank spaces. It is computed only once,
+	 * the first time it is needed, since computing it requires reading the program's file.
+	 */
+	private volatile byte[] digest;
+	
+	/**
+	 * whether the candidate compiles and taco can analyze it: null while it was not verified.
+	 */
+	private volatile Boolean valid = null;
+	
+	/**
+	 * whether each candidate obtained by a proper prefix of the mutations of this one was verified
+	 * to be valid (see hasValidPrefixes()).
+	 */
+	private volatile boolean validPrefixes = false;
+	
 	/**
 	 * The path to the compilation sandbox directory
 	 */
@@ -68,14 +103,140 @@ public class FixCandidate implements State {
 		this.mutations.addAll(mutations);
 	}
 	
+	/**
+	 * Constructor of class FixCandidate, for a candidate produced in memory: its program is only written
+	 * to disk (as class className under sourceFolder) when it is first needed, see getProgram().
+	 * @param sourceFolder is the folder where the candidate's program is written.
+	 * @param className is the qualified name of the candidate's class.
+	 * @param source is the source of the candidate's program.
+	 * @param digest is the md5 digest of the source, modulo comments and blank spaces.
+	 * @param mutations are the mutations that led to the candidate.
+	 */
+	public FixCandidate(String sourceFolder, String className, String source, byte[] digest, List<MutantIdentifier> mutations) {
+		if (sourceFolder==null || className==null) throw new IllegalArgumentException("creating candidate with null location");
+		if (source==null) throw new IllegalArgumentException("creating candidate with null source");
+		if (digest==null) throw new IllegalArgumentException("creating candidate with null digest");
+		if (mutations==null) throw new IllegalArgumentException("creating candidate with null mutations");
+		this.sourceFolder = sourceFolder;
+		this.className = className;
+		this.source = source;
+		this.digest = digest;
+		this.mutations = new LinkedList<MutantIdentifier>(mutations);
+	}
+	
+	/**
+	 * @return the program of the candidate. A candidate produced in memory is written to disk the first 
+	 * time its program is requested.
+	 */
+	public synchronized JMLAnnotatedClass getProgram() {
+		if (this.program==null) {
+			File file = new File(this.sourceFolder, this.className.replaceAll("\\.", "/") + ".java");
+			file.getParentFile().mkdirs();
+			Writer writer = null;
+			try {
+				writer = new FileWriter(file);
+				writer.write(this.source);
+			}
+			catch (IOException e) {
+				throw new IllegalStateException("couldn't write candidate to " + file.getPath(), e);
+			}
+			finally {
+				if (writer!=null) {
+					try {
+						writer.close();
+					}
+					catch (IOException e) {
+						throw new IllegalStateException("couldn't write candidate to " + file.getPath(), e);
+					}
+				}
+			}
+			this.program = new JMLAnnotatedClass(this.sourceFolder, this.className);
+			this.source = null;
+		}
+		return this.program;
+	}
+	
+	/**
+	 * @return whether the candidate's program was written to disk (always true for candidates not produced in memory).
+	 */
+	public synchronized boolean isWritten() {
+		return this.program!=null;
+	}
+	
 	/**
 	 * @return the mutations applied to this {@code FixCandidate}, the result will never be {@code null}
 	 */
 	public List<MutantIdentifier> getMutations() {
 		return this.mutations;
 	}
+	
+	/**
+	 * Records the outcome of the verification of the candidate: whether it compiles and taco can analyze it.
+	 * @param valid is true iff the candidate is valid.
+	 */
+	void setValid(boolean valid) {
+		this.valid = valid;
+	}
+	
+	/**
+	 * @return true iff the candidate was verified to be valid (it compiles and taco can analyze it).
+	 */
+	boolean isKnownValid() {
+		return Boolean.TRUE.equals(this.valid);
+	}
+	
+	/**
+	 * @return true iff the candidate was verified to be invalid (it does not compile, or taco cannot analyze it).
+	 */
+	boolean isKnownInvalid() {
+		return Boolean.FALSE.equals(this.valid);
+	}
+	
+	/**
+	 * Records whether the candidates obtained by the proper prefixes of the mutations of this one are valid,
+	 * usually when this candidate is generated from its parent.
+	 * @param validPrefixes is true iff all of them were verified to be valid.
+	 */
+	void setValidPrefixes(boolean validPrefixes) {
+		this.validPrefixes = validPrefixes;
+	}
+	
+	/**
+	 * @return true iff each candidate obtained by a proper prefix of the mutations of this one (i.e., each
+	 * of its ancestors) was verified to be valid. The only ancestor of a candidate with a single mutation
+	 * is the program to repair, which is valid.
+	 */
+	boolean hasValidPrefixes() {
+		return this.mutations.size()<=1 || this.validPrefixes;
+	}
 
 	
+	/**
+	 * @return the md5 digest of the candidate's program, modulo comments and blank spaces. It is
+	 * computed from the program's file the first time it is requested, and reused afterwards.
+	 */
+	public byte[] getDigest() {
+		byte[] result = this.digest;
+		if (result==null) {
+			result = getProgram().getMd5Digest();
+			if (result==null) throw new IllegalStateException("couldn't compute digest of " + getProgram().getFilePath());
+			this.digest = result;
+		}
+		return result;
+	}
+	
+	/**
+	 * @return a 64 bit fingerprint of the candidate, taken from the md5 digest of its program.
+	 */
+	public long fingerprint() {
+		byte[] d = getDigest();
+		long result = 0;
+		for (int i = 0; i < 8 && i < d.length; i++) {
+			result = (result << 8) | (d[i] & 0xFF);
+		}
+		return result;
+	}
+	
 	/**
 	 * Checks whether two fix candidates are equivalent. If the parameter is not a fix candidate,
 	 * returns false.
@@ -85,7 +246,27 @@ public class FixCandidate implements State {
 	public boolean equals(State other) {
 		if (other==null) return false;
 		if (!(other instanceof FixCandidate)) return false;
-		return (this.program.getMd5Digest().equals(((FixCandidate) other).program.getMd5Digest()));
+		if (other==this) return true;
+		FixCandidate otherCandidate = (FixCandidate) other;
+		return (this.fingerprint()==otherCandidate.fingerprint() && Arrays.equals(this.getDigest(), otherCandidate.getDigest()));
+	}
+	
+	/**
+	 * Checks whether two fix candidates are equivalent, as equals(State) does.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof State)) return false;
+		return equals((State) other);
+	}
+	
+	/**
+	 * @return a hash code consistent with equals, taken from the candidate's fingerprint.
+	 */
+	@Override
+	public int hashCode() {
+		long f = fingerprint();
+		return (int) (f ^ (f >>> 32));
 	}
 
 }
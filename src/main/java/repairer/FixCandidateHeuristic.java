@@ -0,0 +1,84 @@
+package repairer;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import mujava.api.Mutant;
+import mujava.api.MutantIdentifier;
+import search.Heuristic;
+
+/**
+ * Heuristic for scoring fix candidates in informed searches for repairs (e.g., best-first search).
+ * The score of a candidate is the sum, over the mutations that led to it, of a fixed mutation cost,
+ * minus the prior of the mutation's operator, minus the suspiciousness of the line it affects.
+ * Hence, candidates with fewer mutations, obtained with operators more likely to repair bugs, and
+ * affecting more suspicious lines, are explored first. By default, no priors nor suspiciousness
+ * values are set, so that candidates are simply ordered by their number of mutations.
+ * @version 0.1
+ */
+public class FixCandidateHeuristic implements Heuristic<FixCandidate> {
+
+	/**
+	 * cost of each mutation applied to a candidate
+	 */
+	private double mutationCost = 1.0;
+	
+	/**
+	 * priors of the mutation operators (operators with no prior have prior 0)
+	 */
+	private Map<Mutant, Double> operatorPriors = new EnumMap<Mutant, Double>(Mutant.class);
+	
+	/**
+	 * suspiciousness of the lines of the method to repair (lines with no suspiciousness have suspiciousness 0)
+	 */
+	private Map<Integer, Double> lineSuspiciousness = new HashMap<Integer, Double>();
+	
+	/**
+	 * Sets the cost of each mutation applied to a candidate.
+	 * @param mutationCost	:	the cost of a mutation	:	{@code double}
+	 */
+	public void setMutationCost(double mutationCost) {
+		if (mutationCost<0) throw new IllegalArgumentException("mutation cost must be >=0");
+		this.mutationCost = mutationCost;
+	}
+	
+	/**
+	 * Sets the prior of a mutation operator, i.e., how likely it is that mutations using the operator repair the program.
+	 * @param operator	:	the mutation operator	:	{@code Mutant}
+	 * @param prior		:	the prior of the operator	:	{@code double}
+	 */
+	public void setOperatorPrior(Mutant operator, double prior) {
+		if (operator==null) throw new IllegalArgumentException("null operator");
+		this.operatorPriors.put(operator, prior);
+	}
+	
+	/**
+	 * Sets the suspiciousness of a line of the method to repair, e.g., as computed by a fault localization technique.
+	 * @param line				:	the line number		:	{@code int}
+	 * @param suspiciousness	:	the suspiciousness of the line	:	{@code double}
+	 */
+	public void setLineSuspiciousness(int line, double suspiciousness) {
+		this.lineSuspiciousness.put(line, suspiciousness);
+	}
+	
+	/**
+	 * Scores a fix candidate. The lower the score, the sooner the candidate is explored.
+	 * @param candidate	:	the candidate to score	:	{@code FixCandidate}
+	 * @param depth		:	the depth at which the candidate was reached	:	{@code int}
+	 * @return the score of the candidate	:	{@code double}
+	 */
+	public double score(FixCandidate candidate, int depth) {
+		if (candidate==null) throw new IllegalArgumentException("null candidate");
+		double score = 0;
+		for (MutantIdentifier mutation : candidate.getMutations()) {
+			score += this.mutationCost;
+			Double prior = this.operatorPriors.get(mutation.getMutOp());
+			if (prior!=null) score -= prior;
+			Double suspiciousness = this.lineSuspiciousness.get(mutation.getAffectedLine());
+			if (suspiciousness!=null) score -= suspiciousness;
+		}
+		return score;
+	}
+
+}
@@ -0,0 +1,132 @@
+package repairer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import mujava.api.Mutant;
+import mujava.api.MutantIdentifier;
+import search.StateSerializer;
+
+/**
+ * Serialised form of fix candidates, used for saving checkpoints of the search for a fix. A candidate is
+ * written as its mutation path: the sequence of mutations that led to it from the program to fix. When
+ * read back, the candidate is rebuilt by replaying its mutation path: each mutation is looked for among
+ * the mutants generated, with the same mutation operator, from the candidate rebuilt so far.
+ * <hr>
+ * <b>note: rebuilt candidates are cached, so that candidates sharing a prefix of their mutation paths
+ * (e.g., siblings in a checkpoint, or in a spilled segment of a frontier) only replay it once. Only the 
+ * most recently used mutation paths are kept, so the cache does not grow with the number of candidates read.
+ * Mutants are generated in the mutation session of the problem, so replaying paths keeps it warm for the search.</b>
+ * 
+ * @version 0.1
+ * @see FixCandidate
+ * @see MuJavaAPI
+ */
+public class FixCandidateSerializer implements StateSerializer<FixCandidate> {
+	
+	/**
+	 * max number of mutation paths whose generated mutants are cached
+	 */
+	private static final int CACHED_PATHS = 64;
+	
+	/**
+	 * the search problem whose fix candidates are serialised : {@code StrykerRepairSearchProblem}
+	 */
+	private StrykerRepairSearchProblem problem;
+	
+	/**
+	 * mutants generated while replaying mutation paths, by mutation path of the mutated candidate 
+	 * and mutation operator : {@code Map<String, List<FixCandidate>>}
+	 */
+	private Map<String, List<FixCandidate>> generated;
+	
+	/**
+	 * the program to fix, as a fix candidate : {@code FixCandidate}
+	 */
+	private FixCandidate initialCandidate;
+	
+	/**
+	 * Constructor
+	 * @param problem	:	the search problem whose fix candidates are serialised	:	{@code StrykerRepairSearchProblem}
+	 */
+	public FixCandidateSerializer(StrykerRepairSearchProblem problem) {
+		if (problem==null) throw new IllegalArgumentException("null problem");
+		this.problem = problem;
+		this.generated = new LinkedHashMap<String, List<FixCandidate>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, List<FixCandidate>> eldest) {
+				return size() > CACHED_PATHS;
+			}
+		};
+	}
+
+	/**
+	 * Writes the mutation path of a fix candidate: for each mutation, its operator, affected line and description.
+	 * 
+	 * @param s		:	the fix candidate to write			:	{@code FixCandidate}
+	 * @param out	:	where the candidate is written to	:	{@code DataOutput}
+	 */
+	public void write(FixCandidate s, DataOutput out) throws IOException {
+		if (s==null) throw new IllegalArgumentException("null fix candidate");
+		List<MutantIdentifier> mutations = s.getMutations();
+		out.writeInt(mutations.size());
+		for (MutantIdentifier mutation : mutations) {
+			out.writeUTF(mutation.getMutOp().name());
+			out.writeInt(mutation.getAffectedLine());
+			out.writeUTF(mutation.toString());
+		}
+	}
+
+	/**
+	 * Reads a mutation path, and rebuilds the fix candidate it leads to.
+	 * 
+	 * @param in	:	where the candidate is read from	:	{@code DataInput}
+	 * @return the rebuilt fix candidate	:	{@code FixCandidate}
+	 */
+	public FixCandidate read(DataInput in) throws IOException {
+		if (this.initialCandidate==null) {
+			this.initialCandidate = this.problem.initialState();
+		}
+		FixCandidate candidate = this.initialCandidate;
+		String path = "";
+		int length = in.readInt();
+		for (int i = 0; i < length; i++) {
+			String operator = in.readUTF();
+			int line = in.readInt();
+			String description = in.readUTF();
+			Mutant op;
+			try {
+				op = Mutant.valueOf(operator);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("unknown mutation operator " + operator);
+			}
+			String key = path + "/" + operator;
+			List<FixCandidate> mutants = this.generated.get(key);
+			if (mutants == null) {
+				mutants = new MuJavaAPI(this.problem.getMutationSession()).generateMutants(candidate, this.problem.methodToFix, new Mutant[] {op});
+				this.generated.put(key, mutants);
+			}
+			candidate = find(mutants, line, description);
+			path = key + "@" + line + ":" + description;
+		}
+		return candidate;
+	}
+	
+	private FixCandidate find(List<FixCandidate> mutants, int line, String description) throws IOException {
+		for (FixCandidate mutant : mutants) {
+			List<MutantIdentifier> mutations = mutant.getMutations();
+			MutantIdentifier last = mutations.get(mutations.size() - 1);
+			if (last.getAffectedLine() == line && last.toString().equals(description)) {
+				return mutant;
+			}
+		}
+		throw new IOException("couldn't replay mutation " + description + " in line " + line);
+	}
+
+}
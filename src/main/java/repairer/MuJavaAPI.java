@@ -1,23 +1,26 @@
 package repairer;
 
 import java.io.File;
-import java.util.HashSet;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Random;
-import java.util.Set;
 
 import openjava.ptree.ParseTreeException;
 
 import mujava.OpenJavaException;
+import mujava.api.Api;
 import mujava.api.Mutant;
 import mujava.api.MutantIdentifier;
 import mujava.api.MutantsInformationHolder;
 import mujava.app.Core;
 import mujava.app.MutantInfo;
 import mujava.app.MutationRequest;
-import mujava.app.Mutator;
 import mujava.util.JustCodeDigest;
 
 /**
@@ -34,9 +37,86 @@ public class MuJavaAPI {
 	 */
 	private String outputDirectory;
 	/**
-	 * Used to detect duplicate mutants : {@code Set<byte[]>}
+	 * Used to detect duplicate mutants : {@code MutantStore}
 	 */
-	private Set<byte[]> mutantHashes;
+	private MutantStore mutantHashes;
+	/**
+	 * Store of mutants shared by all generations, null when each generation uses a store of its own : {@code MutantStore}
+	 */
+	private MutantStore sharedStore = null;
+	/**
+	 * The current generation of mutants, in {@code mutantHashes} : {@code int}
+	 */
+	private int generation;
+	/**
+	 * Filter applied to mutants before looking for repeated ones (null for accepting all mutants) : {@code MutantFilter}
+	 */
+	private MutantFilter filter = null;
+	/**
+	 * Filter applied to mutations before their mutants are produced (null for accepting all mutations) : {@code MutationFilter}
+	 */
+	private MutationFilter mutationFilter = null;
+	/**
+	 * The mutation session used to generate mutants : {@code MutationSession}
+	 */
+	private MutationSession session;
+	/**
+	 * Whether mutants are produced in memory, and only written to disk when needed : {@code boolean}
+	 */
+	private boolean inMemory = false;
+	/**
+	 * Lock held while generating mutants, as muJava is not reentrant : {@code Object}
+	 */
+	private static final Object MUTATOR_LOCK = new Object();
+	/**
+	 * Mutation operators used when none are provided : {@code Mutant[]}
+	 */
+	private static final Mutant[] DEFAULT_OPERATORS = {
+			Mutant.AMC,
+			Mutant.AODS,
+			Mutant.AODU,
+			Mutant.AOIS,
+			Mutant.AOIU,
+			Mutant.AORB,
+			Mutant.AORS,
+			Mutant.AORU,
+			Mutant.ASRS,
+			Mutant.COD,
+			Mutant.COI,
+			Mutant.COR,
+			Mutant.COR,
+			Mutant.EAM,
+			Mutant.EMM,
+			Mutant.ROR,
+			Mutant.SOR,
+			Mutant.EOA_STRICT,
+			Mutant.EOC_SMART,
+			Mutant.IHD,
+			Mutant.IHI,
+			Mutant.IOD,
+			Mutant.IOP,
+			Mutant.IPC,
+			Mutant.ISD_SMART,
+			Mutant.ISI_SMART,
+			Mutant.JDC,
+			Mutant.JID,
+			Mutant.JSD,
+			Mutant.JSI,
+			Mutant.JTD,
+			Mutant.JTI_SMART,
+			Mutant.LOD,
+			Mutant.LOI,
+			Mutant.LOR,
+			Mutant.OAN_RELAXED,
+			Mutant.OMR,
+			Mutant.PCC,
+			Mutant.PCD,
+			Mutant.PMD,
+			Mutant.PNC,
+			Mutant.PPD, 
+			Mutant.PRVOR_REFINED,
+			Mutant.PRVOU_REFINED,
+	};
 	
 	/**
 	 * Constructor
@@ -51,10 +131,70 @@ public class MuJavaAPI {
 	 * @param outputDirectory : the location where all mutants will be written : {@code String}
 	 */
 	public MuJavaAPI(String outputDirectory) {
+		this(outputDirectory, new MutationSession());
+	}
+	
+	/**
+	 * Constructor
+	 * mutants will be written to {@code /tmp/} folder
+	 * @param session : the mutation session, kept warm between generations : {@code MutationSession}
+	 */
+	public MuJavaAPI(MutationSession session) {
+		this("/tmp/mutants/", session);
+	}
+	
+	/**
+	 * Constructor
+	 * @param outputDirectory : the location where all mutants will be written : {@code String}
+	 * @param session : the mutation session, kept warm between generations : {@code MutationSession}
+	 */
+	public MuJavaAPI(String outputDirectory, MutationSession session) {
+		if (session == null) throw new IllegalArgumentException("null mutation session");
 		this.outputDirectory = outputDirectory;
+		this.session = session;
 	}
 	
 	
+	/**
+	 * Enables or disables in-memory generation of mutants : mutants are produced as source buffers, their
+	 * digests (used to filter repeated mutants) are computed from the buffers, and each mutant is written to
+	 * disk only when its program is first needed (see {@link FixCandidate#getProgram()}). Repeated mutants,
+	 * and mutants that are never verified nor mutated, are never written. It is disabled by default.
+	 * 
+	 * @param inMemory	:	whether mutants are produced in memory	:	{@code boolean}
+	 */
+	public void setInMemory(boolean inMemory) {
+		this.inMemory = inMemory;
+	}
+	
+	/**
+	 * Sets a store of mutants shared by all generations, so that repeated mutants are also dropped across
+	 * generations (see {@link MutantStore}). By default, each generation only drops its own repeated mutants.
+	 * 
+	 * @param store	:	the shared store of mutants (null for a store per generation)	:	{@code MutantStore}
+	 */
+	public void setMutantStore(MutantStore store) {
+		this.sharedStore = store;
+	}
+	
+	/**
+	 * Sets a filter of the generated mutants, applied before looking for repeated ones
+	 * 
+	 * @param filter	:	the filter of mutants (null for accepting all mutants)	:	{@code MutantFilter}
+	 */
+	public void setFilter(MutantFilter filter) {
+		this.filter = filter;
+	}
+	
+	/**
+	 * Sets a filter of the obtained mutations, applied before their mutants are produced
+	 * 
+	 * @param mutationFilter	:	the filter of mutations (null for accepting all mutations)	:	{@code MutationFilter}
+	 */
+	public void setMutationFilter(MutationFilter mutationFilter) {
+		this.mutationFilter = mutationFilter;
+	}
+	
 	/**
 	 * Generates mutants from a java file
 	 * 
@@ -64,78 +204,180 @@ public class MuJavaAPI {
 	 * @return	a list of mutants (a list of {@code FixCandidate} where each one represent a mutant)	:	{@code List<FixCandidate>}
 	 */
 	public List<FixCandidate> generateMutants(FixCandidate fixCandidate, String methodToMutate, Mutant[] operators) {
+		startGeneration();
+		return mutate(fixCandidate, methodToMutate, operators);
+	}
+	
+	/**
+	 * Starts a generation of mutants, in the shared store or in a store of its own
+	 */
+	private void startGeneration() {
+		this.mutantHashes = (this.sharedStore == null) ? new MutantStore() : this.sharedStore;
+		this.generation = this.mutantHashes.newGeneration();
+	}
+	
+	/**
+	 * Generates mutants from a java file lazily : mutation operators are applied one at a time, and only
+	 * when all mutants produced by the previous operators were consumed. Repeated mutants are filtered
+	 * across all operators, as in {@link #generateMutants(FixCandidate, String, Mutant[])}.
+	 * <hr>
+	 * <b>note: this object must not be used to generate other mutants while the iterator is being consumed</b>
+	 * 
+	 * @param fixCandidate		:	the java file from which mutants will be generated	:	{@code FixCandidate}
+	 * @param methodToMutate	:	the method to mutate								:	{@code String}
+	 * @param operators			:	the mutation operators to use						:	{@code Mutant[]}
+	 * @return	an iterator over the mutants, generated on demand	:	{@code Iterator<FixCandidate>}
+	 */
+	public Iterator<FixCandidate> generateMutantsLazily(final FixCandidate fixCandidate, final String methodToMutate, final Mutant[] operators) {
+		startGeneration();
+		return new Iterator<FixCandidate>() {
+			private int nextOperator = 0;
+			private Iterator<FixCandidate> current = Collections.<FixCandidate>emptyList().iterator();
+			
+			public boolean hasNext() {
+				while (!current.hasNext() && nextOperator < operators.length) {
+					Mutant[] op = {operators[nextOperator++]};
+					current = mutate(fixCandidate, methodToMutate, op).iterator();
+				}
+				return current.hasNext();
+			}
+			
+			public FixCandidate next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				return current.next();
+			}
+			
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+	
+	/**
+	 * Generates mutants from a java file lazily, using the hardcoded mutation operators
+	 * of {@link #generateMutants(FixCandidate, String)}
+	 * 
+	 * @param fixCandidate		:	the java file from which mutants will be generated	:	{@code FixCandidate}
+	 * @param methodToMutate	:	the method to mutate								:	{@code String}
+	 * @return	an iterator over the mutants, generated on demand	:	{@code Iterator<FixCandidate>}
+	 */
+	public Iterator<FixCandidate> generateMutantsLazily(FixCandidate fixCandidate, String methodToMutate) {
+		return generateMutantsLazily(fixCandidate, methodToMutate, DEFAULT_OPERATORS);
+	}
+	
+	/**
+	 * Generates mutants from a java file, filtering those already in {@code mutantHashes}
+	 */
+	private List<FixCandidate> mutate(FixCandidate fixCandidate, String methodToMutate, Mutant[] operators) {
 		List<FixCandidate> mutants = new LinkedList<FixCandidate>();
 		
-		this.mutantHashes = new HashSet<byte[]>();
-		
-		Mutator mutator = new Mutator();
-		
-		String clazz = fixCandidate.program.getClassNameAsPath();
-		String[] methods = {methodToMutate};
-		Mutant[] ops = operators;
-		String inputDir = fixCandidate.program.getSourceFolder();
-		String outputDir = this.outputDirectory;
+		// muJava (and OpenJava, used to parse programs) keeps global state, so mutants are generated
+		// for one program at a time (even when several engines race on the problem)
+		synchronized (MUTATOR_LOCK) {
+			String clazz = fixCandidate.getProgram().getClassNameAsPath();
+			String[] methods = {methodToMutate};
+			Mutant[] ops = operators;
+			String inputDir = fixCandidate.getProgram().getSourceFolder();
+			String outputDir = this.outputDirectory;
 		
-		outputDir += randomString(10);
+			outputDir += randomString(10);
 		
-		if (!outputDir.endsWith(Core.SEPARATOR)) {
-			outputDir += Core.SEPARATOR;
-		}
-		
-		if (!fixCandidate.mutations.isEmpty()) {
-			outputDir += "from_" + md5HashToString(fixCandidate.program.getMd5Digest());
-		}
+			if (!outputDir.endsWith(Core.SEPARATOR)) {
+				outputDir += Core.SEPARATOR;
+			}
 		
-		if (!outputDir.endsWith(Core.SEPARATOR)) {
-			outputDir += Core.SEPARATOR;
-		}
+			if (!fixCandidate.mutations.isEmpty()) {
+				outputDir += "from_" + md5HashToString(fixCandidate.getDigest());
+			}
 		
-		MutationRequest request = new MutationRequest(clazz, methods, ops, inputDir, outputDir);
+			if (!outputDir.endsWith(Core.SEPARATOR)) {
+				outputDir += Core.SEPARATOR;
+			}
 		
-		mutator.setRequest(request);
+			MutationRequest request = new MutationRequest(clazz, methods, ops, inputDir, outputDir);
 		
-		List<MutantInfo> mutantsInfo = null;
-		MutantsInformationHolder mutations = null;
+			List<MutantInfo> mutantsInfo = null;
+			MutantsInformationHolder mutations = null;
 		
-		boolean couldGenerate = false;
+			boolean couldGenerate = false;
 		
-		try {
+			try {
 		
-			Map<String, MutantsInformationHolder> mutationsPerMethod = mutator.obtainMutants();
+				Map<String, MutantsInformationHolder> mutationsPerMethod = this.session.obtainMutants(request);
 			
-			if (mutationsPerMethod != null && mutationsPerMethod.containsKey(methodToMutate)) {
-				mutations = mutationsPerMethod.get(methodToMutate);
-			}
+				if (mutationsPerMethod != null && mutationsPerMethod.containsKey(methodToMutate)) {
+					mutations = mutationsPerMethod.get(methodToMutate);
+				}
 			
-			if (mutations != null) {
-				mutantsInfo = mutator.writeMutants(methodToMutate, mutations, false);
-				List<MutantInfo> filteredMutants = filterRepeatedMutants(mutantsInfo);
-				mutantsInfo.clear();
-				mutantsInfo.addAll(filteredMutants);
-			}
+				if (mutations != null && this.mutationFilter != null) {
+					// rejected mutations are neither written nor produced
+					Iterator<MutantIdentifier> it = mutations.getMutantsIdentifiers().iterator();
+					while (it.hasNext()) {
+						if (!this.mutationFilter.accept(fixCandidate, it.next())) it.remove();
+					}
+				}
 			
-			mutator.resetMutantFolders();
+				if (mutations != null && this.inMemory) {
+					mutants.addAll(produceMutants(fixCandidate, methodToMutate, mutations, outputDir));
+				} else if (mutations != null) {
+					mutantsInfo = this.session.writeMutants(methodToMutate, mutations);
+				}
 			
-			couldGenerate = mutations != null;
+				this.session.resetMutantFolders();
 			
-		} catch (ClassNotFoundException e) {
-			e.printStackTrace();
-		} catch (OpenJavaException e) {
-			e.printStackTrace();
-		} catch (ParseTreeException e) {
-			e.printStackTrace();
-		}
+				couldGenerate = mutations != null;
+			
+			} catch (ClassNotFoundException e) {
+				e.printStackTrace();
+			} catch (OpenJavaException e) {
+				e.printStackTrace();
+			} catch (ParseTreeException e) {
+				e.printStackTrace();
+			}
 		
-		if (couldGenerate) {
-			for (MutantInfo mi : mutantsInfo) {
-				mutants.add(wrapMutant(mi, fixCandidate.getMutations()));
+			if (couldGenerate && !this.inMemory) {
+				mutants.addAll(filterRepeatedMutants(fixCandidate, mutantsInfo));
 			}
-		}
 		
-		return mutants;
+			return mutants;
+		}
 	}
 	
 	
+	/**
+	 * Produces mutants in memory, filtering those already in {@code mutantHashes}
+	 * 
+	 * @param fixCandidate		:	the mutated fix candidate							:	{@code FixCandidate}
+	 * @param methodToMutate	:	the mutated method									:	{@code String}
+	 * @param mutations			:	the mutations of the method							:	{@code MutantsInformationHolder}
+	 * @param outputDir			:	the location where the mutants will be written		:	{@code String}
+	 * @return	the mutants, not yet written to disk	:	{@code List<FixCandidate>}
+	 * @throws ParseTreeException
+	 */
+	private List<FixCandidate> produceMutants(FixCandidate fixCandidate, String methodToMutate, MutantsInformationHolder mutations, String outputDir) throws ParseTreeException {
+		List<FixCandidate> mutants = new LinkedList<FixCandidate>();
+		String className = fixCandidate.getProgram().getClassName();
+		int index = 0;
+		for (MutantIdentifier mi : mutations.getMutantsIdentifiers()) {
+			StringWriter buffer = new StringWriter();
+			PrintWriter writer = new PrintWriter(buffer);
+			Api.writeMutant(mutations.getCompUnit(), mi, writer);
+			writer.flush();
+			String source = buffer.toString();
+			// each mutant gets a folder of its own, as when written by muJava
+			String sourceFolder = outputDir + methodToMutate + Core.SEPARATOR + mi.getMutOp() + Core.SEPARATOR + index + Core.SEPARATOR;
+			List<MutantIdentifier> mutantMutations = new LinkedList<MutantIdentifier>();
+			mutantMutations.addAll(fixCandidate.getMutations());
+			mutantMutations.add(mi);
+			FixCandidate mutant = new FixCandidate(sourceFolder, className, source, JustCodeDigest.digest(source), mutantMutations);
+			if (keep(mutant)) {
+				mutants.add(mutant);
+			}
+			index++;
+		}
+		return mutants;
+	}
+	
 	private String md5HashToString(byte[] md5Digest) {
 		String result = "";
 		for (byte b : md5Digest) {
@@ -200,53 +442,7 @@ public class MuJavaAPI {
 	 * </b>
 	 */
 	public List<FixCandidate> generateMutants(FixCandidate fixCandidate, String methodToMutate) {
-		Mutant[] operators = {
-				Mutant.AMC,
-				Mutant.AODS,
-				Mutant.AODU,
-				Mutant.AOIS,
-				Mutant.AOIU,
-				Mutant.AORB,
-				Mutant.AORS,
-				Mutant.AORU,
-				Mutant.ASRS,
-				Mutant.COD,
-				Mutant.COI,
-				Mutant.COR,
-				Mutant.COR,
-				Mutant.EAM,
-				Mutant.EMM,
-				Mutant.ROR,
-				Mutant.SOR,
-				Mutant.EOA_STRICT,
-				Mutant.EOC_SMART,
-				Mutant.IHD,
-				Mutant.IHI,
-				Mutant.IOD,
-				Mutant.IOP,
-				Mutant.IPC,
-				Mutant.ISD_SMART,
-				Mutant.ISI_SMART,
-				Mutant.JDC,
-				Mutant.JID,
-				Mutant.JSD,
-				Mutant.JSI,
-				Mutant.JTD,
-				Mutant.JTI_SMART,
-				Mutant.LOD,
-				Mutant.LOI,
-				Mutant.LOR,
-				Mutant.OAN_RELAXED,
-				Mutant.OMR,
-				Mutant.PCC,
-				Mutant.PCD,
-				Mutant.PMD,
-				Mutant.PNC,
-				Mutant.PPD, 
-				Mutant.PRVOR_REFINED,
-				Mutant.PRVOU_REFINED,
-		};
-		return generateMutants(fixCandidate, methodToMutate, operators);
+		return generateMutants(fixCandidate, methodToMutate, DEFAULT_OPERATORS);
 	}
 	
 	
@@ -278,27 +474,39 @@ public class MuJavaAPI {
 	}
 	
 	/**
-	 * Filters and deleted repeated mutants, uses {@code JustCodeDigest} to calculate mutant hashes
+	 * Wraps written mutants, filtering and deleting repeated (and rejected) mutants, uses {@code JustCodeDigest}
+	 * to calculate mutant hashes
 	 * 
+	 * @param fixCandidate	:	the mutated fix candidate		:	{@code FixCandidate}
 	 * @param newMutants	:	the list of mutants to filter	:	{@code List<MutantInfo>}
 	 * @return a list of filtered mutants
 	 */
-	private List<MutantInfo> filterRepeatedMutants(List<MutantInfo> newMutants) {
-		List<MutantInfo> filteredMutants = new LinkedList<MutantInfo>();
+	private List<FixCandidate> filterRepeatedMutants(FixCandidate fixCandidate, List<MutantInfo> newMutants) {
+		List<FixCandidate> filteredMutants = new LinkedList<FixCandidate>();
 		for (MutantInfo mut : newMutants) {
-			String path = mut.getPath();
-			File mutantFile = new File(path);
-			byte[] digest = JustCodeDigest.digest(mutantFile);
-			if (this.mutantHashes.add(digest)) {
-				filteredMutants.add(mut);
+			FixCandidate mutant = wrapMutant(mut, fixCandidate.getMutations());
+			if (keep(mutant)) {
+				filteredMutants.add(mutant);
 			} else {
-				delete(path);					//deletes mutant
-				delete(mutantFile.getParent());	//deletes the folder which contained the mutant
+				String path = mut.getPath();
+				delete(path);								//deletes mutant
+				delete(new File(path).getParent());			//deletes the folder which contained the mutant
 			}
 		}
 		return filteredMutants;
 	}
 	
+	/**
+	 * Decides whether a mutant is kept : it must be accepted by the filter, and not be a repeated mutant
+	 * 
+	 * @param mutant	:	the mutant	:	{@code FixCandidate}
+	 * @return	{@code true} iff the mutant is kept	:	{@code boolean}
+	 */
+	private boolean keep(FixCandidate mutant) {
+		if (this.filter != null && !this.filter.accept(mutant)) return false;
+		return this.mutantHashes.offer(mutant.getDigest(), mutant.getMutations().size(), this.generation);
+	}
+	
 	private void delete(String path) {
 		String fixedPath = path;
 		File f = new File(fixedPath);
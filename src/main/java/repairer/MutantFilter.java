@@ -0,0 +1,19 @@
+package repairer;
+
+/**
+ * A filter of the mutants generated by {@link MuJavaAPI}, applied before repeated mutants are looked for
+ * in its {@link MutantStore} (so that a rejected mutant does not cause an accepted one with the same
+ * program to be dropped).
+ *
+ * @version 0.1
+ * @see MuJavaAPI
+ */
+public interface MutantFilter {
+
+	/**
+	 * @param mutant	:	a generated mutant	:	{@code FixCandidate}
+	 * @return	{@code true} iff the mutant is accepted	:	{@code boolean}
+	 */
+	public boolean accept(FixCandidate mutant);
+
+}
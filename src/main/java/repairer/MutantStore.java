@@ -0,0 +1,246 @@
+package repairer;
+
+/**
+ * A content-addressed store of the mutants generated in a repair process, used to drop repeated mutants
+ * before they reach the search engine.
+ * <p>
+ * Mutants are stored by the 128 bits of the md5 digest of their program (modulo comments and blank spaces,
+ * see {@link FixCandidate#getDigest()}), packed into two longs, together with the shallowest depth (number
+ * of mutations) at which they were generated, and the last generation (call to {@link MuJavaAPI}) that
+ * produced them. Whether a mutant is dropped only depends on its program and its depth, not on the
+ * candidate it was generated from: a mutant is dropped when it repeats the program the repair starts from,
+ * or a mutant of the same generation, or (unless disabled, see {@link #setDropDeeperRepeats(boolean)})
+ * a mutant generated at a strictly shallower depth. Mutants repeated at the same depth are kept (whether
+ * to expand them again is decided by the duplicate detection of the search engines), and so is a mutant
+ * generated at a shallower depth than before (so that a bounded search can go deeper from it).
+ * <p>
+ * Dropping deeper repeats is sound for searches that explore every mutant they are given (up to their max
+ * depth), as the shallower mutant reaches, within the bound, every candidate the deeper one reaches. It must
+ * be disabled for searches that may discard mutants (e.g., beam or monte carlo searches).
+ * <p>
+ * The store is an open addressing hash table over primitive arrays, which grows on demand up to a max
+ * number of mutants; once full, new mutants are kept without being stored.
+ *
+ * @version 0.1
+ * @see MuJavaAPI
+ */
+public class MutantStore {
+	/**
+	 * Initial number of slots of the store : {@code int}
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+	/**
+	 * Default max number of stored mutants : {@code int}
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1 << 20;
+	/**
+	 * Low half of a digest used in place of 0 when both halves are 0, which marks empty slots : {@code long}
+	 */
+	private static final long ZERO_REPLACEMENT = 0x9E3779B97F4A7C15L;
+	/**
+	 * High and low halves of the digests of the stored mutants (both 0 for empty slots) : {@code long[]}
+	 */
+	private long[] highs;
+	private long[] lows;
+	/**
+	 * Shallowest depth at which each stored mutant was generated : {@code int[]}
+	 */
+	private int[] depths;
+	/**
+	 * Last generation that produced each stored mutant : {@code int[]}
+	 */
+	private int[] generations;
+	/**
+	 * Number of stored mutants : {@code int}
+	 */
+	private int size;
+	/**
+	 * Last generation started : {@code int}
+	 */
+	private int generation;
+	/**
+	 * Number of dropped mutants : {@code long}
+	 */
+	private long dropped;
+	/**
+	 * Max number of stored mutants : {@code int}
+	 */
+	private final int maxSize;
+	/**
+	 * Whether mutants repeating a mutant generated at a shallower depth are dropped : {@code boolean}
+	 */
+	private boolean dropDeeperRepeats = true;
+
+	/**
+	 * Constructor, for a store of up to {@link #DEFAULT_MAX_SIZE} mutants
+	 */
+	public MutantStore() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize	:	the max number of stored mutants	:	{@code int}
+	 */
+	public MutantStore(int maxSize) {
+		if (maxSize <= 0) throw new IllegalArgumentException("max size must be >0");
+		this.maxSize = maxSize;
+		clear();
+	}
+
+	/**
+	 * Enables or disables dropping mutants that repeat a mutant generated at a shallower depth (it is enabled by default)
+	 *
+	 * @param dropDeeperRepeats	:	{@code true} iff deeper repeats are dropped	:	{@code boolean}
+	 */
+	public synchronized void setDropDeeperRepeats(boolean dropDeeperRepeats) {
+		this.dropDeeperRepeats = dropDeeperRepeats;
+	}
+
+	/**
+	 * Starts a new generation of mutants (i.e., the mutation of a candidate)
+	 *
+	 * @return	the identifier of the generation	:	{@code int}
+	 */
+	public synchronized int newGeneration() {
+		return ++this.generation;
+	}
+
+	/**
+	 * Offers a generated mutant to the store
+	 *
+	 * @param digest		:	the md5 digest of the mutant					:	{@code byte[]}
+	 * @param depth			:	the depth (number of mutations) of the mutant	:	{@code int}
+	 * @param generation	:	the generation that produced the mutant			:	{@code int}
+	 * @return	{@code true} iff the mutant must be kept, {@code false} iff it is a repeated mutant, and it is dropped	:	{@code boolean}
+	 */
+	public synchronized boolean offer(byte[] digest, int depth, int generation) {
+		if (digest == null) throw new IllegalArgumentException("null digest");
+		long high = high(digest);
+		long low = low(digest);
+		int slot = slotOf(high, low);
+		if (!isEmpty(slot)) {
+			boolean repeated = this.depths[slot] == 0
+					|| this.generations[slot] == generation
+					|| (this.dropDeeperRepeats && this.depths[slot] < depth);
+			if (repeated) {
+				this.dropped++;
+				return false;
+			}
+			this.depths[slot] = Math.min(this.depths[slot], depth);
+			this.generations[slot] = generation;
+			return true;
+		}
+		if (this.size >= this.maxSize) {
+			// the store is full
+			return true;
+		}
+		if (2 * (this.size + 1) > this.highs.length) {
+			grow();
+			slot = slotOf(high, low);
+		}
+		this.highs[slot] = high;
+		this.lows[slot] = low;
+		this.depths[slot] = depth;
+		this.generations[slot] = generation;
+		this.size++;
+		return true;
+	}
+
+	/**
+	 * Stores the program a repair starts from, so that mutants repeating it are dropped
+	 *
+	 * @param digest	:	the md5 digest of the program	:	{@code byte[]}
+	 */
+	public synchronized void seed(byte[] digest) {
+		if (digest == null) throw new IllegalArgumentException("null digest");
+		if (isEmpty(slotOf(high(digest), low(digest)))) {
+			offer(digest, 0, 0);
+		}
+	}
+
+	/**
+	 * @return the number of stored mutants : {@code int}
+	 */
+	public synchronized int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return the number of repeated mutants dropped : {@code long}
+	 */
+	public synchronized long getDropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * Removes all mutants from the store, releasing its memory
+	 */
+	public synchronized void clear() {
+		this.highs = new long[INITIAL_CAPACITY];
+		this.lows = new long[INITIAL_CAPACITY];
+		this.depths = new int[INITIAL_CAPACITY];
+		this.generations = new int[INITIAL_CAPACITY];
+		this.size = 0;
+		this.dropped = 0;
+	}
+
+	private static long high(byte[] digest) {
+		return pack(digest, 0);
+	}
+
+	private static long low(byte[] digest) {
+		long low = pack(digest, 8);
+		return (low == 0 && high(digest) == 0) ? ZERO_REPLACEMENT : low;
+	}
+
+	/**
+	 * Packs 8 bytes of a digest, from a given offset, into a long (missing bytes are taken as 0)
+	 */
+	private static long pack(byte[] digest, int offset) {
+		long result = 0;
+		for (int i = offset; i < offset + 8; i++) {
+			result = (result << 8) | ((i < digest.length) ? (digest[i] & 0xFF) : 0);
+		}
+		return result;
+	}
+
+	private boolean isEmpty(int slot) {
+		return this.highs[slot] == 0 && this.lows[slot] == 0;
+	}
+
+	/**
+	 * Returns the slot holding the given digest, or the empty slot where it should be stored
+	 */
+	private int slotOf(long high, long low) {
+		int mask = this.highs.length - 1;
+		long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		while (!isEmpty(slot) && (this.highs[slot] != high || this.lows[slot] != low)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void grow() {
+		long[] oldHighs = this.highs;
+		long[] oldLows = this.lows;
+		int[] oldDepths = this.depths;
+		int[] oldGenerations = this.generations;
+		this.highs = new long[oldHighs.length * 2];
+		this.lows = new long[oldLows.length * 2];
+		this.depths = new int[oldDepths.length * 2];
+		this.generations = new int[oldGenerations.length * 2];
+		for (int i = 0; i < oldHighs.length; i++) {
+			if (oldHighs[i] != 0 || oldLows[i] != 0) {
+				int slot = slotOf(oldHighs[i], oldLows[i]);
+				this.highs[slot] = oldHighs[i];
+				this.lows[slot] = oldLows[i];
+				this.depths[slot] = oldDepths[i];
+				this.generations[slot] = oldGenerations[i];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,22 @@
+package repairer;
+
+import mujava.api.MutantIdentifier;
+
+/**
+ * A filter of the mutations obtained by {@link MuJavaAPI} for a fix candidate, applied before their mutants
+ * are produced (so that rejected mutations are neither written to disk nor looked for in its {@link MutantStore}).
+ *
+ * @version 0.1
+ * @see MuJavaAPI
+ * @see MutantFilter
+ */
+public interface MutationFilter {
+
+	/**
+	 * @param fixCandidate	:	the mutated fix candidate	:	{@code FixCandidate}
+	 * @param mutation		:	a mutation of the candidate	:	{@code MutantIdentifier}
+	 * @return	{@code true} iff the mutation is accepted	:	{@code boolean}
+	 */
+	public boolean accept(FixCandidate fixCandidate, MutantIdentifier mutation);
+
+}
@@ -0,0 +1,105 @@
+package repairer;
+
+import java.util.List;
+import java.util.Map;
+
+import openjava.ptree.ParseTreeException;
+
+import mujava.OpenJavaException;
+import mujava.api.Api;
+import mujava.api.MutantsInformationHolder;
+import mujava.app.MutantInfo;
+import mujava.app.MutationRequest;
+import mujava.app.Mutator;
+
+/**
+ * A long-lived mutation session, shared by all the mutant generations of a repair process.
+ * <p>
+ * By default, {@code muJava++} cleans the OpenJava environment before generating mutants, so the
+ * class being mutated and every class it refers to are parsed and resolved again for each fix
+ * candidate. A session keeps the environment (and its {@code Mutator}) warm between generations:
+ * only the candidate's file is parsed again, and its class replaces the previous one in the
+ * environment, while the classes it refers to are reused. The environment is global, so it is only
+ * kept when the previous generation was performed by the same session.
+ * <hr>
+ * <b>note: sessions must only be used while holding the lock of {@link MuJavaAPI}, as muJava is not reentrant</b>
+ *
+ * @version 0.1
+ * @see MuJavaAPI
+ */
+public class MutationSession {
+	/**
+	 * The session that performed the last generation, whose environment is the current one : {@code MutationSession}
+	 */
+	private static MutationSession current = null;
+	/**
+	 * The mutator reused by all generations of this session : {@code Mutator}
+	 */
+	private Mutator mutator;
+	/**
+	 * The number of generations that reused the environment of this session : {@code int}
+	 */
+	private int warmGenerations = 0;
+
+	/**
+	 * Constructor
+	 */
+	public MutationSession() {
+		this.mutator = new Mutator();
+	}
+
+	/**
+	 * Obtains the mutants of a request, reusing the environment of the session if it is still the current one
+	 *
+	 * @param request	:	the mutation request	:	{@code MutationRequest}
+	 * @return	the mutations per method	:	{@code Map<String, MutantsInformationHolder>}
+	 * @throws ClassNotFoundException
+	 * @throws OpenJavaException
+	 * @throws ParseTreeException
+	 */
+	Map<String, MutantsInformationHolder> obtainMutants(MutationRequest request) throws ClassNotFoundException, OpenJavaException, ParseTreeException {
+		boolean warm = current == this;
+		// the environment is cleaned unless it is this session's; in any case, it is cleaned by
+		// default for other users of muJava
+		current = null;
+		Api.cleanOJSystemBeforeGenerating(!warm);
+		try {
+			this.mutator.setRequest(request);
+			Map<String, MutantsInformationHolder> mutations = this.mutator.obtainMutants();
+			current = this;
+			if (warm) this.warmGenerations++;
+			return mutations;
+		} finally {
+			Api.cleanOJSystemBeforeGenerating(true);
+		}
+	}
+
+	/**
+	 * Writes the mutants of a method obtained by the last call to {@link #obtainMutants(MutationRequest)}
+	 *
+	 * @param methodToMutate	:	the mutated method					:	{@code String}
+	 * @param mutations			:	the mutations of the method			:	{@code MutantsInformationHolder}
+	 * @return	the written mutants	:	{@code List<MutantInfo>}
+	 * @throws ClassNotFoundException
+	 * @throws OpenJavaException
+	 * @throws ParseTreeException
+	 */
+	List<MutantInfo> writeMutants(String methodToMutate, MutantsInformationHolder mutations) throws ClassNotFoundException, OpenJavaException, ParseTreeException {
+		return this.mutator.writeMutants(methodToMutate, mutations, false);
+	}
+
+	/**
+	 * Resets the mutant folders of the mutator, once the mutants of a request were written
+	 */
+	void resetMutantFolders() {
+		this.mutator.resetMutantFolders();
+	}
+
+	/**
+	 * @return the number of generations that reused the environment of this session : {@code int}
+	 */
+	public int getWarmGenerations() {
+		return this.warmGenerations;
+	}
+
+}
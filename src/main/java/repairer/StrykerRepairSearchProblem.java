@@ -5,10 +5,20 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
-import search.AbstractSearchProblem;
+import mujava.api.MutantIdentifier;
+
+import search.BatchSearchProblem;
+import search.LazySearchProblem;
 import ar.edu.jdynalloy.JDynAlloySemanticException;
 import ar.edu.taco.TacoAnalysisResult;
 import ar.edu.taco.TacoMain;
@@ -26,7 +36,7 @@ import ar.edu.taco.TacoNotImplementedYetException;
  * @author Nazareno Matías Aguirre
  * @version 0.1
  */
-public class StrykerRepairSearchProblem implements AbstractSearchProblem<FixCandidate> {
+public class StrykerRepairSearchProblem implements LazySearchProblem<FixCandidate>, BatchSearchProblem<FixCandidate> {
 
 	/**
 	 * class to fix using Stryker.
@@ -50,6 +60,71 @@ public class StrykerRepairSearchProblem implements AbstractSearchProblem<FixCand
 	 */
 	private String typeScopes = null;
 	
+	/**
+	 * whether successors whose mutations are a permutation of those of an already generated candidate
+	 * (i.e., not in canonical order) are pruned.
+	 */
+	private boolean canonicalOrder = false;
+	
+	/**
+	 * whether mutations leading to invalid candidates are learned (as nogoods), to prune candidates
+	 * containing them.
+	 */
+	private boolean nogoodLearning = false;
+	
+	/**
+	 * learned nogoods: mutations that led to candidates that do not compile, or that taco cannot analyze
+	 * (see learnNogood). 
+	 */
+	private final Set<String> nogoods = Collections.synchronizedSet(new HashSet<String>());
+	
+	/**
+	 * mutation session shared by all successor computations, so that muJava's parsing environment is
+	 * kept warm between them.
+	 */
+	private final MutationSession mutationSession = new MutationSession();
+	
+	/**
+	 * store of all mutants generated in the repair process, used to drop repeated mutants.
+	 */
+	private final MutantStore mutantStore = new MutantStore();
+	
+	/**
+	 * filter of the mutants generated as successors: those pruned are not looked for in the store of mutants.
+	 */
+	private final MutantFilter successorsFilter = new MutantFilter() {
+		public boolean accept(FixCandidate mutant) {
+			return !pruned(mutant);
+		}
+	};
+	
+	/**
+	 * filter of the mutations of fix candidates: those of invalid candidates are only generated when they
+	 * may fix them (see prunedMutation).
+	 */
+	private final MutationFilter mutationsFilter = new MutationFilter() {
+		public boolean accept(FixCandidate fixCandidate, MutantIdentifier mutation) {
+			return !prunedMutation(fixCandidate, mutation);
+		}
+	};
+	
+	/**
+	 * whether mutants are produced in memory, and only written to disk when they are verified or mutated.
+	 */
+	private boolean inMemoryMutants = false;
+	
+	/**
+	 * Lock held while verifying a candidate; verification is not reentrant (see success).
+	 */
+	private static final Object VERIFICATION_LOCK = new Object();
+	
+	/**
+	 * sandboxes where candidates are verified in parallel (see setVerificationSandboxes), and those of them
+	 * not in use; null when candidates are verified in the compilation sandbox, one at a time.
+	 */
+	private List<VerificationSandbox> verificationSandboxes = null;
+	private BlockingQueue<VerificationSandbox> freeSandboxes = null;
+	
 	/**
 	 * Constructor of StrykerRepairSearchProblem. It receives a JML program to fix, and the name of the
 	 * method to fix in the program/class.
@@ -97,8 +172,261 @@ public class StrykerRepairSearchProblem implements AbstractSearchProblem<FixCand
 	 */
 	public List<FixCandidate> getSuccessors(FixCandidate s) {
 		if (s==null) throw new IllegalArgumentException("null candidate passed for computing successors");
-		MuJavaAPI mjAPI = new MuJavaAPI();
-		return mjAPI.generateMutants(s, methodToFix);
+		List<FixCandidate> successors = mutationAPI(s).generateMutants(s, methodToFix);
+		for (FixCandidate successor : successors) {
+			inheritValidity(s, successor);
+		}
+		return successors;
+	}
+
+	/**
+	 * Computes the successors of a given fix candidate lazily. Successors are the same as those computed
+	 * by getSuccessors, but mutation operators are applied one at a time, as successors are requested;
+	 * so, when a search succeeds on an early successor, mutants for the remaining operators are never
+	 * generated nor written to disk.
+	 * @param s is the fix candidate to compute the successors to.
+	 * @return an iterator over all mutations, as fix candidates, obtainable from the fix candidate s.
+	 */
+	public Iterator<FixCandidate> getSuccessorsIterator(final FixCandidate s) {
+		if (s==null) throw new IllegalArgumentException("null candidate passed for computing successors");
+		final Iterator<FixCandidate> successors = mutationAPI(s).generateMutantsLazily(s, methodToFix);
+		return new Iterator<FixCandidate>() {
+			public boolean hasNext() {
+				return successors.hasNext();
+			}
+			
+			public FixCandidate next() {
+				FixCandidate successor = successors.next();
+				inheritValidity(s, successor);
+				return successor;
+			}
+			
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+	
+	/**
+	 * Records whether all the ancestors of a successor of a fix candidate are valid: the candidate must
+	 * have been verified to be valid, and so must its own ancestors.
+	 */
+	private void inheritValidity(FixCandidate s, FixCandidate successor) {
+		successor.setValidPrefixes(s.getMutations().isEmpty() || (s.isKnownValid() && s.hasValidPrefixes()));
+	}
+	
+	/**
+	 * Sets up muJava for computing the successors of a fix candidate: mutants are generated in the mutation
+	 * session of the problem, pruned mutants are filtered, and repeated mutants (of any mutants generated 
+	 * so far, including the initial candidate) are dropped.
+	 */
+	private MuJavaAPI mutationAPI(FixCandidate s) {
+		if (s.getMutations().isEmpty()) this.mutantStore.seed(s.getDigest());
+		MuJavaAPI mjAPI = new MuJavaAPI(this.mutationSession);
+		mjAPI.setInMemory(this.inMemoryMutants);
+		mjAPI.setMutantStore(this.mutantStore);
+		mjAPI.setFilter(this.successorsFilter);
+		mjAPI.setMutationFilter(this.mutationsFilter);
+		return mjAPI;
+	}
+	
+	/**
+	 * @return true iff a mutant of a fix candidate is pruned from its successors: its mutations are not
+	 * in canonical order, or it contains a learned nogood.
+	 */
+	private boolean pruned(FixCandidate mutant) {
+		return (this.canonicalOrder && !inCanonicalOrder(mutant)) || containsNogood(mutant);
+	}
+	
+	/**
+	 * Decides whether a mutation of a fix candidate is pruned before its mutant is generated, when learning
+	 * nogoods: the subtree of a candidate verified to be invalid (it does not compile, or taco cannot analyze
+	 * it) is skipped, except for the mutations touching the line of its offending mutation, which may fix it.
+	 * The offending mutation is the last one when all ancestors of the candidate are valid; otherwise, it may
+	 * be any of its mutations. Mutations outside the method do not have a line, so when one of them may be
+	 * the offending one, nothing is pruned.
+	 * @param candidate is the mutated fix candidate.
+	 * @param mutation is a mutation of candidate.
+	 * @return true iff the mutation is pruned.
+	 */
+	protected boolean prunedMutation(FixCandidate candidate, MutantIdentifier mutation) {
+		if (!this.nogoodLearning || !candidate.isKnownInvalid()) return false;
+		List<MutantIdentifier> mutations = candidate.getMutations();
+		if (mutations.isEmpty()) return false;
+		int firstOffending = candidate.hasValidPrefixes()?mutations.size()-1:0;
+		boolean touched = false;
+		for (int i = firstOffending; i < mutations.size(); i++) {
+			if (!mutations.get(i).isOneLineInMethodOp()) return false;
+			touched = touched || mutations.get(i).getAffectedLine()==mutation.getAffectedLine();
+		}
+		return !(mutation.isOneLineInMethodOp() && touched);
+	}
+	
+	/**
+	 * Decides whether the last mutation of a fix candidate comes after the previous one, in the 
+	 * canonical order of mutations (by affected line). Mutations of different lines of the method
+	 * commute (applying A and then B gives the same program as B and then A), so only the permutation
+	 * of them in canonical order needs to be generated. Mutations of the same line do not necessarily
+	 * commute (the second one mutates the result of the first), nor do mutations outside the method,
+	 * so these are never pruned: the canonical order is by line only, and it is not refined by
+	 * mutation operator, as that would prune same-line permutations giving different programs.
+	 * @param candidate is a mutant of a fix candidate.
+	 * @return true iff the mutations of candidate are in canonical order.
+	 */
+	protected boolean inCanonicalOrder(FixCandidate candidate) {
+		List<MutantIdentifier> mutations = candidate.getMutations();
+		if (mutations.size()<2) return true;
+		MutantIdentifier previous = mutations.get(mutations.size()-2);
+		MutantIdentifier last = mutations.get(mutations.size()-1);
+		if (!previous.isOneLineInMethodOp() || !last.isOneLineInMethodOp()) return true;
+		return previous.getAffectedLine()<=last.getAffectedLine();
+	}
+	
+	/**
+	 * Enables or disables pruning of successors whose mutations are not in canonical order (they
+	 * give the same programs as successors in canonical order). It is disabled by default.
+	 * @param canonicalOrder is true iff successors not in canonical order are pruned.
+	 */
+	public void setCanonicalOrder(boolean canonicalOrder) {
+		this.canonicalOrder = canonicalOrder;
+	}
+	
+	/**
+	 * Decides whether a fix candidate contains a learned nogood, that is, a mutation that already led to
+	 * a candidate that does not compile or that taco cannot analyze, at a line that no later mutation of
+	 * the candidate touches. Such a candidate fails the same way, so it is neither verified nor expanded.
+	 * Descendants whose later mutations touch the line of the nogood are kept, since these may fix it.
+	 * @param candidate is the fix candidate to check.
+	 * @return true iff candidate contains a learned nogood.
+	 */
+	protected boolean containsNogood(FixCandidate candidate) {
+		if (!this.nogoodLearning || this.nogoods.isEmpty()) return false;
+		List<MutantIdentifier> mutations = candidate.getMutations();
+		for (int i = 0; i < mutations.size(); i++) {
+			if (!this.nogoods.contains(nogoodKey(mutations.get(i)))) continue;
+			boolean touched = false;
+			for (int j = i+1; j < mutations.size() && !touched; j++) {
+				touched = mutations.get(j).getAffectedLine()==mutations.get(i).getAffectedLine();
+			}
+			if (!touched) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Records that a fix candidate does not compile, or that taco cannot analyze it, and learns its last
+	 * mutation as a nogood when all of its ancestors were verified to be valid (so that the last mutation
+	 * is the offending one). Candidates with an invalid (or unverified) ancestor are expanded too, so their
+	 * last mutation may be harmless; no nogood is learned from them.
+	 * @param candidate is the invalid fix candidate.
+	 */
+	void learnNogood(FixCandidate candidate) {
+		candidate.setValid(false);
+		if (!this.nogoodLearning || candidate.getMutations().isEmpty() || !candidate.hasValidPrefixes()) return;
+		List<MutantIdentifier> mutations = candidate.getMutations();
+		this.nogoods.add(nogoodKey(mutations.get(mutations.size()-1)));
+	}
+	
+	/**
+	 * Identifies a mutation by its operator, its affected line and the code it replaces (mutant identifiers
+	 * of different candidates refer to different parse trees, so they are not equal even for the same mutation).
+	 */
+	private static String nogoodKey(MutantIdentifier mutation) {
+		String original = (mutation.getOriginal()==null)?"":mutation.getOriginal().toFlattenString();
+		String mutant = (mutation.getMutant()==null)?"":mutation.getMutant().toFlattenString();
+		return mutation.getMutOp() + "@" + mutation.getAffectedLine() + ":" + original + "->" + mutant;
+	}
+	
+	/**
+	 * Enables or disables in-memory generation of successors: mutants are produced as source buffers, and
+	 * only written to disk when they are verified or mutated. It is disabled by default.
+	 * @param inMemoryMutants is true iff mutants are produced in memory.
+	 */
+	public void setInMemoryMutants(boolean inMemoryMutants) {
+		this.inMemoryMutants = inMemoryMutants;
+	}
+	
+	/**
+	 * Enables or disables learning of nogoods: mutations leading to candidates that do not compile, or that
+	 * taco cannot analyze, prune later candidates containing them, and the subtrees of such candidates are
+	 * skipped (see prunedMutation). It is disabled by default.
+	 * @param nogoodLearning is true iff nogoods are learned.
+	 */
+	public void setNogoodLearning(boolean nogoodLearning) {
+		this.nogoodLearning = nogoodLearning;
+		if (!nogoodLearning) this.nogoods.clear();
+	}
+	
+	/**
+	 * Enables or disables dropping successors that repeat a mutant generated at a shallower depth (see 
+	 * MutantStore). It is enabled by default, and it must be disabled for searches that may discard
+	 * successors (e.g., beam or monte carlo searches).
+	 * @param dropDeeperRepeats is true iff deeper repeats are dropped.
+	 */
+	public void setDropDeeperRepeats(boolean dropDeeperRepeats) {
+		this.mutantStore.setDropDeeperRepeats(dropDeeperRepeats);
+	}
+	
+	/**
+	 * @return the number of repeated mutants dropped so far (not counting pruned mutants) : {@code long}
+	 */
+	public long getDroppedMutants() {
+		return this.mutantStore.getDropped();
+	}
+	
+	/**
+	 * @return the mutation session generating the successors of this problem, to be shared by others
+	 * generating mutants of its candidates (e.g., when replaying their mutation paths).
+	 */
+	MutationSession getMutationSession() {
+		return this.mutationSession;
+	}
+	
+	/**
+	 * Makes candidates be verified in a number of verification sandboxes of their own, copies of the
+	 * compilation sandbox (which must be already set, see FixCandidate.setSandboxDir), instead of in the
+	 * compilation sandbox. Candidates are then verified by child JVMs, and up to that number of candidates
+	 * are verified at the same time (e.g., by the workers of a parallel search).
+	 * @param sandboxes is the number of sandboxes, the max number of candidates verified at the same time.
+	 * @throws IOException if the sandboxes could not be created.
+	 */
+	public void setVerificationSandboxes(int sandboxes) throws IOException {
+		if (sandboxes<=0) throw new IllegalArgumentException("sandboxes must be >0");
+		if (FixCandidate.getSandboxDir()==null) throw new IllegalStateException("compilation sandbox not set");
+		deleteVerificationSandboxes();
+		List<VerificationSandbox> created = new LinkedList<VerificationSandbox>();
+		try {
+			for (int i = 0; i < sandboxes; i++) {
+				created.add(VerificationSandbox.create(FixCandidate.getSandboxDir()));
+			}
+		}
+		catch (IOException e) {
+			for (VerificationSandbox sandbox : created) {
+				sandbox.delete();
+			}
+			throw e;
+		}
+		this.verificationSandboxes = created;
+		this.freeSandboxes = new LinkedBlockingQueue<VerificationSandbox>(created);
+	}
+	
+	/**
+	 * Deletes the verification sandboxes, if any; candidates are verified in the compilation sandbox afterwards.
+	 */
+	public void deleteVerificationSandboxes() {
+		if (this.verificationSandboxes==null) return;
+		for (VerificationSandbox sandbox : this.verificationSandboxes) {
+			sandbox.delete();
+		}
+		this.verificationSandboxes = null;
+		this.freeSandboxes = null;
+	}
+	
+	/**
+	 * @return the number of nogoods learned so far : {@code int}
+	 */
+	public int getLearnedNogoods() {
+		return this.nogoods.size();
 	}
 
 	/**
@@ -112,24 +440,91 @@ public class StrykerRepairSearchProblem implements AbstractSearchProblem<FixCand
 	 * @return whether the fix candidate is a successful repair or not.
 	 */
 	public boolean success(FixCandidate s) {
+		checkCandidate(s);
+		// candidates containing nogoods learned after they were generated are not verified
+		if (containsNogood(s)) return false;
+		if (this.freeSandboxes!=null) return verifyInSandbox(s);
+		// candidates are verified in the shared compilation sandbox, and taco keeps global state, so
+		// candidates are verified one at a time (even when several engines race on the problem)
+		synchronized (VERIFICATION_LOCK) {
+			return verify(s, new TacoMain(null), tacoProperties(s, FixCandidate.getSandboxDir()));
+		}
+	}
+	
+	/**
+	 * Decides whether each of a list of fix candidates is a successful repair or not, as success(FixCandidate)
+	 * does. Candidates are usually mutants of the same candidate, and so, of the same class: the setup of the
+	 * verification (taco, its properties and the relevant classes) is shared by all of them.
+	 * @param candidates are the fix candidates to analyze
+	 * @return whether each fix candidate is a successful repair or not.
+	 */
+	public boolean[] success(List<FixCandidate> candidates) {
+		if (candidates==null) throw new IllegalArgumentException("null fix candidates");
+		for (FixCandidate s : candidates) {
+			checkCandidate(s);
+		}
+		boolean[] outcomes = new boolean[candidates.size()];
+		if (this.freeSandboxes!=null) {
+			for (int i = 0; i < candidates.size(); i++) {
+				outcomes[i] = !containsNogood(candidates.get(i)) && verifyInSandbox(candidates.get(i));
+			}
+			return outcomes;
+		}
+		synchronized (VERIFICATION_LOCK) {
+			TacoMain taco = new TacoMain(null);
+			Properties overridingProperties = null;
+			String classToCheck = null;
+			for (int i = 0; i < candidates.size(); i++) {
+				FixCandidate s = candidates.get(i);
+				// candidates containing nogoods learned after they were generated are not verified
+				if (containsNogood(s)) continue;
+				if (!s.getProgram().getClassNameAsPath().equals(classToCheck)) {
+					classToCheck = s.getProgram().getClassNameAsPath();
+					overridingProperties = tacoProperties(s, FixCandidate.getSandboxDir());
+				}
+				outcomes[i] = verify(s, taco, overridingProperties);
+			}
+		}
+		return outcomes;
+	}
+	
+	private void checkCandidate(FixCandidate s) {
 		if (s==null) throw new IllegalArgumentException("null fix candidate");
-		if (s.program==null) throw new IllegalArgumentException("null program in fix candidate");
-		
-		if (!copy(s.program.getFilePath(), FixCandidate.getSandboxDir() + s.program.getClassName().replaceAll("\\.", "/") + ".java")) {
-			System.err.println("couldn't copy " + s.program.getFilePath() + " to " + FixCandidate.getSandboxDir());
+	}
+	
+	/**
+	 * Verifies a fix candidate in a free verification sandbox, waiting for one if all are in use.
+	 */
+	private boolean verifyInSandbox(FixCandidate s) {
+		VerificationSandbox sandbox;
+		try {
+			sandbox = this.freeSandboxes.take();
+		}
+		catch (InterruptedException e) {
+			// the search was stopped
+			Thread.currentThread().interrupt();
 			return false;
 		}
-		
-		String sourceFolderBackup = s.program.getSourceFolder();
-		s.program.moveLocation(FixCandidate.getSandboxDir());
-		
-		if (!s.program.isValid()) return false;
-		TacoMain taco = new TacoMain(null);
+		try {
+			VerificationSandbox.Verdict verdict = sandbox.verify(s, tacoProperties(s, sandbox.getSourceDir()));
+			if (verdict==VerificationSandbox.Verdict.INVALID) learnNogood(s);
+			if (verdict==VerificationSandbox.Verdict.FIX || verdict==VerificationSandbox.Verdict.NOT_FIX) s.setValid(true);
+			return verdict==VerificationSandbox.Verdict.FIX;
+		}
+		finally {
+			this.freeSandboxes.add(sandbox);
+		}
+	}
+	
+	/**
+	 * Builds the properties of the verification of a fix candidate with TACO, in a given sandbox.
+	 */
+	private Properties tacoProperties(FixCandidate s, String sandboxDir) {
 		Properties overridingProperties = new Properties();
-		overridingProperties.put("classToCheck",s.program.getClassNameAsPath());//s.program.getClassName());
+		overridingProperties.put("classToCheck",s.getProgram().getClassNameAsPath());//s.getProgram().getClassName());
 		overridingProperties.put("relevantClasses",mergedRelevantClasses());
 		overridingProperties.put("methodToCheck",this.methodToFix+"_0");
-		overridingProperties.put("jmlParser.sourcePathStr", FixCandidate.getSandboxDir());//s.program.getSourceFolder());
+		overridingProperties.put("jmlParser.sourcePathStr", sandboxDir);//s.getProgram().getSourceFolder());
 		
 		overridingProperties.put("relevancyAnalysis", true);
 		overridingProperties.put("checkNullDereference", true);
@@ -149,6 +544,25 @@ public class StrykerRepairSearchProblem implements AbstractSearchProblem<FixCand
 		if (this.typeScopes!=null) {
 			overridingProperties.put("typeScopes", this.typeScopes);
 		}
+		return overridingProperties;
+	}
+	
+	/**
+	 * Verifies a fix candidate with TACO, in the compilation sandbox. It must be called holding VERIFICATION_LOCK.
+	 */
+	private boolean verify(FixCandidate s, TacoMain taco, Properties overridingProperties) {
+		if (!copy(s.getProgram().getFilePath(), FixCandidate.getSandboxDir() + s.getProgram().getClassName().replaceAll("\\.", "/") + ".java")) {
+			System.err.println("couldn't copy " + s.getProgram().getFilePath() + " to " + FixCandidate.getSandboxDir());
+			return false;
+		}
+		
+		String sourceFolderBackup = s.getProgram().getSourceFolder();
+		s.getProgram().moveLocation(FixCandidate.getSandboxDir());
+		
+		if (!s.getProgram().isValid()) {
+			learnNogood(s);
+			return false;
+		}
 		
 		TacoAnalysisResult result = null;
 		try {
@@ -158,16 +572,19 @@ public class StrykerRepairSearchProblem implements AbstractSearchProblem<FixCand
 		catch (TacoNotImplementedYetException e) {
 			// candidate is well formed JML but taco does not support syntax.
 			// considering candidate invalid, for the moment.
-			s.program.moveLocation(sourceFolderBackup);
+			s.getProgram().moveLocation(sourceFolderBackup);
+			learnNogood(s);
 			return false;
 		}
 		catch (JDynAlloySemanticException e) {
 			// candidate is syntactically well formed but JML detects it as 
 			// semantically invalid. Considering candidate invalid.
-			s.program.moveLocation(sourceFolderBackup);
+			s.getProgram().moveLocation(sourceFolderBackup);
+			learnNogood(s);
 			return false;
 		}
-		s.program.moveLocation(sourceFolderBackup);
+		s.getProgram().moveLocation(sourceFolderBackup);
+		s.setValid(true);
 		return result.get_alloy_analysis_result().isUNSAT();
 	}
 	
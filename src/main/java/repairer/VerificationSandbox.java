@@ -0,0 +1,272 @@
+package repairer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Properties;
+
+import ar.edu.jdynalloy.JDynAlloySemanticException;
+import ar.edu.taco.TacoAnalysisResult;
+import ar.edu.taco.TacoMain;
+import ar.edu.taco.TacoNotImplementedYetException;
+
+/**
+ * A compilation sandbox of its own, where fix candidates are verified by a separate JVM, so that several
+ * candidates can be verified at the same time.
+ * <p>
+ * TACO and the JML checker keep global (static) state, so a JVM cannot verify two candidates at the same
+ * time. A verification sandbox is a copy of the compilation sandbox of the repair process (see
+ * {@link FixCandidate#getSandboxDir()}) in a directory of its own: a candidate is copied into it, and it is
+ * compiled and verified by a child JVM (see {@link #main(String[])}) running in that directory, so that
+ * the files written by TACO do not clash with those of other sandboxes. A sandbox verifies one candidate at
+ * a time; the workers of a parallel search verify candidates in parallel by using different sandboxes.
+ * <hr>
+ * <b>note: each verification pays for the start of a JVM, which is small compared to a TACO analysis</b>
+ *
+ * @version 0.1
+ * @see StrykerRepairSearchProblem#setVerificationSandboxes(int)
+ */
+public class VerificationSandbox {
+	/**
+	 * Outcomes of the verification of a fix candidate
+	 */
+	public enum Verdict {
+		/** the candidate is a fix */
+		FIX,
+		/** the candidate is not a fix */
+		NOT_FIX,
+		/** the candidate does not compile, or taco cannot analyze it */
+		INVALID,
+		/** the candidate could not be verified */
+		ERROR
+	}
+	/**
+	 * Exit status of the child JVM for each verdict (any other status is an error) : {@code int}
+	 */
+	private static final int FIX_STATUS = 10;
+	private static final int NOT_FIX_STATUS = 11;
+	private static final int INVALID_STATUS = 12;
+	/**
+	 * Folder of the sandbox holding the copy of the compilation sandbox : {@code String}
+	 */
+	private static final String SOURCES = "sources";
+	/**
+	 * Files of the sandbox where the properties of a verification are passed, and where its output is written : {@code String}
+	 */
+	private static final String PROPERTIES_FILE = "verification.properties";
+	private static final String LOG_FILE = "verification.log";
+	/**
+	 * Base properties of taco, looked for in the working directory : {@code String}
+	 */
+	private static final String TACO_PROPERTIES = "genericTest.properties";
+	/**
+	 * The directory of the sandbox : {@code Path}
+	 */
+	private final Path root;
+
+	private VerificationSandbox(Path root) {
+		this.root = root;
+	}
+
+	/**
+	 * Creates a verification sandbox, as a copy of a compilation sandbox in a new temporary directory
+	 *
+	 * @param compilationSandboxDir	:	the compilation sandbox to copy	:	{@code String}
+	 * @return	the new sandbox	:	{@code VerificationSandbox}
+	 * @throws IOException if the sandbox could not be created
+	 */
+	public static VerificationSandbox create(String compilationSandboxDir) throws IOException {
+		if (compilationSandboxDir==null) throw new IllegalArgumentException("null compilation sandbox");
+		Path root = Files.createTempDirectory("verificationSandbox-");
+		copyDir(FileSystems.getDefault().getPath(compilationSandboxDir), root.resolve(SOURCES));
+		Path tacoProperties = FileSystems.getDefault().getPath(TACO_PROPERTIES);
+		if (Files.exists(tacoProperties)) {
+			Files.copy(tacoProperties, root.resolve(TACO_PROPERTIES));
+		}
+		return new VerificationSandbox(root);
+	}
+
+	/**
+	 * @return the source folder of the sandbox, where candidates are copied to be verified : {@code String}
+	 */
+	public String getSourceDir() {
+		return this.root.resolve(SOURCES).toString() + "/";
+	}
+
+	/**
+	 * Verifies a fix candidate in the sandbox: the candidate is copied into the sandbox, and compiled and
+	 * verified with taco by a child JVM. Errors of the child JVM are reported, and give {@code ERROR}.
+	 *
+	 * @param s					:	the fix candidate to verify						:	{@code FixCandidate}
+	 * @param tacoProperties	:	the properties of the verification with taco	:	{@code Properties}
+	 * @return	the verdict of the verification	:	{@code Verdict}
+	 */
+	public synchronized Verdict verify(FixCandidate s, Properties tacoProperties) {
+		if (s==null) throw new IllegalArgumentException("null fix candidate");
+		if (tacoProperties==null) throw new IllegalArgumentException("null taco properties");
+		JMLAnnotatedClass program = s.getProgram();
+		Path target = this.root.resolve(SOURCES).resolve(program.getClassNameAsPath() + ".java");
+		File log = this.root.resolve(LOG_FILE).toFile();
+		int status;
+		try {
+			Files.copy(FileSystems.getDefault().getPath(program.getFilePath()), target, StandardCopyOption.REPLACE_EXISTING);
+			writeProperties(tacoProperties, this.root.resolve(PROPERTIES_FILE).toFile());
+			String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+			ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+					VerificationSandbox.class.getName(), getSourceDir(), program.getClassName(), PROPERTIES_FILE);
+			builder.directory(this.root.toFile());
+			builder.redirectErrorStream(true);
+			builder.redirectOutput(log);
+			Process verification = builder.start();
+			try {
+				status = verification.waitFor();
+			} catch (InterruptedException e) {
+				// the search was stopped
+				verification.destroy();
+				Thread.currentThread().interrupt();
+				return Verdict.ERROR;
+			}
+		} catch (IOException e) {
+			System.err.println("couldn't verify " + program.getFilePath() + " in " + this.root + ": " + e.getMessage());
+			return Verdict.ERROR;
+		}
+		switch (status) {
+		case FIX_STATUS:
+			return Verdict.FIX;
+		case NOT_FIX_STATUS:
+			return Verdict.NOT_FIX;
+		case INVALID_STATUS:
+			return Verdict.INVALID;
+		default:
+			System.err.println("verification of " + program.getFilePath() + " failed with status " + status + " (see " + log + ")");
+			return Verdict.ERROR;
+		}
+	}
+
+	/**
+	 * Deletes the sandbox, once no more candidates are verified in it
+	 *
+	 * @return {@code true} iff the sandbox was deleted : {@code boolean}
+	 */
+	public synchronized boolean delete() {
+		try {
+			Files.walkFileTree(this.root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+					if (e != null) throw e;
+					Files.delete(dir);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			System.err.println("couldn't delete verification sandbox " + this.root + ": " + e.getMessage());
+			return false;
+		}
+		return true;
+	}
+
+	private static void copyDir(final Path source, final Path target) throws IOException {
+		Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Writes the properties of a verification, as strings (see readProperties)
+	 */
+	private static void writeProperties(Properties properties, File file) throws IOException {
+		Properties asStrings = new Properties();
+		for (Map.Entry<Object, Object> property : properties.entrySet()) {
+			asStrings.setProperty(property.getKey().toString(), property.getValue().toString());
+		}
+		OutputStream out = new FileOutputStream(file);
+		try {
+			asStrings.store(out, null);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads the properties of a verification, restoring the types of boolean and integer values
+	 */
+	private static Properties readProperties(File file) throws IOException {
+		Properties asStrings = new Properties();
+		InputStream in = new FileInputStream(file);
+		try {
+			asStrings.load(in);
+		} finally {
+			in.close();
+		}
+		Properties properties = new Properties();
+		for (String key : asStrings.stringPropertyNames()) {
+			String value = asStrings.getProperty(key);
+			if (value.equals("true") || value.equals("false")) {
+				properties.put(key, Boolean.valueOf(value));
+			} else if (value.matches("-?[0-9]+")) {
+				properties.put(key, Integer.valueOf(value));
+			} else {
+				properties.put(key, value);
+			}
+		}
+		return properties;
+	}
+
+	/**
+	 * Compiles and verifies a fix candidate with taco, in the working directory of a verification sandbox,
+	 * and exits with the status of its verdict. It is run by the child JVMs of {@link #verify(FixCandidate, Properties)}.
+	 *
+	 * @param args	:	the source folder and class name of the candidate, and the file with the properties of the verification	:	{@code String[]}
+	 * @throws IOException if the properties could not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length!=3) {
+			System.err.println("usage: VerificationSandbox <source folder> <class name> <properties file>");
+			System.exit(1);
+		}
+		JMLAnnotatedClass program = new JMLAnnotatedClass(args[0], args[1]);
+		if (!program.isValid()) System.exit(INVALID_STATUS);
+		Properties properties = readProperties(new File(args[2]));
+		TacoAnalysisResult result = null;
+		try {
+			result = new TacoMain(null).run(TACO_PROPERTIES, properties);
+		}
+		catch (TacoNotImplementedYetException e) {
+			// candidate is well formed JML but taco does not support syntax
+			System.exit(INVALID_STATUS);
+		}
+		catch (JDynAlloySemanticException e) {
+			// candidate is syntactically well formed but JML detects it as semantically invalid
+			System.exit(INVALID_STATUS);
+		}
+		System.exit(result.get_alloy_analysis_result().isUNSAT()?FIX_STATUS:NOT_FIX_STATUS);
+	}
+
+}
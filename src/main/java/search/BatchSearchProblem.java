@@ -0,0 +1,30 @@
+package search;
+
+import java.util.List;
+
+/**
+ * Title:        BatchSearchProblem<p>
+ * Description:  Interface for search problems able to decide whether several states are
+ * successful in a single call, amortising the setup that checking each state would repeat.
+ * Search strategies that treat all the successors of a state they gather (bfs, beam search for the
+ * successors kept in the beam, and iterative deepening for the successors at its bound) gather them 
+ * as a group of siblings and, as soon as the first of them must be checked for success, they check
+ * all of them (not visited yet) in a single call, instead of one at a time. Other strategies (e.g.,
+ * dfs or best-first search, which may never treat some successors, and the parallel and pipelined 
+ * ones) check states one at a time, through success(S), as they do for states without siblings. 
+ * The outcome for each state must be the one success(S) would return.<p>
+ * @version 0.1
+ */
+
+public interface BatchSearchProblem<S extends State> extends AbstractSearchProblem<S> {
+
+	/** 
+	 * Decides whether each of a list of states is successful, in the context of the current problem.
+	 * @param states are the states to check.
+	 * @return an array whose i-th element is true iff the i-th state of states is successful.
+	 * @pre. states!=null && !states.contains(null).
+	 * @post. an array of the outcomes of checking states for success, in order, is returned.  
+	 */
+    abstract public boolean[] success(List<S> states);
+
+}
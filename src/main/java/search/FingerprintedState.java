@@ -0,0 +1,25 @@
+package search;
+/**
+ * Title:        FingerprintedState<p>
+ * Description:  Interface for states that are able to provide a compact fingerprint
+ * of their contents. Fingerprints allow search strategies, caches and tables of visited
+ * states to recognise equal states by comparing (or hashing) a primitive value, instead
+ * of comparing states pairwise. Implementations should compute the fingerprint at most
+ * once, and must keep equals(Object) and hashCode() consistent with it, so that
+ * fingerprinted states can also be used as keys in hash based collections.<p>
+ * @version 0.1
+ */
+
+public interface FingerprintedState extends State {
+
+	/** 
+	 * Returns the fingerprint of the current state. Equal states (as decided by 
+	 * equals(State)) must have the same fingerprint, and different states should 
+	 * have different fingerprints with very high probability.
+	 * @return a 64 bit fingerprint of the current state.
+	 * @pre. true.
+	 * @post. the fingerprint of the current state is returned.
+	 */	
+    abstract public long fingerprint();
+
+}
@@ -0,0 +1,23 @@
+package search;
+/**
+ * Title:        Fingerprinter<p>
+ * Description:  Interface which defines how to compute a compact fingerprint of
+ * states of a search problem. Fingerprints are used by the search strategies to
+ * recognise states that were already visited, without comparing states pairwise.
+ * Two states that are equal must have the same fingerprint; different states
+ * should have different fingerprints with very high probability.<p>
+ * @version 0.1
+ */
+
+public interface Fingerprinter<S extends State> {
+
+	/**
+	 * Computes the fingerprint of a given state.
+	 * @param s is the state whose fingerprint is computed.
+	 * @return a 64 bit fingerprint of s.
+	 * @pre. s!=null.
+	 * @post. the fingerprint of s is returned. Equal states get equal fingerprints.
+	 */
+    abstract public long fingerprint(S s);
+
+}
@@ -0,0 +1,25 @@
+package search;
+/**
+ * Title:        Heuristic<p>
+ * Description:  Interface which defines a scoring function over states, used by 
+ * informed search strategies (e.g., best-first search) to decide which states to 
+ * explore first. Lower scores denote more promising states. Scores may take into
+ * account the depth at which states are reached: a score of the form 
+ * depth + h(s), with h never overestimating the distance to a successful state,
+ * turns best-first search into A*.<p>
+ * @version 0.1
+ */
+
+public interface Heuristic<S extends State> {
+
+	/** 
+	 * Scores a state reached at a given depth of the search.
+	 * @param s is the state being scored.
+	 * @param depth is the depth at which s has been reached.
+	 * @return the score of s; the lower the score, the sooner s is explored.
+	 * @pre. s!=null && depth>=0.
+	 * @post. the score of s is returned.
+	 */
+    abstract public double score(S s, int depth);
+
+}
@@ -0,0 +1,27 @@
+package search;
+
+import java.util.Iterator;
+
+/**
+ * Title:        LazySearchProblem<p>
+ * Description:  Interface for search problems able to produce the successors of a state
+ * lazily, one at a time, on demand. Search strategies use the lazy version when it is 
+ * available, so that when an early successor of a state leads to success, the remaining 
+ * successors never need to be computed. The iterator must produce the same states as
+ * the list returned by getSuccessors, although not necessarily in the same order.<p>
+ * @version 0.1
+ */
+
+public interface LazySearchProblem<S extends State> extends AbstractSearchProblem<S> {
+
+	/** 
+	 * Returns an iterator over the successor states of a given state, in the context of
+	 * the current problem. Successors are computed as the iterator is traversed.
+	 * @param s is the state for which its successors are being computed.
+	 * @return an iterator over the successor states of s.
+	 * @pre. s!=null.
+	 * @post. an iterator producing the successor states of s, on demand, is returned.  
+	 */
+    abstract public Iterator<S> getSuccessorsIterator(S s);
+
+}
@@ -0,0 +1,23 @@
+package search;
+/**
+ * Title:        SolutionHandler<p>
+ * Description:  Interface for receiving, one at a time, the successful states found by a
+ * search strategy that enumerates solutions. Each solution is handed over as soon as it is
+ * found, while the search continues; the handler decides whether the search must go on
+ * looking for more solutions, or stop.<p>
+ * @version 0.1
+ */
+
+public interface SolutionHandler<S extends State> {
+
+	/** 
+	 * Receives a successful state found by the search.
+	 * @param solution is the successful state found.
+	 * @param depth is the depth at which solution was found.
+	 * @return true iff the search must continue looking for more solutions.
+	 * @pre. solution!=null && depth>=0.
+	 * @post. the solution is handled, and whether the search must continue is returned.
+	 */
+    abstract public boolean solutionFound(S solution, int depth);
+
+}
@@ -0,0 +1,24 @@
+package search;
+/**
+ * Title:        StateFingerprinter<p>
+ * Description:  Fingerprinter for states that provide their own fingerprint (instances
+ * of FingerprintedState). States that are not fingerprinted are rejected.<p>
+ * @version 0.1
+ */
+
+public class StateFingerprinter<S extends State> implements Fingerprinter<S> {
+
+	/** 
+	 * Returns the fingerprint provided by the state itself.
+	 * @param s is the state whose fingerprint is computed.
+	 * @return the fingerprint of s.
+	 * @pre. s!=null && s instanceof FingerprintedState.
+	 * @post. s.fingerprint() is returned.
+	 */
+	public long fingerprint(S s) {
+		if (s==null) throw new IllegalArgumentException("null state");
+		if (!(s instanceof FingerprintedState)) throw new IllegalArgumentException("state " + s + " does not provide a fingerprint");
+		return ((FingerprintedState) s).fingerprint();
+	}
+
+}
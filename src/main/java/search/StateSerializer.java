@@ -0,0 +1,38 @@
+package search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Title:        StateSerializer<p>
+ * Description:  Interface which defines a compact serialised form for states of a search
+ * problem. It is used by the search strategies to save states to disk (e.g., when writing
+ * checkpoints of a search) and to read them back. Reading a written state must produce a
+ * state equal to the original one.<p>
+ * @version 0.1
+ */
+
+public interface StateSerializer<S extends State> {
+
+	/**
+	 * Writes a state in serialised form.
+	 * @param s is the state to write.
+	 * @param out is where the state is written to.
+	 * @throws IOException if the state cannot be written.
+	 * @pre. s!=null && out!=null.
+	 * @post. the serialised form of s is written to out.
+	 */
+    abstract public void write(S s, DataOutput out) throws IOException;
+
+	/**
+	 * Reads a state in serialised form.
+	 * @param in is where the state is read from.
+	 * @return the state read.
+	 * @throws IOException if the state cannot be read (or rebuilt).
+	 * @pre. in!=null.
+	 * @post. a state equal to the one written in the serialised form read is returned.
+	 */
+    abstract public S read(DataInput in) throws IOException;
+
+}
@@ -8,8 +8,18 @@ package search.engines;
  * @version 0.3
  */
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
 import search.AbstractSearchProblem;
+import search.BatchSearchProblem;
+import search.Fingerprinter;
+import search.LazySearchProblem;
+import search.SolutionHandler;
 import search.State;
+import search.StateFingerprinter;
 // necessary for the use of lists
 
 abstract public class AbstractBoundedSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractSearchEngine<S, Problem>{
@@ -17,6 +27,46 @@ abstract public class AbstractBoundedSearchEngine<S extends State, Problem exten
     // a reference to the problem to apply search to
     protected Problem problem;
     
+    // result of looking up a state in the table of visited states: the state was not visited before,
+    // it was already visited at the same or a shallower depth, or it was only visited deeper.
+    protected static final int UNSEEN = 0;
+    protected static final int SEEN = 1;
+    protected static final int SEEN_DEEPER = 2;
+    
+    // table of visited states, used for duplicate detection (null when duplicate detection is disabled)
+    protected VisitedTable closed;
+    
+    // computes the fingerprints under which states are stored in the table of visited states
+    protected Fingerprinter<S> fingerprinter;
+    
+    // number of duplicated states skipped in the last search
+    protected int duplicatesSkipped;
+    
+    // limits on the work performed by a search (null when the search is unlimited)
+    protected SearchBudget budget;
+    
+    // receives the solutions found when enumerating solutions (null when searching for the first one)
+    protected SolutionHandler<S> solutionHandler;
+    
+    // number of solutions found in the last enumeration of solutions
+    protected int solutionsFound;
+    
+    // statistics of the search, filled in while searching (null when statistics are not collected)
+    protected SearchStatistics statistics;
+    
+    // set when the engine races other engines in a portfolio, sharing with them its table of visited
+    // states, budget and statistics (which are then started, and cleared, by the portfolio)
+    boolean shared;
+    
+    // set when the search is cancelled (e.g., because another engine of a portfolio found a solution)
+    volatile boolean cancelled;
+    
+    // set when a solution is found in the current search
+    private boolean solved;
+    
+    // groups of siblings to be checked for success together (null unless the problem checks states in batches)
+    private SiblingGroups<S> siblings;
+    
 	/** 
 	 * Constructor for abstract class AbstractSearchEngine 
 	 * @pre. true.
@@ -65,9 +115,541 @@ abstract public class AbstractBoundedSearchEngine<S extends State, Problem exten
 	
     abstract public S getSolution();
     
+	/**
+	 * Starts a search that enumerates the successful states for problem, up to the maximum depth.
+	 * Each successful state is handed over to handler as soon as it is found, and the search goes on
+	 * (from where it was, also exploring the successors of successful states) for as long as handler 
+	 * asks for more solutions. The last solution found is also available through getSolution().
+	 * @param handler receives the successful states found.
+	 * @return true iff at least one successful state is found.
+	 * @pre. problem!=null && handler!=null.
+	 * @post. the search is performed, handing over every solution found to handler, until the 
+	 * state space is exhausted or handler stops the search.
+	 */
+    public boolean performSearch(SolutionHandler<S> handler) {
+    	if (handler==null) throw new IllegalArgumentException("null solution handler");
+    	this.solutionHandler = handler;
+    	this.solutionsFound = 0;
+    	try {
+    		performSearch();
+    	}
+    	finally {
+    		this.solutionHandler = null;
+    	}
+    	return solutionsFound>0;
+    }
+    
+	/**
+	 * Searches for the first successful states for problem, up to the maximum depth.
+	 * @param maxSolutions is the max number of solutions to look for (0 for all solutions).
+	 * @return the solutions found, in the order in which they were found.
+	 * @pre. problem!=null && maxSolutions>=0.
+	 * @post. the search is performed until maxSolutions are found or the state space is exhausted.
+	 */
+    public List<S> findSolutions(final int maxSolutions) {
+    	if (maxSolutions<0) throw new IllegalArgumentException("invalid max number of solutions");
+    	final List<S> solutions = new ArrayList<S>();
+    	performSearch(new SolutionHandler<S>() {
+    		public boolean solutionFound(S solution, int depth) {
+    			solutions.add(solution);
+    			return maxSolutions==0 || solutions.size()<maxSolutions;
+    		}
+    	});
+    	return solutions;
+    }
+    
+	/**
+	 * Accounts for a successful state found by the search. When solutions are being enumerated, 
+	 * the state is handed over to the solution handler. Concurrent workers may safely call it.
+	 * @param solution is the successful state found.
+	 * @param depth is the depth at which solution was found.
+	 * @return true iff the search must stop (i.e., unless solutions are being enumerated and the
+	 * handler asks for more).
+	 */
+    protected synchronized boolean solutionReached(S solution, int depth) {
+    	solved = true;
+    	if (statistics!=null) statistics.solution();
+    	fireSolutionFound(solution, depth);
+    	if (solutionHandler==null) return true;
+    	solutionsFound++;
+    	return !solutionHandler.solutionFound(solution, depth);
+    }
+    
 	/**
 	 * Sets the maximum depth, or bound, for the bounded search
 	 * @param depth is new depth to be used for bounded search strategy.
 	 */
     abstract public void setMaxDepth(int maxDepth);
+    
+	/**
+	 * Enables duplicate detection: states already visited in the current search (as decided by 
+	 * their fingerprints) are neither checked for success nor expanded again, unless they are
+	 * reached at a shallower depth than before (in which case they are only expanded again).
+	 * @param fingerprinter computes the fingerprints used to recognise visited states.
+	 * @param maxStates is the maximum number of visited states to remember. Once reached,
+	 * newly visited states are not remembered (and thus duplicates of them are not detected).
+	 * @pre. fingerprinter!=null && maxStates>0.
+	 * @post. duplicate detection is enabled for the following searches.
+	 */
+    public void setDuplicateDetection(Fingerprinter<S> fingerprinter, int maxStates) {
+    	if (fingerprinter==null) throw new IllegalArgumentException("null fingerprinter");
+    	if (maxStates<=0) throw new IllegalArgumentException("invalid maximum number of visited states");
+    	this.fingerprinter = fingerprinter;
+    	this.closed = new VisitedTable(maxStates);
+    }
+    
+	/**
+	 * Enables duplicate detection, using the fingerprints provided by the states themselves. 
+	 * States of the problem must implement FingerprintedState.
+	 * @param maxStates is the maximum number of visited states to remember.
+	 * @pre. maxStates>0.
+	 * @post. duplicate detection is enabled for the following searches.
+	 */
+    public void setDuplicateDetection(int maxStates) {
+    	setDuplicateDetection(new StateFingerprinter<S>(), maxStates);
+    }
+    
+	/**
+	 * Disables duplicate detection (the default).
+	 * @post. states are treated every time they are reached, in the following searches.
+	 */
+    public void disableDuplicateDetection() {
+    	this.fingerprinter = null;
+    	this.closed = null;
+    }
+    
+	/**
+	 * Prepares duplicate detection for a new search, forgetting states visited in previous searches.
+	 */
+    protected void resetVisited() {
+    	duplicatesSkipped = 0;
+    	if (closed!=null && !shared) closed.clear();
+    }
+    
+	/**
+	 * Looks up a state in the table of visited states, and records it as visited at the given depth.
+	 * When the state was already visited at the same or a shallower depth, it is counted as a skipped
+	 * duplicate. If duplicate detection is disabled, every state is considered unseen.
+	 * @param s is the state being visited.
+	 * @param depth is the depth at which s is being visited.
+	 * @return UNSEEN if s must be treated, SEEN if s must be skipped, and SEEN_DEEPER if s
+	 * is already known not to be successful, but must be expanded again.
+	 */
+    protected int lookupVisited(S s, int depth) {
+    	if (closed==null) return UNSEEN;
+    	long fingerprint = fingerprinter.fingerprint(s);
+    	int seen;
+    	if (shared) {
+    		// other engines of the portfolio look up states concurrently
+    		synchronized (closed) {
+    			seen = lookupVisited(fingerprint, depth);
+    		}
+    	}
+    	else {
+    		seen = lookupVisited(fingerprint, depth);
+    	}
+    	// a state that is not going to be checked for success leaves its group of siblings
+    	if (seen!=UNSEEN && siblings!=null) siblings.forget(s);
+    	return seen;
+    }
+    
+    private int lookupVisited(long fingerprint, int depth) {
+    	int visitedDepth = closed.depthOf(fingerprint);
+    	if (visitedDepth>=0 && visitedDepth<=depth) {
+    		duplicatesSkipped++;
+    		return SEEN;
+    	}
+    	closed.record(fingerprint, depth);
+    	return (visitedDepth<0)?UNSEEN:SEEN_DEEPER;
+    }
+    
+	/**
+	 * Returns the successors of a state. If the problem is able to produce successors lazily, 
+	 * they are computed on demand, as the returned iterator is traversed.
+	 * @param s is the state for which its successors are being computed.
+	 * @return an iterator over the successors of s.
+	 */
+    @SuppressWarnings("unchecked")
+    protected Iterator<S> successorsOf(S s) {
+    	if (problem instanceof LazySearchProblem) {
+    		LazySearchProblem<S> lazyProblem = (LazySearchProblem<S>) problem;
+    		if (statistics==null && listeners==null) return lazyProblem.getSuccessorsIterator(s);
+    		fireStateExpanded(s);
+    		return new TimedIterator(s, lazyProblem.getSuccessorsIterator(s));
+    	}
+    	return successorsListOf(s).iterator();
+    }
+    
+	/**
+	 * Returns the successors of a state, for strategies that treat all of them (unless the search
+	 * stops before). If the problem checks states for success in batches, they are all computed, 
+	 * and gathered as a group of siblings; otherwise, they are returned as by successorsOf.
+	 * @param s is the state for which its successors are being computed.
+	 * @return an iterator over the successors of s.
+	 */
+    protected Iterator<S> groupedSuccessorsOf(S s) {
+    	if (siblings==null) return successorsOf(s);
+    	List<S> successors = successorsListOf(s);
+    	siblings.add(successors);
+    	return successors.iterator();
+    }
+    
+	/**
+	 * @return true iff the problem checks states for success in batches, so that strategies
+	 * should gather the siblings they are going to treat, through groupSiblings.
+	 */
+    protected boolean batchesSiblings() {
+    	return siblings!=null;
+    }
+    
+	/**
+	 * Gathers a group of siblings to be checked for success together, if the problem checks 
+	 * states in batches. Strategies must only gather siblings they are going to treat.
+	 * @param group are successors of the same state.
+	 */
+    protected void groupSiblings(List<S> group) {
+    	if (siblings!=null) siblings.add(group);
+    }
+    
+	/**
+	 * Returns the successors of a state, as computed by the problem's getSuccessors routine.
+	 * @param s is the state for which its successors are being computed.
+	 * @return the list of successors of s.
+	 */
+    protected List<S> successorsListOf(S s) {
+    	if (statistics==null && listeners==null) return problem.getSuccessors(s);
+    	fireStateExpanded(s);
+    	long start = System.nanoTime();
+    	List<S> successors = problem.getSuccessors(s);
+    	expanded(s, successors.size(), System.nanoTime()-start);
+    	return successors;
+    }
+    
+	/**
+	 * Checks whether a state is successful, through the problem's success routine. If the problem
+	 * checks states in batches, and s belongs to a group of siblings, its siblings not visited yet
+	 * are checked along with it (and the outcomes kept until they are treated).
+	 * @param s is the state to check.
+	 * @return true iff s is successful.
+	 */
+    protected boolean successful(S s) {
+    	if (siblings!=null) {
+    		Boolean verdict = siblings.takeVerdict(s);
+    		if (verdict!=null) return verdict;
+    		List<S> group = siblings.takeGroup(s);
+    		if (group!=null) return successfulWithSiblings(s, group);
+    	}
+    	if (statistics==null && listeners==null) return problem.success(s);
+    	long start = System.nanoTime();
+    	boolean success = problem.success(s);
+    	long nanos = System.nanoTime()-start;
+    	if (statistics!=null) statistics.verify(nanos);
+    	fireSuccessEvaluated(s, success, nanos);
+    	return success;
+    }
+    
+	/**
+	 * Checks whether a state is successful, along with its siblings not visited yet, through the
+	 * problem's batch success routine. Outcomes of siblings are kept until they are treated. Each
+	 * sibling checked is charged to the budget as a verification, so siblings are only checked
+	 * while verifications are left (the rest are checked when they are treated).
+	 * @param s is the state to check.
+	 * @param group are the siblings of s (including s).
+	 * @return true iff s is successful.
+	 */
+    @SuppressWarnings("unchecked")
+    private boolean successfulWithSiblings(S s, List<S> group) {
+    	int remaining = (budget==null)?Integer.MAX_VALUE:budget.getRemainingVerifications();
+    	List<S> batch = new ArrayList<S>(group.size());
+    	batch.add(s);
+    	for (S sibling : group) {
+    		if (batch.size()>remaining) break;
+    		if (sibling!=s && !visitedBefore(sibling)) batch.add(sibling);
+    	}
+    	long start = System.nanoTime();
+    	boolean[] outcomes = ((BatchSearchProblem<S>) problem).success(batch);
+    	long nanos = (System.nanoTime()-start)/batch.size();
+    	if (outcomes.length!=batch.size()) throw new IllegalStateException("batch success returned "+outcomes.length+" outcomes for "+batch.size()+" states");
+    	for (int i = 0; i < batch.size(); i++) {
+    		if (i>0) {
+    			siblings.record(batch.get(i), outcomes[i]);
+    			if (budget!=null) budget.verify();
+    		}
+    		if (statistics!=null) statistics.verify(nanos);
+    		fireSuccessEvaluated(batch.get(i), outcomes[i], nanos);
+    	}
+    	return outcomes[0];
+    }
+    
+	/**
+	 * @return true iff state s was already visited in the current search (it is never visited 
+	 * when duplicate detection is disabled).
+	 */
+    private boolean visitedBefore(S s) {
+    	if (closed==null) return false;
+    	long fingerprint = fingerprinter.fingerprint(s);
+    	if (shared) {
+    		synchronized (closed) {
+    			return closed.depthOf(fingerprint)>=0;
+    		}
+    	}
+    	return closed.depthOf(fingerprint)>=0;
+    }
+    
+	/**
+	 * Accounts for an expanded state, in the statistics and listeners of the search.
+	 */
+    private void expanded(S s, int generated, long nanos) {
+    	if (statistics!=null) statistics.expand(generated, nanos);
+    	fireSuccessorsGenerated(s, generated, nanos);
+    }
+    
+	/**
+	 * Accounts for the current size of the frontier of the search, in the statistics.
+	 * @param size is the number of opened states (or frames of opened states) in the frontier.
+	 */
+    protected void frontierSize(int size) {
+    	if (statistics!=null) statistics.frontier(size);
+    }
+    
+    /**
+     * Iterator over successors produced lazily, accounting in the statistics (and listeners) for 
+     * the time spent producing them. The expansion is accounted for once all successors are produced.
+     */
+    private class TimedIterator implements Iterator<S> {
+    	
+    	private final S state;
+    	private final Iterator<S> successors;
+    	private long nanos = 0;
+    	private int generated = 0;
+    	private boolean accounted = false;
+    	
+    	TimedIterator(S state, Iterator<S> successors) {
+    		this.state = state;
+    		this.successors = successors;
+    	}
+    	
+    	public boolean hasNext() {
+    		long start = System.nanoTime();
+    		boolean hasNext = successors.hasNext();
+    		nanos += System.nanoTime()-start;
+    		if (!hasNext && !accounted) {
+    			accounted = true;
+    			expanded(state, generated, nanos);
+    		}
+    		return hasNext;
+    	}
+    	
+    	public S next() {
+    		long start = System.nanoTime();
+    		S next = successors.next();
+    		nanos += System.nanoTime()-start;
+    		generated++;
+    		return next;
+    	}
+    	
+    	public void remove() {
+    		throw new UnsupportedOperationException("remove");
+    	}
+    }
+    
+	/**
+	 * Returns the successors of a state, in the order in which depth-first strategies explore them. 
+	 * Successors produced lazily are explored in the order the problem produces them. Successors 
+	 * computed as a list are explored from last to first (i.e., in the order in which they would be 
+	 * popped if all of them were pushed onto a stack). 
+	 * @param s is the state for which its successors are being computed.
+	 * @return an iterator over the successors of s, in depth-first exploration order.
+	 */
+    protected Iterator<S> depthFirstSuccessorsOf(S s) {
+    	if (problem instanceof LazySearchProblem) return successorsOf(s);
+    	return reversed(successorsListOf(s));
+    }
+    
+	/**
+	 * Returns the successors of a state in depth-first exploration order, for strategies that treat
+	 * all of them (unless the search stops before). If the problem checks states for success in
+	 * batches, they are all computed, and gathered as a group of siblings (and explored in the
+	 * order in which they would be produced lazily); otherwise, they are returned as by 
+	 * depthFirstSuccessorsOf.
+	 * @param s is the state for which its successors are being computed.
+	 * @return an iterator over the successors of s, in depth-first exploration order.
+	 */
+    protected Iterator<S> groupedDepthFirstSuccessorsOf(S s) {
+    	if (siblings==null) return depthFirstSuccessorsOf(s);
+    	List<S> successors = successorsListOf(s);
+    	siblings.add(successors);
+    	if (problem instanceof LazySearchProblem) return successors.iterator();
+    	return reversed(successors);
+    }
+    
+	/**
+	 * @return an iterator over successors, from last to first.
+	 */
+    private Iterator<S> reversed(List<S> successors) {
+    	final ListIterator<S> reversed = successors.listIterator(successors.size());
+    	return new Iterator<S>() {
+    		public boolean hasNext() {
+    			return reversed.hasPrevious();
+    		}
+    		public S next() {
+    			return reversed.previous();
+    		}
+    		public void remove() {
+    			throw new UnsupportedOperationException("remove");
+    		}
+    	};
+    }
+    
+	/**
+	 * Sets the budget of the following searches: once one of its limits runs out, the search stops
+	 * as if the state space was exhausted, and the budget records which limit ran out and how far 
+	 * the search got.
+	 * @param budget is the budget for the search (null for unlimited searches, the default).
+	 * @post. the following searches are limited by budget.
+	 */
+    public void setBudget(SearchBudget budget) {
+    	this.budget = budget;
+    }
+    
+	/**
+	 * @return the budget of the searches, which holds the progress of the last search (null if
+	 * searches are unlimited).
+	 */
+    public SearchBudget getBudget() {
+    	return budget;
+    }
+    
+	/**
+	 * @return the limit that ran out in the last search, or null if the search finished
+	 * within budget (or searches are unlimited).
+	 */
+    public SearchBudget.Limit getExhaustedBudget() {
+    	return (budget==null)?null:budget.getExhaustedLimit();
+    }
+    
+	/**
+	 * Sets the statistics of the following searches, which are filled in while searching.
+	 * @param statistics is where the statistics of the search are collected (null for not 
+	 * collecting them, the default).
+	 */
+    public void setStatistics(SearchStatistics statistics) {
+    	this.statistics = statistics;
+    }
+    
+	/**
+	 * @return the statistics of the last search (null if statistics are not collected).
+	 */
+    public SearchStatistics getStatistics() {
+    	return statistics;
+    }
+    
+	/**
+	 * Starts accounting for the budget and statistics of a new search.
+	 */
+    protected void startAccounting() {
+    	solved = false;
+    	siblings = (problem instanceof BatchSearchProblem)?new SiblingGroups<S>():null;
+    	if (shared) return;
+    	cancelled = false;
+    	if (budget!=null) budget.start();
+    	if (statistics!=null) statistics.start();
+    }
+    
+	/**
+	 * Stops accounting for the budget and statistics of the current search, and notifies its 
+	 * listeners that it finished.
+	 */
+    protected void finishAccounting() {
+    	if (!shared) {
+    		if (budget!=null) budget.finish();
+    		if (statistics!=null) statistics.finish(duplicatesSkipped);
+    	}
+    	siblings = null;
+    	fireSearchFinished(solved);
+    }
+    
+	/**
+	 * Checks the budget of the current search. Engines check it before taking each state to treat,
+	 * so that, when the budget runs out, states not yet treated are left in the frontier.
+	 * @return true iff the search can go on; false iff the budget ran out or the search was 
+	 * cancelled, and the search must stop.
+	 */
+    protected boolean withinBudget() {
+    	return !cancelled && (budget==null || budget.check());
+    }
+    
+	/**
+	 * Cancels the search in progress (it can be called from any thread): the engine stops as soon
+	 * as it checks its budget, as if the state space was exhausted.
+	 */
+    public void cancel() {
+    	cancelled = true;
+    }
+    
+	/**
+	 * Makes the engine share its table of visited states, budget and statistics with other engines 
+	 * racing on the same problem. They are neither started nor cleared by the engine.
+	 * @param closed is the shared table of visited states (null if duplicate detection is disabled).
+	 * @param fingerprinter computes the fingerprints of states in the shared table.
+	 * @param budget is the shared budget.
+	 * @param statistics are the shared statistics (null if statistics are not collected).
+	 */
+    void share(VisitedTable closed, Fingerprinter<S> fingerprinter, SearchBudget budget, SearchStatistics statistics) {
+    	this.shared = true;
+    	this.closed = closed;
+    	this.fingerprinter = fingerprinter;
+    	this.budget = budget;
+    	this.statistics = statistics;
+    	this.cancelled = false;
+    }
+    
+	/**
+	 * Accounts for a visited state in the statistics, and charges it (and its verification when it
+	 * is checked for success) to the budget.
+	 * @param depth is the depth of the visited state.
+	 * @param verify indicates whether the state is going to be checked for success.
+	 */
+    protected void accountVisit(int depth, boolean verify) {
+    	if (statistics!=null) statistics.visit(depth);
+    	if (budget==null) return;
+    	budget.visit(depth);
+    	if (verify) budget.verify();
+    }
+    
+	/**
+	 * Accounts for a visited state, as accountVisit(depth, verify), except that a state already
+	 * checked for success along with a sibling is not charged its verification again.
+	 * @param s is the visited state.
+	 * @param depth is the depth of s.
+	 * @param verify indicates whether s is going to be checked for success.
+	 */
+    protected void accountVisit(S s, int depth, boolean verify) {
+    	accountVisit(depth, verify && (siblings==null || !siblings.isChecked(s)));
+    }
+    
+	/**
+	 * @return true iff the budget of the current search ran out.
+	 */
+    protected boolean budgetExhausted() {
+    	return budget!=null && budget.isExhausted();
+    }
+    
+	/**
+	 * Reports how far the last search got, when it ran out of budget.
+	 * @return the part of the report corresponding to the budget (empty if the search finished within budget).
+	 */
+    protected String budgetReport() {
+    	if (budget==null || !budget.isExhausted()) return "";
+    	return ", "+budget.report();
+    }
+    
+	/**
+	 * Reports information regarding duplicate detection in the last search. 
+	 * @return the part of the report corresponding to duplicate detection (empty if it is disabled).
+	 */
+    protected String duplicatesReport() {
+    	if (closed==null) return "";
+    	return ", duplicated states skipped: "+duplicatesSkipped;
+    }
 } 
\ No newline at end of file
@@ -8,6 +8,8 @@ package search.engines;
  * @version 0.3
  */
 
+import java.util.Arrays;
+
 import search.AbstractSearchProblem;
 import search.State;
 // necessary for the use of lists
@@ -17,6 +19,12 @@ abstract public class AbstractSearchEngine<S extends State, Problem extends Abst
     // a reference to the problem to apply search to
     protected Problem problem;
     
+    // listeners of the events of the search (null when there are none, so that engines without
+    // listeners only pay a null check for each event). The array is replaced, never modified, when
+    // listeners are added or removed, and it is volatile so that workers of parallel engines see
+    // the replacement (reading it once per event).
+    protected volatile SearchListener<S>[] listeners;
+    
 	/** 
 	 * Constructor for abstract class AbstractSearchEngine 
 	 * @pre. true.
@@ -64,4 +72,69 @@ abstract public class AbstractSearchEngine<S extends State, Problem extends Abst
     }
 	
     abstract public S getSolution();
+    
+	/**
+	 * Registers a listener of the events of the following searches.
+	 * @param listener is the listener to register.
+	 * @pre. listener!=null.
+	 * @post. listener receives the events of the following searches.
+	 */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public synchronized void addSearchListener(SearchListener<S> listener) {
+    	if (listener==null) throw new IllegalArgumentException("null search listener");
+    	if (listeners==null) {
+    		listeners = (SearchListener<S>[]) new SearchListener[] { listener };
+    	}
+    	else {
+    		SearchListener<S>[] extended = Arrays.copyOf(listeners, listeners.length+1);
+    		extended[listeners.length] = listener;
+    		listeners = extended;
+    	}
+    }
+    
+	/**
+	 * Unregisters a listener of the events of the search.
+	 * @param listener is the listener to unregister.
+	 * @post. listener does not receive the events of the following searches.
+	 */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public synchronized void removeSearchListener(SearchListener<S> listener) {
+    	if (listeners==null) return;
+    	int remaining = 0;
+    	SearchListener<S>[] kept = (SearchListener<S>[]) new SearchListener[listeners.length];
+    	for (SearchListener<S> l : listeners) {
+    		if (l!=listener) kept[remaining++] = l;
+    	}
+    	listeners = (remaining==0)?null:Arrays.copyOf(kept, remaining);
+    }
+    
+    protected void fireStateExpanded(S state) {
+    	SearchListener<S>[] ls = listeners;
+    	if (ls==null) return;
+    	for (SearchListener<S> l : ls) l.stateExpanded(state);
+    }
+    
+    protected void fireSuccessorsGenerated(S state, int generated, long nanos) {
+    	SearchListener<S>[] ls = listeners;
+    	if (ls==null) return;
+    	for (SearchListener<S> l : ls) l.successorsGenerated(state, generated, nanos);
+    }
+    
+    protected void fireSuccessEvaluated(S state, boolean successful, long nanos) {
+    	SearchListener<S>[] ls = listeners;
+    	if (ls==null) return;
+    	for (SearchListener<S> l : ls) l.successEvaluated(state, successful, nanos);
+    }
+    
+    protected void fireSolutionFound(S solution, int depth) {
+    	SearchListener<S>[] ls = listeners;
+    	if (ls==null) return;
+    	for (SearchListener<S> l : ls) l.solutionFound(solution, depth);
+    }
+    
+    protected void fireSearchFinished(boolean found) {
+    	SearchListener<S>[] ls = listeners;
+    	if (ls==null) return;
+    	for (SearchListener<S> l : ls) l.searchFinished(found);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,139 @@
+package search.engines;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import search.State;
+
+/**
+ * Title:        ArrayStateQueue<p>
+ * Description:  StateQueue backed by a growable ring buffer of states, and a parallel array with their
+ *               depths. Offering and polling states allocates nothing (but for the occasional growth of
+ *               the buffer), so the overhead of the queue in the main loop of an engine is kept minimal.<p>
+ * @version 0.1
+ */
+public class ArrayStateQueue<S extends State> implements StateQueue<S> {
+
+	/**
+	 * Initial capacity of the buffer (a power of two).
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Queued states; its length is always a power of two.
+	 */
+	private Object[] states;
+
+	/**
+	 * Depths of the queued states, by position in the buffer.
+	 */
+	private int[] depths;
+
+	/**
+	 * Position of the head of the queue in the buffer.
+	 */
+	private int head;
+
+	/**
+	 * Number of states in the queue.
+	 */
+	private int size;
+
+	/**
+	 * Constructor for class ArrayStateQueue.
+	 * @pre. true.
+	 * @post. an empty queue is created.
+	 */
+	public ArrayStateQueue() {
+		states = new Object[INITIAL_CAPACITY];
+		depths = new int[INITIAL_CAPACITY];
+		head = 0;
+		size = 0;
+	}
+
+	public void offer(S state, int depth) {
+		if (state==null) throw new IllegalArgumentException("null state");
+		if (size==states.length) grow();
+		int tail = (head+size) & (states.length-1);
+		states[tail] = state;
+		depths[tail] = depth;
+		size++;
+	}
+
+	public int peekDepth() {
+		if (size==0) throw new NoSuchElementException("empty queue");
+		return depths[head];
+	}
+
+	@SuppressWarnings("unchecked")
+	public S poll() {
+		if (size==0) return null;
+		S result = (S) states[head];
+		states[head] = null;
+		head = (head+1) & (states.length-1);
+		size--;
+		return result;
+	}
+
+	/**
+	 * Returns the state at a given position of the queue, without removing it.
+	 * @param i is the position of the state (0 is the head of the queue).
+	 * @return the i-th state of the queue.
+	 * @pre. 0<=i<size().
+	 */
+	@SuppressWarnings("unchecked")
+	public S get(int i) {
+		if (i<0 || i>=size) throw new IndexOutOfBoundsException("invalid position "+i);
+		return (S) states[(head+i) & (states.length-1)];
+	}
+
+	/**
+	 * Returns the depth of the state at a given position of the queue.
+	 * @param i is the position of the state (0 is the head of the queue).
+	 * @return the depth of the i-th state of the queue.
+	 * @pre. 0<=i<size().
+	 */
+	public int getDepth(int i) {
+		if (i<0 || i>=size) throw new IndexOutOfBoundsException("invalid position "+i);
+		return depths[(head+i) & (states.length-1)];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+	public void clear() {
+		Arrays.fill(states, null);
+		head = 0;
+		size = 0;
+	}
+
+	public void saveTo(SearchCheckpoint<S> checkpoint) {
+		for (int i = 0; i < size; i++) {
+			checkpoint.add(get(i), getDepth(i));
+		}
+	}
+
+	/**
+	 * Doubles the capacity of the buffer, moving the queued states to its beginning.
+	 */
+	private void grow() {
+		int capacity = states.length;
+		if (capacity > Integer.MAX_VALUE/2) throw new IllegalStateException("queue of opened states is too large");
+		Object[] newStates = new Object[capacity*2];
+		int[] newDepths = new int[capacity*2];
+		int first = capacity-head;
+		System.arraycopy(states, head, newStates, 0, first);
+		System.arraycopy(states, 0, newStates, first, head);
+		System.arraycopy(depths, head, newDepths, 0, first);
+		System.arraycopy(depths, 0, newDepths, first, head);
+		states = newStates;
+		depths = newDepths;
+		head = 0;
+	}
+
+}
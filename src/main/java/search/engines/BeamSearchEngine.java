@@ -0,0 +1,257 @@
+package search.engines;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import search.AbstractSearchProblem;
+import search.Heuristic;
+import search.State;
+
+/**
+ * Title:        BeamSearchEngine<p>
+ * Description:  Class BeamSearchEngine implements a bounded beam search strategy: the search
+ *               proceeds level by level, as bfs, but only the best scored states of each level
+ *               (at most beam width of them, according to a heuristic) are kept for exploration.
+ *               The number of states checked for success is thus at most beam width times the
+ *               depth, regardless of the branching factor of the problem. Beam search is not
+ *               complete: a successful state may be missed if it lies below discarded states.
+ *               It can be used with any instance of AbstractSearchProblem.<p>
+ * @version 0.1
+ */
+public class BeamSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> {
+
+	/**
+	 * Number of visited states in the search
+	 */
+	private int visited;
+
+	/**
+	 * Number of states discarded because they did not fit in the beam.
+	 */
+	private int discarded;
+
+	/**
+	 * Maximum depth to consider for the search.
+	 */
+	private int bound = 3;
+
+	/**
+	 * Maximum number of states kept in each level.
+	 */
+	private int beamWidth;
+
+	/**
+	 * Found solution (when search succeeded).
+	 */
+	private S solutionFound;
+
+	/**
+	 * Heuristic used to score states.
+	 */
+	private Heuristic<S> heuristic;
+
+	/**
+	 * Constructor for class BeamSearchEngine.
+	 * @param heuristic is the heuristic used to score states.
+	 * @param beamWidth is the maximum number of states kept in each level.
+	 * @pre. heuristic!=null && beamWidth>0.
+	 * @post. number of visited states and solution found initialised.
+	 */
+	public BeamSearchEngine(Heuristic<S> heuristic, int beamWidth) {
+		super();
+		if (heuristic==null) throw new IllegalArgumentException("creating engine with a null heuristic");
+		if (beamWidth<=0) throw new IllegalArgumentException("invalid beam width");
+		this.heuristic = heuristic;
+		this.beamWidth = beamWidth;
+		visited = 0;
+		solutionFound = null;
+	}
+
+	/**
+	 * Constructor for class BeamSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @param heuristic is the heuristic used to score states.
+	 * @param beamWidth is the maximum number of states kept in each level.
+	 * @param maxDepth is the maximum depth to be explored in the search.
+	 * @pre. p!=null && heuristic!=null && beamWidth>0.
+	 * @post. A reference to p is stored in field problem. Number of visited states
+	 * and solution found initialised.
+	 */
+	public BeamSearchEngine(Problem p, Heuristic<S> heuristic, int beamWidth, int maxDepth) {
+		super(p);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		if (heuristic==null) throw new IllegalArgumentException("creating engine with a null heuristic");
+		if (beamWidth<=0) throw new IllegalArgumentException("invalid beam width");
+		if (maxDepth<0) throw new IllegalArgumentException("invalid max depth");
+		this.heuristic = heuristic;
+		this.beamWidth = beamWidth;
+		bound = maxDepth;
+		visited = 0;
+		solutionFound = null;
+	}
+
+
+
+	/**
+	 * Sets the maximum depth, or bound, for the beam search
+	 * @param depth is new depth to be used for the search.
+	 */
+	public void setMaxDepth(int depth) {
+		this.bound = depth;
+	}
+
+	/**
+	 * Sets the maximum number of states kept in each level of the search.
+	 * @param beamWidth is the new beam width.
+	 */
+	public void setBeamWidth(int beamWidth) {
+		if (beamWidth<=0) throw new IllegalArgumentException("invalid beam width");
+		this.beamWidth = beamWidth;
+	}
+
+	/**
+	 * Sets the heuristic used to score states.
+	 * @param heuristic is the new heuristic.
+	 */
+	public void setHeuristic(Heuristic<S> heuristic) {
+		if (heuristic==null) throw new IllegalArgumentException("null heuristic");
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Starts the search for successful states for problem, following a
+	 * bounded beam search strategy.
+	 * @return true iff a successful state is found in depth smaller than bound.
+	 * @pre. problem!=null.
+	 * @post. the beam search is performed, and the result of the search is returned.
+	 */
+	public boolean performSearch() {
+		this.solutionFound = null;
+		if (this.problem==null) throw new IllegalStateException("initiating search on a null problem");
+		// we get the initial state, which is the only state of the first level
+		List<S> level = new ArrayList<S>();
+		level.add(problem.initialState());
+		resetVisited();
+		startAccounting();
+		discarded = 0;
+		// we initiate the search
+		boolean found = levelBeamSearch(level);
+		finishAccounting();
+		return found;
+	}
+
+	/**
+	 * Method that performs the search level by level, keeping only the best
+	 * scored states of each level.
+	 * @param level is the first level of the search.
+	 * @return true iff a successful state is found within provided bounds.
+	 * @pre. bound>=0 && level!=null && problem!=null
+	 * @post. the beam search is performed, and true is returned iff a successful state is found.
+	 */
+	private boolean levelBeamSearch(List<S> level) {
+		int currDepth = 0;
+		while (!level.isEmpty() && currDepth<=this.bound) {
+			// the best children of the level are kept in a heap whose head is the worst of them,
+			// so that children not fitting in the beam are discarded as soon as they are generated
+			PriorityQueue<ScoredState<S>> beam = new PriorityQueue<ScoredState<S>>(this.beamWidth, Collections.reverseOrder());
+			// parents of the children in the beam, to check the ones kept with the same parent together
+			// (only when the problem checks states in batches)
+			Map<ScoredState<S>, S> parents = batchesSiblings()?new IdentityHashMap<ScoredState<S>, S>():null;
+			long order = 0;
+			for (S currState : level) {
+				// the search stops when its budget runs out
+				if (!withinBudget()) return false;
+				// states are treated, unless they were already visited.
+				int seen = lookupVisited(currState, currDepth);
+				if (seen==SEEN) continue;
+				accountVisit(currState, currDepth, seen==UNSEEN);
+				visited++;
+				if (seen==UNSEEN && successful(currState)) {
+					this.solutionFound = currState;
+					if (solutionReached(currState, currDepth)) return true;
+				}
+				// we only compute children of curr if curr is not at the
+				// last level to treat
+				if (currDepth<this.bound) {
+					Iterator<S> successors = successorsOf(currState);
+					while (successors.hasNext()) {
+						S s = successors.next();
+						ScoredState<S> child = new ScoredState<S>(s, currDepth+1, heuristic.score(s, currDepth+1), order++);
+						beam.offer(child);
+						if (parents!=null) parents.put(child, currState);
+						if (beam.size()>this.beamWidth) {
+							ScoredState<S> worst = beam.poll();
+							if (parents!=null) parents.remove(worst);
+							discarded++;
+						}
+					}
+				}
+			}
+			List<ScoredState<S>> best = new ArrayList<ScoredState<S>>(beam);
+			Collections.sort(best);
+			level = new ArrayList<S>(best.size());
+			for (ScoredState<S> s : best) {
+				level.add(s.state);
+			}
+			if (parents!=null) groupKept(best, parents);
+			frontierSize(level.size());
+			currDepth++;
+		}
+		return false;
+	}
+
+	/**
+	 * Gathers the children kept in the beam as groups of siblings (children of the same parent), to
+	 * be checked for success together. Children discarded from the beam are never checked.
+	 * @param kept are the children kept in the beam.
+	 * @param parents are the parents of the children kept.
+	 */
+	private void groupKept(List<ScoredState<S>> kept, Map<ScoredState<S>, S> parents) {
+		Map<S, List<S>> groups = new IdentityHashMap<S, List<S>>();
+		for (ScoredState<S> child : kept) {
+			S parent = parents.get(child);
+			List<S> group = groups.get(parent);
+			if (group==null) {
+				group = new ArrayList<S>();
+				groups.put(parent, group);
+			}
+			group.add(child.state);
+		}
+		for (List<S> group : groups.values()) {
+			groupSiblings(group);
+		}
+	}
+
+	/**
+	 * Returns the solution found in the last performed search. If search was unsuccessful, then this
+	 * method should not be called.
+	 * @return the solution found in the last performed search.
+	 */
+	public S getSolution() {
+		if (this.solutionFound==null) throw new IllegalStateException("getSolution() can only be called if search was successful.");
+		return this.solutionFound;
+	}
+
+
+	/**
+	 * Reports information regarding a previously executed search.
+	 * @pre. performSearch() has been executed and finished.
+	 * @post. A report regarding the search is shown as a string.
+	 * This report consists of the number of visited states and the number of states
+	 * discarded from the beam. When the search ran out of budget, it also describes
+	 * how far the search got.
+	 */
+	public String report() {
+		return("Number of visited states: "+visited+", discarded states: "+discarded+duplicatesReport()+budgetReport());
+
+	}
+
+
+
+}
@@ -0,0 +1,219 @@
+package search.engines;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+import search.AbstractSearchProblem;
+import search.Heuristic;
+import search.State;
+
+/**
+ * Title:        BestFirstSearchEngine<p>
+ * Description:  Class BestFirstSearchEngine implements a bounded best-first search strategy:
+ *               opened states are kept in a priority queue, ordered by a heuristic score, and
+ *               the state with the lowest score is always explored next (states with equal scores
+ *               are explored in the order they were opened). Using scores of the form depth + h(s)
+ *               gives A* search. It can be used with any instance of AbstractSearchProblem.<p>
+ * @version 0.1
+ */
+public class BestFirstSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> {
+
+	/**
+	 * Number of visited states in the search
+	 */
+	private int visited;
+
+	/**
+	 * Maximum depth to consider for the search.
+	 */
+	private int bound = 3;
+
+	/**
+	 * Found solution (when search succeeded).
+	 */
+	private S solutionFound;
+
+	/**
+	 * Heuristic used to score opened states.
+	 */
+	private Heuristic<S> heuristic;
+
+	/**
+	 * Priority queue of opened states (states to explore), ordered by their scores.
+	 */
+	private PriorityQueue<ScoredState<S>> opened;
+
+	/**
+	 * Number of states opened so far, used to break ties between equally scored states.
+	 */
+	private long openedCount;
+
+	/**
+	 * Constructor for class BestFirstSearchEngine.
+	 * @param heuristic is the heuristic used to score states.
+	 * @pre. heuristic!=null.
+	 * @post. number of visited states, solution found and queue of states to explore initialised.
+	 */
+	public BestFirstSearchEngine(Heuristic<S> heuristic) {
+		super();
+		if (heuristic==null) throw new IllegalArgumentException("creating engine with a null heuristic");
+		this.heuristic = heuristic;
+		visited = 0;
+		solutionFound = null;
+		opened = new PriorityQueue<ScoredState<S>>();
+	}
+
+	/**
+	 * Constructor for class BestFirstSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @param heuristic is the heuristic used to score states.
+	 * @pre. p!=null && heuristic!=null.
+	 * @post. A reference to p is stored in field problem. Number of visited states,
+	 * solution found and queue of states to explore initialised.
+	 */
+	public BestFirstSearchEngine(Problem p, Heuristic<S> heuristic) {
+		super(p);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		if (heuristic==null) throw new IllegalArgumentException("creating engine with a null heuristic");
+		this.heuristic = heuristic;
+		visited = 0;
+		solutionFound = null;
+		opened = new PriorityQueue<ScoredState<S>>();
+	}
+
+	/**
+	 * Constructor for class BestFirstSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @param heuristic is the heuristic used to score states.
+	 * @param maxDepth is the maximum depth to be explored in the search.
+	 * @pre. p!=null && heuristic!=null.
+	 * @post. A reference to p is stored in field problem. Number of visited states,
+	 * solution found and queue of states to explore initialised.
+	 */
+	public BestFirstSearchEngine(Problem p, Heuristic<S> heuristic, int maxDepth) {
+		this(p, heuristic);
+		if (maxDepth<0) throw new IllegalArgumentException("invalid max depth");
+		bound = maxDepth;
+	}
+
+
+
+	/**
+	 * Sets the maximum depth, or bound, for the bounded best first search
+	 * @param depth is new depth to be used for the search.
+	 */
+	public void setMaxDepth(int depth) {
+		this.bound = depth;
+	}
+
+	/**
+	 * Sets the heuristic used to score opened states.
+	 * @param heuristic is the new heuristic.
+	 */
+	public void setHeuristic(Heuristic<S> heuristic) {
+		if (heuristic==null) throw new IllegalArgumentException("null heuristic");
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Starts the search for successful states for problem, following a
+	 * bounded best-first strategy.
+	 * @return true iff a successful state is found in depth smaller than bound.
+	 * @pre. problem!=null.
+	 * @post. the bounded best-first search is performed, and the result of the search is returned.
+	 */
+	public boolean performSearch() {
+		this.solutionFound = null;
+		if (this.problem==null) throw new IllegalStateException("initiating search on a null problem");
+		// we get the initial state
+		S initialState = problem.initialState();
+		// we initialise the queue of opened states
+		opened.clear();
+		openedCount = 0;
+		resetVisited();
+		startAccounting();
+		open(initialState, 0);
+		// we initiate the search
+		boolean found = iterativeBestFirst();
+		finishAccounting();
+		return found;
+	}
+
+	/**
+	 * Method that performs the search, always exploring the best scored opened state.
+	 * @return true iff a successful state is found within provided bounds.
+	 * @pre. bound>=0 && opened!=null && problem!=null
+	 * @post. the bounded search is performed, and true is returned iff a successful state is found.
+	 */
+	private boolean iterativeBestFirst() {
+		if (opened==null) throw new IllegalStateException("calling best first search on a null queue of opened states");
+		boolean found = false;
+		while (!opened.isEmpty() && !found) {
+			// the search stops when its budget runs out
+			if (!withinBudget()) break;
+			ScoredState<S> current = opened.poll();
+			S currState = current.state;
+			int currDepth = current.depth;
+			if (currDepth<=this.bound) {
+				// state is within bounds. It must be treated, unless it was already visited.
+				int seen = lookupVisited(currState, currDepth);
+				if (seen==SEEN) continue;
+				accountVisit(currDepth, seen==UNSEEN);
+				visited++;
+				if (seen==UNSEEN && successful(currState)) {
+					this.solutionFound = currState;
+					found = solutionReached(currState, currDepth);
+				}
+				if (!found) {
+					// we only open children of curr if curr is not at the
+					// last level to treat
+					if (currDepth<this.bound) {
+						Iterator<S> successors = successorsOf(currState);
+						while (successors.hasNext()) {
+							open(successors.next(), currDepth+1);
+						}
+						frontierSize(opened.size());
+					}
+				}
+			}
+		}
+		opened.clear();
+		return found;
+	}
+
+	/**
+	 * Scores a state and adds it to the queue of opened states.
+	 */
+	private void open(S s, int depth) {
+		opened.offer(new ScoredState<S>(s, depth, heuristic.score(s, depth), openedCount++));
+	}
+
+	/**
+	 * Returns the solution found in the last performed search. If search was unsuccessful, then this
+	 * method should not be called.
+	 * @return the solution found in the last performed search.
+	 */
+	public S getSolution() {
+		if (this.solutionFound==null) throw new IllegalStateException("getSolution() can only be called if search was successful.");
+		return this.solutionFound;
+	}
+
+
+	/**
+	 * Reports information regarding a previously executed search.
+	 * @pre. performSearch() has been executed and finished.
+	 * @post. A report regarding the search is shown as a string.
+	 * This report consists of the number of visited states and, when duplicate
+	 * detection is enabled, the number of duplicated states skipped. When the search
+	 * ran out of budget, it also describes how far the search got.
+	 */
+	public String report() {
+		return("Number of visited states: "+visited+duplicatesReport()+budgetReport());
+
+	}
+
+
+
+}
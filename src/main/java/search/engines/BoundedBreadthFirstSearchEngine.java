@@ -1,23 +1,28 @@
 package search.engines;
 
-import java.util.LinkedList;
-import java.util.Queue;
-
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
 
 import search.AbstractSearchProblem;
 import search.State;
+import search.StateSerializer;
 
 /**
  * Title:        BoundedBreadthFirstSearchEngine<p>
  * Description:  Class BoundedBreadthFirstSearchEngine implements a Bounded Breadth-first search 
                  strategy which can be used with any instance of 
-		         AbstractSearchProblem.<p>
+		         AbstractSearchProblem. The search can be checkpointed to disk, and resumed,
+		         and its queue of opened states can be spilled to disk.<p>
  * @author Nazareno Aguirre
  * @version 0.3
  */
-public class BoundedBreadthFirstSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> {
+public class BoundedBreadthFirstSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> implements Checkpointable<S> {
+
+	/**
+	 * Name of the strategy, as recorded in checkpoints.
+	 */
+	private static final String STRATEGY = "bfs";
 
 	/**
 	 * Number of visisted states in the search
@@ -37,7 +42,17 @@ public class BoundedBreadthFirstSearchEngine<S extends State, Problem extends Ab
 	/**
 	 * Queue of opened states (states to explore); each state is accompanied by its depth.
 	 */
-	private Queue<Pair<S, Integer>> opened; 
+	private StateQueue<S> opened; 
+
+	/**
+	 * File where checkpoints of the search are saved (null when checkpoints are disabled).
+	 */
+	private CheckpointFile<S> checkpoints;
+
+	/**
+	 * Checkpoint the next search resumes from (null when it starts from the initial state).
+	 */
+	private SearchCheckpoint<S> resumed;
 
 	/** 
 	 * Constructor for class BoundedBreadthFirstSearchEngine.  
@@ -48,7 +63,7 @@ public class BoundedBreadthFirstSearchEngine<S extends State, Problem extends Ab
 		super();
 		visited = 0;
 		solutionFound = null;
-		opened = new LinkedList<Pair<S, Integer>>();
+		opened = new ArrayStateQueue<S>();
 	}
 
 	/** 
@@ -64,7 +79,7 @@ public class BoundedBreadthFirstSearchEngine<S extends State, Problem extends Ab
 		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
 		visited = 0;
 		solutionFound = null;
-		opened = new LinkedList<Pair<S,Integer>>();
+		opened = new ArrayStateQueue<S>();
 	}
 
 	/** 
@@ -83,7 +98,7 @@ public class BoundedBreadthFirstSearchEngine<S extends State, Problem extends Ab
 		visited = 0;
 		bound = maxDepth;
 		solutionFound = null;
-		opened = new LinkedList<Pair<S,Integer>>();
+		opened = new ArrayStateQueue<S>();
 	}
 
 	
@@ -106,13 +121,31 @@ public class BoundedBreadthFirstSearchEngine<S extends State, Problem extends Ab
 	public boolean performSearch() {
 		this.solutionFound = null;
 		if (this.problem==null) throw new IllegalStateException("initiating search on a null problem");
-		// we get the initial state
-		S initialState = problem.initialState();
 		// we initialise the stack of opened states
 		opened.clear();
-		opened.offer(new ImmutablePair<S,Integer>(initialState, 0));
+		resetVisited();
+		startAccounting();
+		if (resumed!=null) {
+			// we resume the search from the loaded checkpoint
+			restore(resumed);
+			resumed = null;
+		}
+		else {
+			// we get the initial state
+			S initialState = problem.initialState();
+			opened.offer(initialState, 0);
+		}
 		// we initiate the search
-		return iterativeBreadthFirst();
+		boolean found = iterativeBreadthFirst();
+		finishAccounting();
+		if (checkpoints!=null) {
+			// a search stopped by its budget can be resumed later on; otherwise, it is over
+			if (budgetExhausted()) checkpoints.save(checkpoint());
+			else checkpoints.delete();
+		}
+		// states left in the queue are dropped (removing spilled segments, if any)
+		opened.clear();
+		return found;
 	} 
 
 	/** 
@@ -126,24 +159,33 @@ public class BoundedBreadthFirstSearchEngine<S extends State, Problem extends Ab
 		if (opened==null) throw new IllegalStateException("calling iterative bfs on a null queue of opened states");
 		boolean found = false;
 		while (!opened.isEmpty() && !found) {
-			Pair<S,Integer> current = opened.poll();
-			S currState = current.getLeft();
-			int currDepth = current.getRight();
+			// the search stops when its budget runs out
+			if (!withinBudget()) break;
+			// a checkpoint of the search is saved at regular intervals
+			if (checkpoints!=null && checkpoints.isDue()) checkpoints.save(checkpoint());
+			int currDepth = opened.peekDepth();
+			S currState = opened.poll();
 			if (currDepth<=this.bound) {
-				// state is within bounds. It must be treated.
+				// state is within bounds. It must be treated, unless it was already visited.
+				int seen = lookupVisited(currState, currDepth);
+				if (seen==SEEN) continue;
+				accountVisit(currState, currDepth, seen==UNSEEN);
 				visited++;
-				if (problem.success(currState)) {
-					found = true;
+				if (seen==UNSEEN && successful(currState)) {
 					this.solutionFound = currState;
+					found = solutionReached(currState, currDepth);
 				}
-				else {
+				if (!found) {
 					// we only push children of curr if curr is not at the
 					// last level to treat
 					if (currDepth<this.bound) {
-						for (S s: problem.getSuccessors(currState)) {
-							Pair<S, Integer> child = new ImmutablePair<S, Integer>(s, currDepth+1);
-							opened.offer(child);
-						}						
+						// all children are going to be treated, so they can be checked for success
+						// together (unless they are spilled to disk, where they lose their identity)
+						Iterator<S> successors = (opened instanceof DiskSpillingQueue)?successorsOf(currState):groupedSuccessorsOf(currState);
+						while (successors.hasNext()) {
+							opened.offer(successors.next(), currDepth+1);
+						}
+						frontierSize(opened.size());
 					}
 				}
 			}
@@ -151,6 +193,80 @@ public class BoundedBreadthFirstSearchEngine<S extends State, Problem extends Ab
 		return found;
 	} 
 
+	/**
+	 * Enables spilling of the queue of opened states to disk: at most maxInMemory states are kept
+	 * at the head of the queue (and as many at its tail), and the rest are spilled, in segments of
+	 * that size, to memory-mapped files under directory. This keeps heap use flat on wide levels,
+	 * at the cost of serialising states.
+	 * @param directory is where segments of the queue are spilled.
+	 * @param serializer gives the serialised form of spilled states.
+	 * @param maxInMemory is the number of states in each segment.
+	 */
+	public void setFrontierSpilling(File directory, StateSerializer<S> serializer, int maxInMemory) {
+		opened.clear();
+		opened = new DiskSpillingQueue<S>(directory, serializer, maxInMemory);
+	}
+
+	/**
+	 * Disables spilling of the queue of opened states to disk (the default).
+	 */
+	public void disableFrontierSpilling() {
+		opened.clear();
+		opened = new ArrayStateQueue<S>();
+	}
+
+	/**
+	 * Enables checkpoints: while searching, a checkpoint is saved to file every interval
+	 * milliseconds, and when the search runs out of budget. Once a search is over, its 
+	 * checkpoint is deleted.
+	 * @param file is where checkpoints are saved.
+	 * @param serializer gives the serialised form of states in checkpoints.
+	 * @param interval is the time between checkpoints, in milliseconds.
+	 */
+	public void setCheckpointing(File file, StateSerializer<S> serializer, long interval) {
+		this.checkpoints = new CheckpointFile<S>(file, serializer, interval);
+	}
+
+	/**
+	 * Disables checkpoints (the default).
+	 */
+	public void disableCheckpointing() {
+		this.checkpoints = null;
+	}
+
+	/**
+	 * Loads a checkpoint, so that the next search resumes from it instead of starting from the
+	 * initial state of the problem. The bound of the resumed search is the one of the checkpoint.
+	 * @param checkpoint is the file where the checkpoint was saved.
+	 * @param serializer gives the serialised form of states in the checkpoint.
+	 * @throws IOException if the checkpoint cannot be read, or it was saved by another strategy.
+	 */
+	public void resumeFrom(File checkpoint, StateSerializer<S> serializer) throws IOException {
+		this.resumed = new CheckpointFile<S>(checkpoint, serializer).load(STRATEGY);
+	}
+
+	/**
+	 * Takes a checkpoint of the search in progress.
+	 */
+	private SearchCheckpoint<S> checkpoint() {
+		SearchCheckpoint<S> checkpoint = new SearchCheckpoint<S>(STRATEGY, bound, visited, duplicatesSkipped, closed);
+		opened.saveTo(checkpoint);
+		return checkpoint;
+	}
+
+	/**
+	 * Restores the search in progress saved in a checkpoint.
+	 */
+	private void restore(SearchCheckpoint<S> checkpoint) {
+		bound = checkpoint.getBound();
+		visited = checkpoint.getVisited();
+		duplicatesSkipped = checkpoint.getDuplicatesSkipped();
+		if (closed!=null && checkpoint.getVisitedTable()!=null) closed = checkpoint.getVisitedTable();
+		for (int i = 0; i < checkpoint.size(); i++) {
+			opened.offer(checkpoint.getState(i), checkpoint.getDepth(i));
+		}
+	}
+
 	/**
 	 * Returns the solution found in the last performed search. If search was unsuccessful, then this
 	 * method should not be called.
@@ -166,10 +282,12 @@ public class BoundedBreadthFirstSearchEngine<S extends State, Problem extends Ab
 	 * Reports information regarding a previously executed search.   
 	 * @pre. performSearch() has been executed and finished.
 	 * @post. A report regarding the search is shown as a string.
-	 * This report consists simply of the number of visited states.
+	 * This report consists of the number of visited states and, when duplicate
+	 * detection is enabled, the number of duplicated states skipped. When the search
+	 * ran out of budget, it also describes how far the search got.
 	 */    
 	public String report() {
-		return("Number of visited states: "+visited);
+		return("Number of visited states: "+visited+duplicatesReport()+budgetReport());
 
 	}
 
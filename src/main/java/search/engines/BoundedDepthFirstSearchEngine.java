@@ -2,27 +2,87 @@ package search.engines;
 /**
  * Title:        DepthFirstEngine<p>
  * Description:  Class BoundedDepthFirstSearchEngine implements a bounded depth-first search strategy
-                 iteratively. It can be used with any instance of AbstractSearchProblem. <p>
+                 iteratively. It can be used with any instance of AbstractSearchProblem. The search
+                 can be checkpointed to disk, and resumed.<p>
  * @author Nazareno Aguirre
  * @version 0.1
  */
 
 
-import java.util.Stack; // necessary due to the use of lists.
-
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
 
 import search.AbstractSearchProblem;
 import search.State;
+import search.StateSerializer;
+
+public class BoundedDepthFirstSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> implements Checkpointable<S> {
 
-public class BoundedDepthFirstSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> {
+	private static final String STRATEGY = "dfs"; // name of the strategy, as recorded in checkpoints.
 
 	private int visited;
 	private int bound = 3; 
 	private S solutionFound;
 	
-	private Stack<Pair<S, Integer>> opened; // stores opened states and their corresponding depth.
+	private DepthStack<Frame<S>> opened; // stores, for each opened state, a cursor over its
+										 // successors still to visit, and their corresponding depth.
+
+	/**
+	 * Marks, in checkpoints, a frame holding a state still to visit (the initial one) instead of
+	 * the successors of an opened state.
+	 */
+	private static final int UNEXPANDED = -1;
+
+	/**
+	 * Cursor over the successors still to visit of an opened state, which counts the successors
+	 * consumed so far, so that it can be checkpointed as the opened state and that count.
+	 */
+	private static class Frame<S> implements Iterator<S> {
+
+		private final S state; // the opened state (or the initial state, if not expanded).
+		private final boolean expanded; // whether the frame iterates over the successors of state, or over state itself.
+		private final Iterator<S> successors;
+		private int consumed = 0;
+
+		Frame(S initialState) {
+			this.state = initialState;
+			this.expanded = false;
+			this.successors = Collections.singletonList(initialState).iterator();
+		}
+
+		Frame(S openedState, Iterator<S> successors) {
+			this.state = openedState;
+			this.expanded = true;
+			this.successors = successors;
+		}
+
+		public boolean hasNext() {
+			return successors.hasNext();
+		}
+
+		public S next() {
+			S next = successors.next();
+			consumed++;
+			return next;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("remove");
+		}
+
+	}
+
+	/**
+	 * File where checkpoints of the search are saved (null when checkpoints are disabled).
+	 */
+	private CheckpointFile<S> checkpoints;
+
+	/**
+	 * Checkpoint the next search resumes from (null when it starts from the initial state).
+	 */
+	private SearchCheckpoint<S> resumed;
 
 	/** 
 	 * Constructor for class DepthFirstEngine.  
@@ -33,7 +93,7 @@ public class BoundedDepthFirstSearchEngine<S extends State, Problem extends Abst
 		super();
 		visited = 0;
 		solutionFound = null;
-		opened = new Stack<Pair<S, Integer>>();
+		opened = new DepthStack<Frame<S>>();
 	}
 
 	/** 
@@ -49,7 +109,7 @@ public class BoundedDepthFirstSearchEngine<S extends State, Problem extends Abst
 		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
 		visited = 0;
 		solutionFound = null;
-		opened = new Stack<Pair<S,Integer>>();
+		opened = new DepthStack<Frame<S>>();
 	}
 
 	/** 
@@ -68,7 +128,7 @@ public class BoundedDepthFirstSearchEngine<S extends State, Problem extends Abst
 		visited = 0;
 		bound = maxDepth;
 		solutionFound = null;
-		opened = new Stack<Pair<S,Integer>>();
+		opened = new DepthStack<Frame<S>>();
 	}
 
 	
@@ -91,18 +151,35 @@ public class BoundedDepthFirstSearchEngine<S extends State, Problem extends Abst
 	public boolean performSearch() {
 		this.solutionFound = null;
 		if (this.problem==null) throw new IllegalStateException("initiating search on a null problem");
-		// we get the initial state
-		S initialState = problem.initialState();
 		// we initialise the stack of opened states
 		opened.clear();
-		opened.push(new ImmutablePair<S,Integer>(initialState, 0));
+		resetVisited();
+		startAccounting();
+		if (resumed!=null) {
+			// we resume the search from the loaded checkpoint
+			restore(resumed);
+			resumed = null;
+		}
+		else {
+			// we get the initial state
+			S initialState = problem.initialState();
+			opened.push(new Frame<S>(initialState), 0);
+		}
 		// we initiate the search
-		return iterativeDepthFirst();
+		boolean found = iterativeDepthFirst();
+		finishAccounting();
+		if (checkpoints!=null) {
+			// a search stopped by its budget can be resumed later on; otherwise, it is over
+			if (budgetExhausted()) checkpoints.save(checkpoint());
+			else checkpoints.delete();
+		}
+		return found;
 	} 
 
 	/** 
 	 * Method that performs the search implementing a depth-first visit 
-	 * recursively.
+	 * iteratively. Successors of a state are only computed as they are reached 
+	 * (if the problem is able to produce them lazily).
 	 * @return true iff a successful state is found within provided bounds.
 	 * @pre. bound>=0 && opened!=null && problem!=null
 	 * @post. the bounded dfs is performed, and true is returned iff a successful state is found.
@@ -111,24 +188,34 @@ public class BoundedDepthFirstSearchEngine<S extends State, Problem extends Abst
 		if (opened==null) throw new IllegalStateException("calling iterative dfs on a null stack of opened states");
 		boolean found = false;
 		while (!opened.isEmpty() && !found) {
-			Pair<S,Integer> current = opened.pop();
-			S currState = current.getLeft();
-			int currDepth = current.getRight();
+			// the search stops when its budget runs out
+			if (!withinBudget()) break;
+			// a checkpoint of the search is saved at regular intervals
+			if (checkpoints!=null && checkpoints.isDue()) checkpoints.save(checkpoint());
+			Frame<S> current = opened.peek();
+			if (!current.hasNext()) {
+				// all successors of the state were visited
+				opened.pop();
+				continue;
+			}
+			int currDepth = opened.peekDepth();
+			S currState = current.next();
 			if (currDepth<=this.bound) {
-				// state is within bounds. It must be treated.
+				// state is within bounds. It must be treated, unless it was already visited.
+				int seen = lookupVisited(currState, currDepth);
+				if (seen==SEEN) continue;
+				accountVisit(currDepth, seen==UNSEEN);
 				visited++;
-				if (problem.success(currState)) {
-					found = true;
+				if (seen==UNSEEN && successful(currState)) {
 					this.solutionFound = currState;
+					found = solutionReached(currState, currDepth);
 				}
-				else {
+				if (!found) {
 					// we only push children of curr if curr is not at the
 					// last level to treat
 					if (currDepth<this.bound) {
-						for (S s: problem.getSuccessors(currState)) {
-							Pair<S, Integer> child = new ImmutablePair<S, Integer>(s, currDepth+1);
-							opened.push(child);
-						}						
+						opened.push(new Frame<S>(currState, depthFirstSuccessorsOf(currState)), currDepth+1);
+						frontierSize(opened.size());
 					}
 				}
 			}
@@ -136,6 +223,77 @@ public class BoundedDepthFirstSearchEngine<S extends State, Problem extends Abst
 		return found;
 	} 
 
+	/**
+	 * Enables checkpoints: while searching, a checkpoint is saved to file every interval
+	 * milliseconds, and when the search runs out of budget. Once a search is over, its 
+	 * checkpoint is deleted.
+	 * @param file is where checkpoints are saved.
+	 * @param serializer gives the serialised form of states in checkpoints.
+	 * @param interval is the time between checkpoints, in milliseconds.
+	 */
+	public void setCheckpointing(File file, StateSerializer<S> serializer, long interval) {
+		this.checkpoints = new CheckpointFile<S>(file, serializer, interval);
+	}
+
+	/**
+	 * Disables checkpoints (the default).
+	 */
+	public void disableCheckpointing() {
+		this.checkpoints = null;
+	}
+
+	/**
+	 * Loads a checkpoint, so that the next search resumes from it instead of starting from the
+	 * initial state of the problem. The bound of the resumed search is the one of the checkpoint.
+	 * @param checkpoint is the file where the checkpoint was saved.
+	 * @param serializer gives the serialised form of states in the checkpoint.
+	 * @throws IOException if the checkpoint cannot be read, or it was saved by another strategy.
+	 */
+	public void resumeFrom(File checkpoint, StateSerializer<S> serializer) throws IOException {
+		this.resumed = new CheckpointFile<S>(checkpoint, serializer).load(STRATEGY);
+	}
+
+	/**
+	 * Takes a checkpoint of the search in progress. Each frame of the stack is saved as its opened
+	 * state and the number of successors already consumed, so no successor still to visit is 
+	 * computed (lazy iterators are left untouched).
+	 */
+	private SearchCheckpoint<S> checkpoint() {
+		SearchCheckpoint<S> checkpoint = new SearchCheckpoint<S>(STRATEGY, bound, visited, duplicatesSkipped, closed);
+		for (int i = 0; i < opened.size(); i++) {
+			Frame<S> frame = opened.get(i);
+			if (frame.expanded) checkpoint.add(frame.state, opened.getDepth(i), frame.consumed);
+			else if (frame.consumed==0) checkpoint.add(frame.state, opened.getDepth(i), UNEXPANDED);
+		}
+		return checkpoint;
+	}
+
+	/**
+	 * Restores the search in progress saved in a checkpoint. The successors of each opened state
+	 * are computed again (lazily, if the problem is able to), skipping those already consumed. 
+	 * This requires the problem to produce the successors of a state in the same order each 
+	 * time; if it produces more of them when resumed (e.g., because it discards fewer repeated
+	 * ones), the skipped successors end up being a prefix of those consumed, and some states
+	 * are just visited again.
+	 */
+	private void restore(SearchCheckpoint<S> checkpoint) {
+		bound = checkpoint.getBound();
+		visited = checkpoint.getVisited();
+		duplicatesSkipped = checkpoint.getDuplicatesSkipped();
+		if (closed!=null && checkpoint.getVisitedTable()!=null) closed = checkpoint.getVisitedTable();
+		for (int i = 0; i < checkpoint.size(); i++) {
+			S s = checkpoint.getState(i);
+			int consumed = checkpoint.getConsumed(i);
+			if (consumed==UNEXPANDED) {
+				opened.push(new Frame<S>(s), checkpoint.getDepth(i));
+				continue;
+			}
+			Frame<S> frame = new Frame<S>(s, depthFirstSuccessorsOf(s));
+			while (frame.consumed<consumed && frame.hasNext()) frame.next();
+			opened.push(frame, checkpoint.getDepth(i));
+		}
+	}
+
 	/**
 	 * Returns the solution found in the last performed search. If search was unsuccessful, then this
 	 * method should not be called.
@@ -151,10 +309,12 @@ public class BoundedDepthFirstSearchEngine<S extends State, Problem extends Abst
 	 * Reports information regarding a previously executed search.   
 	 * @pre. performSearch() has been executed and finished.
 	 * @post. A report regarding the search is shown as a string.
-	 * This report consists simply of the number of visited states.
+	 * This report consists of the number of visited states and, when duplicate
+	 * detection is enabled, the number of duplicated states skipped. When the search
+	 * ran out of budget, it also describes how far the search got.
 	 */    
 	public String report() {
-		return("Number of visited states: "+visited);
+		return("Number of visited states: "+visited+duplicatesReport()+budgetReport());
 
 	}
 
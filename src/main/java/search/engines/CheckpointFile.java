@@ -0,0 +1,189 @@
+package search.engines;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import search.State;
+import search.StateSerializer;
+
+/**
+ * Title:        CheckpointFile<p>
+ * Description:  File where checkpoints of a search are periodically saved. Checkpoints are written
+ *               in a compact, compressed binary form, with states in the serialised form given by
+ *               a StateSerializer. Each checkpoint is first written to a temporary file, which then
+ *               replaces the previous checkpoint, so a crash while saving never leaves a corrupted
+ *               checkpoint behind.<p>
+ * @version 0.1
+ */
+public class CheckpointFile<S extends State> {
+
+	/**
+	 * Marks the beginning of checkpoint files.
+	 */
+	private static final int MAGIC = 0x53545259;
+
+	/**
+	 * Version of the format of checkpoint files.
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * Location of the checkpoint.
+	 */
+	private File file;
+
+	/**
+	 * Serialiser for the states of the search.
+	 */
+	private StateSerializer<S> serializer;
+
+	/**
+	 * Time between checkpoints, in milliseconds (0 if checkpoints are only loaded).
+	 */
+	private long interval;
+
+	/**
+	 * Time (as given by System.nanoTime()) at which the last checkpoint was saved.
+	 */
+	private long lastSaved;
+
+	/**
+	 * Constructor for class CheckpointFile.
+	 * @param file is the location of the checkpoint.
+	 * @param serializer is the serialiser for the states of the search.
+	 * @param interval is the time between checkpoints, in milliseconds.
+	 * @pre. file!=null && serializer!=null && interval>0.
+	 * @post. a checkpoint file, not yet due, is created.
+	 */
+	public CheckpointFile(File file, StateSerializer<S> serializer, long interval) {
+		if (file==null) throw new IllegalArgumentException("null checkpoint file");
+		if (serializer==null) throw new IllegalArgumentException("null state serializer");
+		if (interval<=0) throw new IllegalArgumentException("invalid checkpoint interval");
+		this.file = file;
+		this.serializer = serializer;
+		this.interval = interval;
+		this.lastSaved = System.nanoTime();
+	}
+
+	/**
+	 * Constructor for class CheckpointFile, for loading a checkpoint already saved.
+	 * @param file is the location of the checkpoint.
+	 * @param serializer is the serialiser for the states of the search.
+	 * @pre. file!=null && serializer!=null.
+	 * @post. a checkpoint file, never due, is created.
+	 */
+	public CheckpointFile(File file, StateSerializer<S> serializer) {
+		if (file==null) throw new IllegalArgumentException("null checkpoint file");
+		if (serializer==null) throw new IllegalArgumentException("null state serializer");
+		this.file = file;
+		this.serializer = serializer;
+		this.interval = 0;
+	}
+
+	/**
+	 * @return the location of the checkpoint.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return true iff the interval between checkpoints elapsed since the last one was saved.
+	 */
+	public boolean isDue() {
+		return interval>0 && System.nanoTime()-lastSaved>=interval*1000000L;
+	}
+
+	/**
+	 * Saves a checkpoint, replacing the previous one. A checkpoint that cannot be saved is 
+	 * reported, but it does not interrupt the search.
+	 * @param checkpoint is the checkpoint to save.
+	 * @return true iff the checkpoint was saved.
+	 */
+	public boolean save(SearchCheckpoint<S> checkpoint) {
+		lastSaved = System.nanoTime();
+		File temp = new File(file.getPath()+".tmp");
+		try {
+			write(checkpoint, temp);
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		}
+		catch (IOException e) {
+			System.err.println("couldn't save checkpoint to " + file + ": " + e.getMessage());
+			temp.delete();
+			return false;
+		}
+	}
+
+	/**
+	 * Loads the saved checkpoint.
+	 * @param strategy is the name of the strategy that is going to resume the search.
+	 * @return the saved checkpoint.
+	 * @throws IOException if the checkpoint cannot be read, or it was saved by another strategy.
+	 */
+	public SearchCheckpoint<S> load(String strategy) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))));
+		try {
+			if (in.readInt()!=MAGIC) throw new IOException(file + " is not a search checkpoint");
+			if (in.readInt()!=VERSION) throw new IOException("unsupported version of search checkpoint " + file);
+			String savedStrategy = in.readUTF();
+			if (!savedStrategy.equals(strategy)) throw new IOException("checkpoint " + file + " was saved by a " + savedStrategy + " search");
+			int bound = in.readInt();
+			int visited = in.readInt();
+			int duplicatesSkipped = in.readInt();
+			VisitedTable visitedTable = in.readBoolean()?VisitedTable.read(in):null;
+			SearchCheckpoint<S> checkpoint = new SearchCheckpoint<S>(savedStrategy, bound, visited, duplicatesSkipped, visitedTable);
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				int depth = in.readInt();
+				int consumed = in.readInt();
+				checkpoint.add(serializer.read(in), depth, consumed);
+			}
+			return checkpoint;
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Deletes the saved checkpoint (e.g., once the search is over).
+	 */
+	public void delete() {
+		if (file.exists()) file.delete();
+	}
+
+	private void write(SearchCheckpoint<S> checkpoint, File target) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(target))));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(checkpoint.getStrategy());
+			out.writeInt(checkpoint.getBound());
+			out.writeInt(checkpoint.getVisited());
+			out.writeInt(checkpoint.getDuplicatesSkipped());
+			out.writeBoolean(checkpoint.getVisitedTable()!=null);
+			if (checkpoint.getVisitedTable()!=null) checkpoint.getVisitedTable().write(out);
+			out.writeInt(checkpoint.size());
+			for (int i = 0; i < checkpoint.size(); i++) {
+				out.writeInt(checkpoint.getDepth(i));
+				out.writeInt(checkpoint.getConsumed(i));
+				serializer.write(checkpoint.getState(i), out);
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package search.engines;
+
+import java.io.File;
+import java.io.IOException;
+
+import search.State;
+import search.StateSerializer;
+
+/**
+ * Title:        Checkpointable<p>
+ * Description:  Interface for search engines able to periodically save a checkpoint of the search
+ *               in progress (its frontier, visited states counter and depth bookkeeping) to disk,
+ *               and to resume a search from such a checkpoint, e.g., after a crash or restart.<p>
+ * @version 0.1
+ */
+public interface Checkpointable<S extends State> {
+
+	/**
+	 * Enables checkpoints: while searching, a checkpoint is saved to file every interval
+	 * milliseconds, and when the search runs out of budget. Once a search is over, its 
+	 * checkpoint is deleted.
+	 * @param file is where checkpoints are saved.
+	 * @param serializer gives the serialised form of states in checkpoints.
+	 * @param interval is the time between checkpoints, in milliseconds.
+	 * @pre. file!=null && serializer!=null && interval>0.
+	 * @post. checkpoints are saved in the following searches.
+	 */
+	public void setCheckpointing(File file, StateSerializer<S> serializer, long interval);
+
+	/**
+	 * Disables checkpoints (the default).
+	 */
+	public void disableCheckpointing();
+
+	/**
+	 * Loads a checkpoint, so that the next search resumes from it instead of starting from the
+	 * initial state of the problem.
+	 * @param checkpoint is the file where the checkpoint was saved.
+	 * @param serializer gives the serialised form of states in the checkpoint.
+	 * @throws IOException if the checkpoint cannot be read, or it was saved by another strategy.
+	 * @pre. checkpoint!=null && serializer!=null.
+	 * @post. the next search resumes from the loaded checkpoint.
+	 */
+	public void resumeFrom(File checkpoint, StateSerializer<S> serializer) throws IOException;
+
+}
@@ -0,0 +1,152 @@
+package search.engines;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Title:        DepthStack<p>
+ * Description:  LIFO stack of elements, each one accompanied by a depth, as used by depth-first engines
+ *               (whose elements are the iterators over the successors still to visit of opened states).
+ *               It is backed by a growable array of elements and a parallel array with their depths, so
+ *               pushing and popping elements allocates nothing (but for the occasional growth of the arrays),
+ *               and it is not synchronised.<p>
+ * @version 0.1
+ */
+public class DepthStack<T> {
+
+	/**
+	 * Initial capacity of the stack.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Elements in the stack, from bottom to top.
+	 */
+	private Object[] elements;
+
+	/**
+	 * Depths of the elements in the stack.
+	 */
+	private int[] depths;
+
+	/**
+	 * Number of elements in the stack.
+	 */
+	private int size;
+
+	/**
+	 * Constructor for class DepthStack.
+	 * @pre. true.
+	 * @post. an empty stack is created.
+	 */
+	public DepthStack() {
+		elements = new Object[INITIAL_CAPACITY];
+		depths = new int[INITIAL_CAPACITY];
+		size = 0;
+	}
+
+	/**
+	 * Pushes an element onto the top of the stack.
+	 * @param element is the element to push.
+	 * @param depth is the depth of the element.
+	 */
+	public void push(T element, int depth) {
+		if (element==null) throw new IllegalArgumentException("null element");
+		if (size==elements.length) {
+			if (size > Integer.MAX_VALUE/2) throw new IllegalStateException("stack of opened states is too large");
+			elements = Arrays.copyOf(elements, size*2);
+			depths = Arrays.copyOf(depths, size*2);
+		}
+		elements[size] = element;
+		depths[size] = depth;
+		size++;
+	}
+
+	/**
+	 * @return the element at the top of the stack.
+	 * @pre. !isEmpty().
+	 */
+	@SuppressWarnings("unchecked")
+	public T peek() {
+		if (size==0) throw new NoSuchElementException("empty stack");
+		return (T) elements[size-1];
+	}
+
+	/**
+	 * @return the depth of the element at the top of the stack.
+	 * @pre. !isEmpty().
+	 */
+	public int peekDepth() {
+		if (size==0) throw new NoSuchElementException("empty stack");
+		return depths[size-1];
+	}
+
+	/**
+	 * Removes the element at the top of the stack.
+	 * @return the removed element.
+	 * @pre. !isEmpty().
+	 */
+	public T pop() {
+		T result = peek();
+		elements[--size] = null;
+		return result;
+	}
+
+	/**
+	 * Returns the element at a given position of the stack.
+	 * @param i is the position of the element (0 is the bottom of the stack).
+	 * @return the i-th element of the stack.
+	 * @pre. 0<=i<size().
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int i) {
+		if (i<0 || i>=size) throw new IndexOutOfBoundsException("invalid position "+i);
+		return (T) elements[i];
+	}
+
+	/**
+	 * Returns the depth of the element at a given position of the stack.
+	 * @param i is the position of the element (0 is the bottom of the stack).
+	 * @return the depth of the i-th element of the stack.
+	 * @pre. 0<=i<size().
+	 */
+	public int getDepth(int i) {
+		if (i<0 || i>=size) throw new IndexOutOfBoundsException("invalid position "+i);
+		return depths[i];
+	}
+
+	/**
+	 * Replaces the element at a given position of the stack, keeping its depth.
+	 * @param i is the position of the element (0 is the bottom of the stack).
+	 * @param element is the new element.
+	 * @pre. 0<=i<size().
+	 */
+	public void set(int i, T element) {
+		if (i<0 || i>=size) throw new IndexOutOfBoundsException("invalid position "+i);
+		if (element==null) throw new IllegalArgumentException("null element");
+		elements[i] = element;
+	}
+
+	/**
+	 * @return the number of elements in the stack.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true iff the stack has no elements.
+	 */
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+	/**
+	 * Removes all elements from the stack.
+	 */
+	public void clear() {
+		Arrays.fill(elements, 0, size, null);
+		size = 0;
+	}
+
+}
@@ -0,0 +1,283 @@
+package search.engines;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+
+import search.State;
+import search.StateSerializer;
+
+/**
+ * Title:        DiskSpillingQueue<p>
+ * Description:  FIFO queue of opened states (each one accompanied by its depth) whose memory use is
+ *               bounded: only the head of the queue, and a segment of the most recently added states,
+ *               are kept in memory. Whenever that segment fills up, it is spilled, in the compact
+ *               serialised form given by a StateSerializer, to a memory-mapped file; spilled segments
+ *               are read back, in order, as the head of the queue is consumed. So, heap use stays flat
+ *               however many states are queued (e.g., however wide a level of a breadth-first search gets).
+ *               Segments are stored in a directory of their own, removed when the queue is cleared.<p>
+ * @version 0.1
+ */
+public class DiskSpillingQueue<S extends State> implements StateQueue<S> {
+
+	/**
+	 * Serialiser for the queued states.
+	 */
+	private StateSerializer<S> serializer;
+
+	/**
+	 * Maximum number of states kept in memory at the head of the queue, and in each segment.
+	 */
+	private int segmentSize;
+
+	/**
+	 * Directory where segments are spilled.
+	 */
+	private File directory;
+
+	/**
+	 * Head of the queue, kept in memory.
+	 */
+	private ArrayStateQueue<S> head;
+
+	/**
+	 * Spilled segments, in queue order.
+	 */
+	private ArrayDeque<File> segments;
+
+	/**
+	 * Most recently added states, to be spilled once they fill a segment.
+	 */
+	private ArrayStateQueue<S> tail;
+
+	/**
+	 * Number of states in the queue.
+	 */
+	private int size;
+
+	/**
+	 * Number of segments spilled so far (used to name them).
+	 */
+	private long spilled;
+
+	/**
+	 * Constructor for class DiskSpillingQueue.
+	 * @param parent is the directory under which segments are spilled.
+	 * @param serializer gives the serialised form of states in spilled segments.
+	 * @param segmentSize is the max number of states kept in memory at the head of the queue and in each segment.
+	 * @pre. parent!=null && serializer!=null && segmentSize>0.
+	 * @post. an empty queue is created.
+	 */
+	public DiskSpillingQueue(File parent, StateSerializer<S> serializer, int segmentSize) {
+		if (parent==null) throw new IllegalArgumentException("null spilling directory");
+		if (serializer==null) throw new IllegalArgumentException("null state serializer");
+		if (segmentSize<=0) throw new IllegalArgumentException("invalid segment size");
+		this.serializer = serializer;
+		this.segmentSize = segmentSize;
+		this.directory = new File(parent, "frontier-"+System.nanoTime());
+		this.head = new ArrayStateQueue<S>();
+		this.segments = new ArrayDeque<File>();
+		this.tail = new ArrayStateQueue<S>();
+		this.size = 0;
+	}
+
+	/**
+	 * Adds a state at the end of the queue. When the segment of most recently added states fills up,
+	 * it is spilled to disk.
+	 * @param state is the state to add.
+	 * @param depth is the depth of the state.
+	 * @throws IllegalStateException if a segment cannot be spilled.
+	 */
+	public void offer(S state, int depth) {
+		if (segments.isEmpty() && tail.isEmpty() && head.size()<segmentSize) {
+			head.offer(state, depth);
+		}
+		else {
+			tail.offer(state, depth);
+			if (tail.size()==segmentSize) spill();
+		}
+		size++;
+	}
+
+	/**
+	 * @return the depth of the state at the head of the queue.
+	 * @throws IllegalStateException if a segment cannot be read back.
+	 */
+	public int peekDepth() {
+		if (head.isEmpty()) refill();
+		if (head.isEmpty()) throw new NoSuchElementException("empty queue");
+		return head.peekDepth();
+	}
+
+	/**
+	 * Removes the state at the head of the queue. When the head kept in memory is exhausted, it is
+	 * refilled with the first spilled segment (or, if there is none, with the most recently added states).
+	 * @return the state at the head of the queue, or null if the queue is empty.
+	 * @throws IllegalStateException if a segment cannot be read back.
+	 */
+	public S poll() {
+		if (head.isEmpty()) refill();
+		S result = head.poll();
+		if (result!=null) size--;
+		return result;
+	}
+
+	/**
+	 * @return the number of states in the queue.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true iff the queue has no states.
+	 */
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+	/**
+	 * @return the number of states kept in memory (the rest are spilled to disk).
+	 */
+	public int inMemory() {
+		return head.size()+tail.size();
+	}
+
+	/**
+	 * Removes all states from the queue, deleting spilled segments.
+	 */
+	public void clear() {
+		head.clear();
+		tail.clear();
+		for (File segment : segments) {
+			segment.delete();
+		}
+		segments.clear();
+		directory.delete();
+		size = 0;
+	}
+
+	/**
+	 * Adds all states in the queue, in queue order, to a checkpoint. Spilled segments are read back
+	 * one at a time, and left on disk.
+	 * @param checkpoint is the checkpoint the states are added to.
+	 * @throws IllegalStateException if a segment cannot be read back.
+	 */
+	public void saveTo(SearchCheckpoint<S> checkpoint) {
+		head.saveTo(checkpoint);
+		for (File segment : segments) {
+			read(segment).saveTo(checkpoint);
+		}
+		tail.saveTo(checkpoint);
+	}
+
+	/**
+	 * Refills the (empty) head of the queue, with the first spilled segment or, if there is
+	 * none, with the most recently added states.
+	 */
+	private void refill() {
+		if (!segments.isEmpty()) {
+			File segment = segments.pollFirst();
+			head = read(segment);
+			segment.delete();
+		}
+		else {
+			ArrayStateQueue<S> empty = head;
+			head = tail;
+			tail = empty;
+		}
+	}
+
+	/**
+	 * Writes the segment of most recently added states to a memory-mapped file.
+	 */
+	private void spill() {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(tail.size());
+			for (int i = 0; i < tail.size(); i++) {
+				out.writeInt(tail.getDepth(i));
+				serializer.write(tail.get(i), out);
+			}
+			out.flush();
+			if (!directory.exists() && !directory.mkdirs()) throw new IOException("couldn't create " + directory);
+			File segment = new File(directory, "segment-"+(spilled++));
+			RandomAccessFile file = new RandomAccessFile(segment, "rw");
+			try {
+				MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, bytes.size());
+				buffer.put(bytes.toByteArray());
+				buffer.force();
+			}
+			finally {
+				file.close();
+			}
+			segments.addLast(segment);
+			tail.clear();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("couldn't spill frontier segment to " + directory, e);
+		}
+	}
+
+	/**
+	 * Reads back a spilled segment, through a memory-mapped file.
+	 */
+	private ArrayStateQueue<S> read(File segment) {
+		try {
+			RandomAccessFile file = new RandomAccessFile(segment, "r");
+			try {
+				MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+				DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer));
+				int count = in.readInt();
+				ArrayStateQueue<S> result = new ArrayStateQueue<S>();
+				for (int i = 0; i < count; i++) {
+					int depth = in.readInt();
+					result.offer(serializer.read(in), depth);
+				}
+				return result;
+			}
+			finally {
+				file.close();
+			}
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("couldn't read frontier segment " + segment, e);
+		}
+	}
+
+	/**
+	 * Input stream reading from a byte buffer.
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		public int read() {
+			return buffer.hasRemaining()?(buffer.get() & 0xFF):-1;
+		}
+
+		public int read(byte[] b, int off, int len) {
+			if (len==0) return 0;
+			if (!buffer.hasRemaining()) return -1;
+			int n = Math.min(len, buffer.remaining());
+			buffer.get(b, off, n);
+			return n;
+		}
+
+	}
+
+}
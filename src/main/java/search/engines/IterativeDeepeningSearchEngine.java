@@ -0,0 +1,234 @@
+package search.engines;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import search.AbstractSearchProblem;
+import search.State;
+
+/**
+ * Title:        IterativeDeepeningSearchEngine<p>
+ * Description:  Class IterativeDeepeningSearchEngine implements an iterative deepening search
+ *               strategy: a bounded depth-first search is run with bounds 0, 1, ..., up to the
+ *               maximum depth, until a successful state is found. As bfs, it finds a shallowest
+ *               successful state, but it only needs memory linear in the depth of the search.
+ *               States shallower than the current bound were already checked for success in
+ *               previous iterations, so only the states lying exactly at the current bound are
+ *               checked for success in each iteration (shallower ones are only expanded).
+ *               It can be used with any instance of AbstractSearchProblem whose successors are
+ *               computed deterministically.<p>
+ * @version 0.1
+ */
+public class IterativeDeepeningSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> {
+
+	/**
+	 * Number of visited states in the search, over all iterations.
+	 */
+	private int visited;
+
+	/**
+	 * Number of states checked for success in the search, over all iterations.
+	 */
+	private int verified;
+
+	/**
+	 * Number of iterations (bounded dfs runs) performed in the search.
+	 */
+	private int iterations;
+
+	/**
+	 * Maximum depth to consider for the search.
+	 */
+	private int maxDepth = 3;
+
+	/**
+	 * Found solution (when search succeeded).
+	 */
+	private S solutionFound;
+
+	/**
+	 * Set when a solution found stops the search.
+	 */
+	private boolean stopped;
+
+	/**
+	 * Stack of opened states of the current iteration; for each opened state, it stores an iterator
+	 * over its successors still to visit, accompanied by their depth.
+	 */
+	private DepthStack<Iterator<S>> opened;
+
+	/**
+	 * Constructor for class IterativeDeepeningSearchEngine.
+	 * @pre. true.
+	 * @post. number of visited states, solution found and stack of states to explore initialised.
+	 */
+	public IterativeDeepeningSearchEngine() {
+		super();
+		visited = 0;
+		verified = 0;
+		solutionFound = null;
+		opened = new DepthStack<Iterator<S>>();
+	}
+
+	/**
+	 * Constructor for class IterativeDeepeningSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @pre. p!=null.
+	 * @post. A reference to p is stored in field problem. Number of visited states,
+	 * solution found and stack of states to explore initialised.
+	 */
+	public IterativeDeepeningSearchEngine(Problem p) {
+		super(p);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		visited = 0;
+		verified = 0;
+		solutionFound = null;
+		opened = new DepthStack<Iterator<S>>();
+	}
+
+	/**
+	 * Constructor for class IterativeDeepeningSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @param maxDepth is the maximum depth to be explored in the search.
+	 * @pre. p!=null.
+	 * @post. A reference to p is stored in field problem. Number of visited states,
+	 * solution found and stack of states to explore initialised.
+	 */
+	public IterativeDeepeningSearchEngine(Problem p, int maxDepth) {
+		super(p);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		if (maxDepth<0) throw new IllegalArgumentException("invalid max depth");
+		visited = 0;
+		verified = 0;
+		this.maxDepth = maxDepth;
+		solutionFound = null;
+		opened = new DepthStack<Iterator<S>>();
+	}
+
+
+
+	/**
+	 * Sets the maximum depth, or bound, for the iterative deepening search
+	 * @param depth is the bound of the last iteration of the search.
+	 */
+	public void setMaxDepth(int depth) {
+		this.maxDepth = depth;
+	}
+
+	/**
+	 * Starts the search for successful states for problem, following an
+	 * iterative deepening strategy.
+	 * @return true iff a successful state is found in depth smaller than the max depth.
+	 * @pre. problem!=null.
+	 * @post. the iterative deepening search is performed, and the result of the search is returned.
+	 */
+	public boolean performSearch() {
+		this.solutionFound = null;
+		if (this.problem==null) throw new IllegalStateException("initiating search on a null problem");
+		// we get the initial state
+		S initialState = problem.initialState();
+		boolean deeperStates = true;
+		stopped = false;
+		iterations = 0;
+		resetVisited();
+		startAccounting();
+		for (int bound = 0; bound<=this.maxDepth && !stopped && deeperStates && !budgetExhausted(); bound++) {
+			// we initialise the stack of opened states, and forget states visited
+			// in the previous iteration (they must be expanded again)
+			opened.clear();
+			if (closed!=null) closed.clear();
+			opened.push(Collections.singletonList(initialState).iterator(), 0);
+			iterations++;
+			int reached = iterativeDepthFirst(bound);
+			// if no state at the current bound was reached, deeper iterations cannot reach new states
+			deeperStates = (reached>0);
+		}
+		opened.clear();
+		finishAccounting();
+		return this.solutionFound!=null;
+	}
+
+	/**
+	 * Method that performs one iteration of the search, a depth-first visit up to
+	 * the provided bound. Only states at depth bound are checked for success. Successors
+	 * of a state are only computed as they are reached (if the problem is able to produce 
+	 * them lazily).
+	 * @param bound is the bound for the current iteration.
+	 * @return the number of states reached at depth bound.
+	 * @pre. bound>=0 && opened!=null && problem!=null
+	 * @post. the bounded dfs is performed, and solutionFound is set iff a successful state is found.
+	 * The visit stops when a solution found stops the search.
+	 */
+	private int iterativeDepthFirst(int bound) {
+		if (opened==null) throw new IllegalStateException("calling iterative dfs on a null stack of opened states");
+		int reached = 0;
+		while (!opened.isEmpty() && !stopped) {
+			// the search stops when its budget runs out
+			if (!withinBudget()) break;
+			Iterator<S> current = opened.peek();
+			if (!current.hasNext()) {
+				// all successors of the state were visited
+				opened.pop();
+				continue;
+			}
+			int currDepth = opened.peekDepth();
+			S currState = current.next();
+			// state is treated, unless it was already visited in this iteration.
+			int seen = lookupVisited(currState, currDepth);
+			if (seen==SEEN) continue;
+			accountVisit(currState, currDepth, currDepth==bound && seen==UNSEEN);
+			visited++;
+			if (currDepth==bound) {
+				// states at the bound are the only ones not checked in previous iterations
+				reached++;
+				if (seen==UNSEEN) {
+					verified++;
+					if (successful(currState)) {
+						this.solutionFound = currState;
+						stopped = solutionReached(currState, currDepth);
+					}
+				}
+			}
+			else if (currDepth==bound-1) {
+				// children at the bound are all going to be checked for success, so they can be
+				// checked together (siblings are only gathered here, to keep memory linear in the bound)
+				opened.push(groupedDepthFirstSuccessorsOf(currState), currDepth+1);
+				frontierSize(opened.size());
+			}
+			else {
+				opened.push(depthFirstSuccessorsOf(currState), currDepth+1);
+				frontierSize(opened.size());
+			}
+		}
+		return reached;
+	}
+
+	/**
+	 * Returns the solution found in the last performed search. If search was unsuccessful, then this
+	 * method should not be called.
+	 * @return the solution found in the last performed search.
+	 */
+	public S getSolution() {
+		if (this.solutionFound==null) throw new IllegalStateException("getSolution() can only be called if search was successful.");
+		return this.solutionFound;
+	}
+
+
+	/**
+	 * Reports information regarding a previously executed search.
+	 * @pre. performSearch() has been executed and finished.
+	 * @post. A report regarding the search is shown as a string.
+	 * This report consists of the number of visited states (over all iterations), the
+	 * number of states checked for success, and the number of iterations performed. When
+	 * the search ran out of budget, it also describes how far the search got.
+	 */
+	public String report() {
+		return("Number of visited states: "+visited+", verified states: "+verified+", iterations: "+iterations+duplicatesReport()+budgetReport());
+
+	}
+
+
+
+}
@@ -0,0 +1,336 @@
+package search.engines;
+
+import java.util.List;
+import java.util.Random;
+
+import search.AbstractSearchProblem;
+import search.Heuristic;
+import search.State;
+
+/**
+ * Title:        MonteCarloSearchEngine<p>
+ * Description:  Class MonteCarloSearchEngine implements a stochastic search strategy: it performs
+ *               random descents from the initial state, each one following a successor chosen at
+ *               random at each level until the depth bound (or a state without successors) is
+ *               reached, and restarts from the initial state after each descent. Every state along
+ *               a descent is checked for success. Optionally, it learns which first-level moves lead
+ *               to promising subtrees, choosing them as in UCT: each descent is rewarded (by the
+ *               scores of its states, when a heuristic is provided, or by how deep it got) and the
+ *               first move of the next descent balances the mean reward of each move against how
+ *               rarely it was tried. On large state spaces, where exhaustive bounded search is
+ *               hopeless, sampling reaches deep successful states much sooner. Descents follow a
+ *               seeded random generator, so searches can be reproduced. It can be used with any
+ *               instance of AbstractSearchProblem.<p>
+ * @version 0.1
+ */
+public class MonteCarloSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> {
+
+	/**
+	 * Default exploration constant of UCT.
+	 */
+	public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+	/**
+	 * Number of visited states in the search
+	 */
+	private int visited;
+
+	/**
+	 * Maximum depth to consider for the search.
+	 */
+	private int bound = 3;
+
+	/**
+	 * Max number of descents in a search (0 for descending until the budget runs out).
+	 */
+	private int maxDescents = 1000;
+
+	/**
+	 * Number of descents performed in the last search.
+	 */
+	private int descents;
+
+	/**
+	 * Seed of the random generator, set at the beginning of each search.
+	 */
+	private long seed;
+
+	/**
+	 * Random generator choosing the successors followed by descents.
+	 */
+	private Random random;
+
+	/**
+	 * Whether the first move of each descent is chosen as in UCT (instead of at random).
+	 */
+	private boolean learning = false;
+
+	/**
+	 * Exploration constant of UCT: the higher, the more often rarely tried first moves are chosen.
+	 */
+	private double exploration = DEFAULT_EXPLORATION;
+
+	/**
+	 * Heuristic used to reward descents (null for rewarding them by how deep they got).
+	 */
+	private Heuristic<S> heuristic;
+
+	/**
+	 * Found solution (when search succeeded).
+	 */
+	private S solutionFound;
+
+	/**
+	 * Set when a solution found stops the search.
+	 */
+	private boolean stopped;
+
+	/**
+	 * Constructor for class MonteCarloSearchEngine.
+	 * @param seed is the seed of the random generator guiding descents.
+	 * @pre. true.
+	 * @post. number of visited states and solution found initialised.
+	 */
+	public MonteCarloSearchEngine(long seed) {
+		super();
+		this.seed = seed;
+		visited = 0;
+		solutionFound = null;
+	}
+
+	/**
+	 * Constructor for class MonteCarloSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @param maxDepth is the maximum depth reached by descents.
+	 * @param maxDescents is the max number of descents in a search (0 for descending until the budget runs out).
+	 * @param seed is the seed of the random generator guiding descents.
+	 * @pre. p!=null.
+	 * @post. A reference to p is stored in field problem. Number of visited states
+	 * and solution found initialised.
+	 */
+	public MonteCarloSearchEngine(Problem p, int maxDepth, int maxDescents, long seed) {
+		super(p);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		if (maxDepth<0) throw new IllegalArgumentException("invalid max depth");
+		if (maxDescents<0) throw new IllegalArgumentException("invalid max number of descents");
+		bound = maxDepth;
+		this.maxDescents = maxDescents;
+		this.seed = seed;
+		visited = 0;
+		solutionFound = null;
+	}
+
+
+
+	/**
+	 * Sets the maximum depth, or bound, reached by descents.
+	 * @param depth is new depth to be used for the search.
+	 */
+	public void setMaxDepth(int depth) {
+		this.bound = depth;
+	}
+
+	/**
+	 * Sets the max number of descents in a search.
+	 * @param maxDescents is the max number of descents (0 for descending until the budget runs out).
+	 */
+	public void setMaxDescents(int maxDescents) {
+		if (maxDescents<0) throw new IllegalArgumentException("invalid max number of descents");
+		this.maxDescents = maxDescents;
+	}
+
+	/**
+	 * Sets the seed of the random generator guiding descents. Searches with the same seed (on
+	 * the same problem) follow the same descents.
+	 * @param seed is the new seed.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Enables learning of promising first-level moves, choosing the first move of each descent
+	 * as in UCT. Descents are rewarded by how deep they got.
+	 * @param exploration is the exploration constant of UCT (e.g., DEFAULT_EXPLORATION).
+	 */
+	public void setFirstMoveLearning(double exploration) {
+		if (exploration<0) throw new IllegalArgumentException("invalid exploration constant");
+		this.learning = true;
+		this.exploration = exploration;
+		this.heuristic = null;
+	}
+
+	/**
+	 * Enables learning of promising first-level moves, choosing the first move of each descent
+	 * as in UCT. Descents are rewarded by the best score of their states.
+	 * @param exploration is the exploration constant of UCT (e.g., DEFAULT_EXPLORATION).
+	 * @param heuristic is the heuristic used to score the states of descents.
+	 */
+	public void setFirstMoveLearning(double exploration, Heuristic<S> heuristic) {
+		if (heuristic==null) throw new IllegalArgumentException("null heuristic");
+		setFirstMoveLearning(exploration);
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Disables learning of promising first-level moves (the default): first moves are chosen at random.
+	 */
+	public void disableFirstMoveLearning() {
+		this.learning = false;
+		this.heuristic = null;
+	}
+
+	/**
+	 * Starts the search for successful states for problem, performing random descents
+	 * from its initial state.
+	 * @return true iff a successful state is found in depth smaller than bound.
+	 * @pre. problem!=null.
+	 * @post. the descents are performed, until a solution found stops the search, the max number
+	 * of descents is reached or the budget runs out, and the result of the search is returned.
+	 */
+	public boolean performSearch() {
+		this.solutionFound = null;
+		if (this.problem==null) throw new IllegalStateException("initiating search on a null problem");
+		if (maxDescents==0 && budget==null) throw new IllegalStateException("descending without limit requires a budget");
+		random = new Random(seed);
+		visited = 0;
+		descents = 0;
+		stopped = false;
+		resetVisited();
+		startAccounting();
+		// we get the initial state, which is only treated once
+		S initialState = problem.initialState();
+		if (treat(initialState, 0) && bound>0) {
+			List<S> firstMoves = successorsListOf(initialState);
+			int[] tries = new int[firstMoves.size()];
+			double[] rewards = new double[firstMoves.size()];
+			while (!stopped && !firstMoves.isEmpty() && (maxDescents==0 || descents<maxDescents)) {
+				// the search stops when its budget runs out
+				if (!withinBudget()) break;
+				int move = learning?mostPromising(tries, rewards):random.nextInt(firstMoves.size());
+				double reward = descend(firstMoves.get(move));
+				tries[move]++;
+				rewards[move] += reward;
+				descents++;
+			}
+		}
+		finishAccounting();
+		return this.solutionFound!=null;
+	}
+
+	/**
+	 * Performs a random descent from a first-level state down to the bound (or to a state
+	 * without successors), treating each state along the way.
+	 * @param first is the first-level state the descent starts from.
+	 * @return the reward of the descent, between 0 and 1.
+	 */
+	private double descend(S first) {
+		double reward = 0;
+		S currState = first;
+		int currDepth = 1;
+		while (true) {
+			if (!treat(currState, currDepth)) break;
+			reward = Math.max(reward, reward(currState, currDepth));
+			if (currDepth==bound) break;
+			List<S> successors = successorsListOf(currState);
+			if (successors.isEmpty()) break;
+			currState = successors.get(random.nextInt(successors.size()));
+			currDepth++;
+		}
+		return reward;
+	}
+
+	/**
+	 * Treats a state reached by a descent: the state is checked for success, unless it was
+	 * already visited (when duplicate detection is enabled).
+	 * @return true iff the descent can go on (a solution did not stop the search, and the budget
+	 * did not run out).
+	 */
+	private boolean treat(S currState, int currDepth) {
+		if (!withinBudget()) return false;
+		// descents go through visited states, but they are not checked again
+		int seen = lookupVisited(currState, currDepth);
+		accountVisit(currDepth, seen==UNSEEN);
+		visited++;
+		if (seen==UNSEEN && successful(currState)) {
+			this.solutionFound = currState;
+			stopped = solutionReached(currState, currDepth);
+		}
+		return !stopped;
+	}
+
+	/**
+	 * Rewards a state reached by a descent: by its score, when a heuristic is provided, or by
+	 * its depth.
+	 */
+	private double reward(S s, int depth) {
+		if (heuristic==null) return ((double) depth)/bound;
+		double score = heuristic.score(s, depth);
+		return (score<=0)?1:1/(1+score);
+	}
+
+	/**
+	 * Chooses the first move of the next descent as in UCT: moves not tried yet are chosen first;
+	 * then, the one maximising its mean reward plus its exploration bonus.
+	 */
+	private int mostPromising(int[] tries, double[] rewards) {
+		int total = 0;
+		int untried = 0;
+		for (int i = 0; i < tries.length; i++) {
+			total += tries[i];
+			if (tries[i]==0) untried++;
+		}
+		if (untried>0) {
+			// an untried move is chosen at random
+			int chosen = random.nextInt(untried);
+			for (int i = 0; i < tries.length; i++) {
+				if (tries[i]==0 && chosen--==0) return i;
+			}
+		}
+		int best = 0;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < tries.length; i++) {
+			double value = rewards[i]/tries[i]+exploration*Math.sqrt(Math.log(total)/tries[i]);
+			if (value>bestValue) {
+				best = i;
+				bestValue = value;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return the number of descents performed in the last search.
+	 */
+	public int getDescents() {
+		return descents;
+	}
+
+	/**
+	 * Returns the solution found in the last performed search. If search was unsuccessful, then this
+	 * method should not be called.
+	 * @return the solution found in the last performed search.
+	 */
+	public S getSolution() {
+		if (this.solutionFound==null) throw new IllegalStateException("getSolution() can only be called if search was successful.");
+		return this.solutionFound;
+	}
+
+
+	/**
+	 * Reports information regarding a previously executed search.
+	 * @pre. performSearch() has been executed and finished.
+	 * @post. A report regarding the search is shown as a string.
+	 * This report consists of the number of visited states and descents and, when duplicate
+	 * detection is enabled, the number of duplicated states skipped. When the search
+	 * ran out of budget, it also describes how far the search got.
+	 */
+	public String report() {
+		return("Number of visited states: "+visited+", descents: "+descents+duplicatesReport()+budgetReport());
+
+	}
+
+
+
+}
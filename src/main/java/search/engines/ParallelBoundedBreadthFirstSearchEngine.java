@@ -0,0 +1,281 @@
+package search.engines;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import search.AbstractSearchProblem;
+import search.State;
+
+/**
+ * Title:        ParallelBoundedBreadthFirstSearchEngine<p>
+ * Description:  Class ParallelBoundedBreadthFirstSearchEngine implements a level-synchronous
+ *               Bounded Breadth-first search strategy. All states of a depth level are checked
+ *               for success (and expanded) concurrently on a fork/join pool, and the next level
+ *               is only started once the current one is finished, so a shallowest solution is
+ *               always the one returned. It can be used with any instance of AbstractSearchProblem
+ *               whose success and getSuccessors routines can be safely called concurrently (problems
+ *               serialising these routines, e.g., behind a lock, get no speedup from the workers).<p>
+ * @version 0.1
+ */
+public class ParallelBoundedBreadthFirstSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> {
+
+	/**
+	 * Number of visited states in the search
+	 */
+	private AtomicInteger visited;
+
+	/**
+	 * Maximum depth to consider for the search.
+	 */
+	private int bound = 3;
+
+	/**
+	 * Number of worker threads used to treat each level.
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Found solution (when search succeeded). The first worker finding a solution sets it,
+	 * and all other workers stop as soon as they observe it.
+	 */
+	private AtomicReference<S> solutionFound;
+
+	/**
+	 * Set when a solution found stops the search; all workers stop as soon as they observe it.
+	 */
+	private AtomicBoolean stop = new AtomicBoolean(false);
+
+	/**
+	 * Lock guarding the table of visited states, shared by all workers.
+	 */
+	private final Object visitedLock = new Object();
+
+	/**
+	 * States of the level currently being treated.
+	 */
+	private List<S> level;
+
+	/**
+	 * Constructor for class ParallelBoundedBreadthFirstSearchEngine.
+	 * @pre. true.
+	 * @post. number of visited states, solution found and level of states to explore initialised.
+	 */
+	public ParallelBoundedBreadthFirstSearchEngine() {
+		super();
+		visited = new AtomicInteger(0);
+		solutionFound = new AtomicReference<S>(null);
+		level = new ArrayList<S>();
+	}
+
+	/**
+	 * Constructor for class ParallelBoundedBreadthFirstSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @pre. p!=null.
+	 * @post. A reference to p is stored in field problem. Number of visited states,
+	 * solution found and level of states to explore initialised.
+	 */
+	public ParallelBoundedBreadthFirstSearchEngine(Problem p) {
+		super(p);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		visited = new AtomicInteger(0);
+		solutionFound = new AtomicReference<S>(null);
+		level = new ArrayList<S>();
+	}
+
+	/**
+	 * Constructor for class ParallelBoundedBreadthFirstSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @param maxDepth is the maximum depth to be explored in the bounded bfs.
+	 * @param parallelism is the number of worker threads to use.
+	 * @pre. p!=null.
+	 * @post. A reference to p is stored in field problem. Number of visited states,
+	 * solution found and level of states to explore initialised.
+	 */
+	public ParallelBoundedBreadthFirstSearchEngine(Problem p, int maxDepth, int parallelism) {
+		super(p);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		if (maxDepth<0) throw new IllegalArgumentException("invalid max depth");
+		if (parallelism<=0) throw new IllegalArgumentException("invalid parallelism");
+		visited = new AtomicInteger(0);
+		bound = maxDepth;
+		this.parallelism = parallelism;
+		solutionFound = new AtomicReference<S>(null);
+		level = new ArrayList<S>();
+	}
+
+
+
+	/**
+	 * Sets the maximum depth, or bound, for the bounded breadth first search
+	 * @param depth is new depth to be used for bounded BFS.
+	 */
+	public void setMaxDepth(int depth) {
+		this.bound = depth;
+	}
+
+	/**
+	 * Sets the number of worker threads used to treat each level of the search.
+	 * @param parallelism is the number of workers to use.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism<=0) throw new IllegalArgumentException("invalid parallelism");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Starts the search for successful states for problem, following a
+	 * level-synchronous bounded breadth-first strategy.
+	 * @return true iff a successful state is found in depth smaller than bound.
+	 * @pre. problem!=null.
+	 * @post. the bounded bfs search is performed, and the result of the search is returned.
+	 */
+	public boolean performSearch() {
+		this.solutionFound.set(null);
+		if (this.problem==null) throw new IllegalStateException("initiating search on a null problem");
+		// we get the initial state
+		S initialState = problem.initialState();
+		// we initialise the first level with the initial state
+		level.clear();
+		level.add(initialState);
+		stop.set(false);
+		resetVisited();
+		startAccounting();
+		// we initiate the search
+		ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+		try {
+			return levelBreadthFirst(pool);
+		}
+		finally {
+			pool.shutdownNow();
+			finishAccounting();
+		}
+	}
+
+	/**
+	 * Method that performs the search implementing a breadth-first visit,
+	 * level by level. Each level is treated in parallel in the provided pool.
+	 * @param pool is the pool used to treat the states of each level.
+	 * @return true iff a successful state is found within provided bounds.
+	 * @pre. bound>=0 && level!=null && problem!=null
+	 * @post. the bounded bfs is performed, and true is returned iff a successful state is found.
+	 */
+	private boolean levelBreadthFirst(ForkJoinPool pool) {
+		if (level==null) throw new IllegalStateException("calling level bfs on a null level of opened states");
+		int currDepth = 0;
+		while (!level.isEmpty() && currDepth<=this.bound && !stop.get() && !budgetExhausted()) {
+			// children of each state of the level are stored by position, so that the
+			// next level keeps the same order a sequential bfs would produce.
+			List<List<S>> children = new ArrayList<List<S>>(Collections.<List<S>>nCopies(level.size(), null));
+			pool.invoke(new LevelTask(level, children, currDepth, 0, level.size()));
+			List<S> nextLevel = new ArrayList<S>();
+			for (List<S> c : children) {
+				if (c!=null) nextLevel.addAll(c);
+			}
+			level = nextLevel;
+			frontierSize(level.size());
+			currDepth++;
+		}
+		level.clear();
+		return solutionFound.get()!=null;
+	}
+
+	/**
+	 * Fork/join task treating a range of states of a level: each state in the range is
+	 * checked for success and, if it is not a solution and is not at the last level to treat,
+	 * its successors are computed. Workers stop treating states as soon as a solution stops the search.
+	 */
+	private class LevelTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<S> states;
+		private final List<List<S>> children;
+		private final int depth;
+		private final int from;
+		private final int to;
+
+		LevelTask(List<S> states, List<List<S>> children, int depth, int from, int to) {
+			this.states = states;
+			this.children = children;
+			this.depth = depth;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (stop.get() || budgetExhausted()) return;
+			if (to-from==1) {
+				treat(from);
+			}
+			else {
+				int middle = (from+to)>>>1;
+				invokeAll(new LevelTask(states, children, depth, from, middle),
+						new LevelTask(states, children, depth, middle, to));
+			}
+		}
+
+		private void treat(int index) {
+			// workers stop when the budget of the search runs out
+			if (!withinBudget()) return;
+			S currState = states.get(index);
+			// states already visited are skipped
+			int seen;
+			synchronized (visitedLock) {
+				seen = lookupVisited(currState, depth);
+			}
+			if (seen==SEEN) return;
+			accountVisit(depth, seen==UNSEEN);
+			visited.incrementAndGet();
+			if (seen==UNSEEN && successful(currState)) {
+				// the solution kept is the last one reached, as in the sequential engines
+				synchronized (ParallelBoundedBreadthFirstSearchEngine.this) {
+					solutionFound.set(currState);
+					if (solutionReached(currState, depth)) stop.set(true);
+				}
+			}
+			// we only compute children of curr if curr is not at the
+			// last level to treat, and the search was not stopped
+			if (depth<bound && !stop.get()) {
+				children.set(index, successorsListOf(currState));
+			}
+		}
+
+	}
+
+	/**
+	 * Returns the solution found in the last performed search. If search was unsuccessful, then this
+	 * method should not be called. When solutions are enumerated, it is the last one handed over to
+	 * the solution handler, as in the sequential engines.
+	 * @return the solution found in the last performed search.
+	 */
+	public S getSolution() {
+		if (this.solutionFound.get()==null) throw new IllegalStateException("getSolution() can only be called if search was successful.");
+		return this.solutionFound.get();
+	}
+
+
+	/**
+	 * Reports information regarding a previously executed search.
+	 * @pre. performSearch() has been executed and finished.
+	 * @post. A report regarding the search is shown as a string.
+	 * This report consists of the number of visited states and, when duplicate
+	 * detection is enabled, the number of duplicated states skipped. When the search
+	 * ran out of budget, it also describes how far the search got.
+	 */
+	public String report() {
+		return("Number of visited states: "+visited.get()+duplicatesReport()+budgetReport());
+
+	}
+
+
+
+}
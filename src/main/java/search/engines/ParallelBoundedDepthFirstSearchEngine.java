@@ -0,0 +1,328 @@
+package search.engines;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import search.AbstractSearchProblem;
+import search.State;
+
+/**
+ * Title:        ParallelBoundedDepthFirstSearchEngine<p>
+ * Description:  Class ParallelBoundedDepthFirstSearchEngine implements a bounded depth-first search
+ *               strategy with several workers. Each worker keeps its own deque of opened states,
+ *               which it treats depth-first (last in, first out); a worker running out of states
+ *               steals the shallowest opened state of another worker. All workers are cooperatively
+ *               stopped as soon as one of them finds a successful state. It can be used with any
+ *               instance of AbstractSearchProblem whose success and getSuccessors routines can be
+ *               safely called concurrently (problems serialising these routines, e.g., behind a lock,
+ *               get no speedup from the workers).<p>
+ * @version 0.1
+ */
+public class ParallelBoundedDepthFirstSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> {
+
+	/**
+	 * Time (in nanoseconds) an idle worker waits before trying to steal again.
+	 */
+	private static final long IDLE_WAIT = 100000L;
+
+	/**
+	 * Number of visited states in the search
+	 */
+	private AtomicInteger visited;
+
+	/**
+	 * Maximum depth to consider for the search.
+	 */
+	private int bound = 3;
+
+	/**
+	 * Number of workers used for the search.
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Found solution (when search succeeded).
+	 */
+	private AtomicReference<S> solutionFound;
+
+	/**
+	 * Deques of opened states, one per worker; each state is accompanied by its depth.
+	 * The owner of a deque pushes and pops at its tail, thieves steal from its head.
+	 */
+	private List<ConcurrentLinkedDeque<Pair<S, Integer>>> opened;
+
+	/**
+	 * Number of opened states not yet completely treated (pushed and not popped, or
+	 * popped and still being treated). The search is over when it reaches zero.
+	 */
+	private AtomicInteger pending;
+
+	/**
+	 * Set when workers must stop (a solution was found, or a worker failed).
+	 */
+	private AtomicBoolean stop;
+
+	/**
+	 * Lock guarding the table of visited states, shared by all workers.
+	 */
+	private final Object visitedLock = new Object();
+
+	/**
+	 * Constructor for class ParallelBoundedDepthFirstSearchEngine.
+	 * @pre. true.
+	 * @post. number of visited states and solution found initialised.
+	 */
+	public ParallelBoundedDepthFirstSearchEngine() {
+		super();
+		visited = new AtomicInteger(0);
+		solutionFound = new AtomicReference<S>(null);
+	}
+
+	/**
+	 * Constructor for class ParallelBoundedDepthFirstSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @pre. p!=null.
+	 * @post. A reference to p is stored in field problem. Number of visited states
+	 * and solution found initialised.
+	 */
+	public ParallelBoundedDepthFirstSearchEngine(Problem p) {
+		super(p);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		visited = new AtomicInteger(0);
+		solutionFound = new AtomicReference<S>(null);
+	}
+
+	/**
+	 * Constructor for class ParallelBoundedDepthFirstSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @param maxDepth is the maximum depth to be explored in the bounded dfs.
+	 * @param parallelism is the number of workers to use.
+	 * @pre. p!=null.
+	 * @post. A reference to p is stored in field problem. Number of visited states
+	 * and solution found initialised.
+	 */
+	public ParallelBoundedDepthFirstSearchEngine(Problem p, int maxDepth, int parallelism) {
+		super(p);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		if (maxDepth<0) throw new IllegalArgumentException("invalid max depth");
+		if (parallelism<=0) throw new IllegalArgumentException("invalid parallelism");
+		visited = new AtomicInteger(0);
+		bound = maxDepth;
+		this.parallelism = parallelism;
+		solutionFound = new AtomicReference<S>(null);
+	}
+
+
+
+	/**
+	 * Sets the maximum depth, or bound, for the bounded depth first search
+	 * @param depth is new depth to be used for bounded DFS.
+	 */
+	public void setMaxDepth(int depth) {
+		this.bound = depth;
+	}
+
+	/**
+	 * Sets the number of workers used for the search.
+	 * @param parallelism is the number of workers to use.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism<=0) throw new IllegalArgumentException("invalid parallelism");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Starts the search for successful states for problem, following a
+	 * bounded depth-first strategy with work stealing among workers.
+	 * @return true iff a successful state is found in depth smaller than bound.
+	 * @pre. problem!=null.
+	 * @post. the bounded dfs search is performed, and the result of the search is returned.
+	 */
+	public boolean performSearch() {
+		this.solutionFound.set(null);
+		if (this.problem==null) throw new IllegalStateException("initiating search on a null problem");
+		// we get the initial state
+		S initialState = problem.initialState();
+		// we initialise the deques of opened states; the initial state goes to the first worker
+		opened = new ArrayList<ConcurrentLinkedDeque<Pair<S, Integer>>>(this.parallelism);
+		for (int i = 0; i < this.parallelism; i++) {
+			opened.add(new ConcurrentLinkedDeque<Pair<S, Integer>>());
+		}
+		pending = new AtomicInteger(1);
+		stop = new AtomicBoolean(false);
+		resetVisited();
+		startAccounting();
+		opened.get(0).addLast(new ImmutablePair<S,Integer>(initialState, 0));
+		// we initiate the search
+		ExecutorService workers = Executors.newFixedThreadPool(this.parallelism);
+		try {
+			List<Future<?>> results = new ArrayList<Future<?>>(this.parallelism);
+			for (int i = 0; i < this.parallelism; i++) {
+				results.add(workers.submit(new Worker(i)));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		}
+		catch (InterruptedException e) {
+			stop.set(true);
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			stop.set(true);
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new IllegalStateException("search worker failed", e.getCause());
+		}
+		finally {
+			workers.shutdownNow();
+			try {
+				workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			opened = null;
+			finishAccounting();
+		}
+		return solutionFound.get()!=null;
+	}
+
+	/**
+	 * A search worker. It treats states from its own deque depth-first, and steals
+	 * the shallowest states of other workers when its deque is empty.
+	 */
+	private class Worker implements Runnable {
+
+		private final int id;
+
+		Worker(int id) {
+			this.id = id;
+		}
+
+		public void run() {
+			try {
+				ConcurrentLinkedDeque<Pair<S, Integer>> own = opened.get(id);
+				while (!stop.get()) {
+					// workers stop when the budget of the search runs out
+					if (!withinBudget()) {
+						stop.set(true);
+						return;
+					}
+					Pair<S, Integer> current = own.pollLast();
+					if (current==null) current = steal();
+					if (current==null) {
+						if (pending.get()==0) return;
+						LockSupport.parkNanos(IDLE_WAIT);
+						continue;
+					}
+					try {
+						treat(current, own);
+					}
+					finally {
+						pending.decrementAndGet();
+					}
+				}
+			}
+			catch (RuntimeException e) {
+				stop.set(true);
+				throw e;
+			}
+			catch (Error e) {
+				stop.set(true);
+				throw e;
+			}
+		}
+
+		/**
+		 * Treats an opened state: it is checked for success and, unless a solution stopped the
+		 * search, if it lies within the bound its successors are pushed onto the worker's own deque.
+		 */
+		private void treat(Pair<S, Integer> current, ConcurrentLinkedDeque<Pair<S, Integer>> own) {
+			S currState = current.getLeft();
+			int currDepth = current.getRight();
+			if (currDepth<=bound) {
+				// state is within bounds. It must be treated, unless it was already visited.
+				int seen;
+				synchronized (visitedLock) {
+					seen = lookupVisited(currState, currDepth);
+				}
+				if (seen==SEEN) return;
+				accountVisit(currDepth, seen==UNSEEN);
+				visited.incrementAndGet();
+				if (seen==UNSEEN && successful(currState)) {
+					// the solution kept is the last one reached, as in the sequential engines
+					synchronized (ParallelBoundedDepthFirstSearchEngine.this) {
+						solutionFound.set(currState);
+						if (solutionReached(currState, currDepth)) stop.set(true);
+					}
+				}
+				// we only push children of curr if curr is not at the
+				// last level to treat, and the search was not stopped
+				if (currDepth<bound && !stop.get()) {
+					for (S s: successorsListOf(currState)) {
+						pending.incrementAndGet();
+						own.addLast(new ImmutablePair<S, Integer>(s, currDepth+1));
+					}
+					frontierSize(pending.get());
+				}
+			}
+		}
+
+		/**
+		 * Steals the shallowest opened state (the head of the deque) of some other worker.
+		 * @return the stolen state, or null if no other worker has opened states.
+		 */
+		private Pair<S, Integer> steal() {
+			for (int i = 1; i < opened.size(); i++) {
+				Pair<S, Integer> stolen = opened.get((id+i)%opened.size()).pollFirst();
+				if (stolen!=null) return stolen;
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * Returns the solution found in the last performed search. If search was unsuccessful, then this
+	 * method should not be called. When solutions are enumerated, it is the last one handed over to
+	 * the solution handler, as in the sequential engines.
+	 * @return the solution found in the last performed search.
+	 */
+	public S getSolution() {
+		if (this.solutionFound.get()==null) throw new IllegalStateException("getSolution() can only be called if search was successful.");
+		return this.solutionFound.get();
+	}
+
+
+	/**
+	 * Reports information regarding a previously executed search.
+	 * @pre. performSearch() has been executed and finished.
+	 * @post. A report regarding the search is shown as a string.
+	 * This report consists of the number of visited states and, when duplicate
+	 * detection is enabled, the number of duplicated states skipped. When the search
+	 * ran out of budget, it also describes how far the search got.
+	 */
+	public String report() {
+		return("Number of visited states: "+visited.get()+duplicatesReport()+budgetReport());
+
+	}
+
+
+
+}
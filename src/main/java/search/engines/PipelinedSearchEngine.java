@@ -0,0 +1,352 @@
+package search.engines;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import search.AbstractSearchProblem;
+import search.State;
+
+/**
+ * Title:        PipelinedSearchEngine<p>
+ * Description:  Class PipelinedSearchEngine implements a bounded search strategy in which the
+ *               generation of successors and the checks for success run as separate pipeline
+ *               stages, in threads of their own: a generator expands states, feeding their
+ *               successors into a bounded queue, from which verifiers take them to check them
+ *               for success, feeding back the ones to expand. So, generating successors overlaps
+ *               with checking other states for success. When the queue of generated states is
+ *               full, the generator waits for the verifiers (i.e., it runs ahead of them by at most
+ *               the capacity of the queue). States are expanded in the order they are verified,
+ *               roughly breadth-first, so the solution found is not necessarily a shallowest one.
+ *               It can be used with any instance of AbstractSearchProblem whose success routine
+ *               can be called concurrently with getSuccessors (and with itself, when there are
+ *               several verifiers). States are checked for success one at a time, also for
+ *               problems able to check them in batches.<p>
+ * @version 0.1
+ */
+public class PipelinedSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> {
+
+	/**
+	 * Time, in milliseconds, stages wait on an empty (or full) queue before checking whether the search is over.
+	 */
+	private static final long POLL_INTERVAL = 10;
+
+	/**
+	 * Number of visited states in the search
+	 */
+	private AtomicInteger visited;
+
+	/**
+	 * Maximum depth to consider for the search.
+	 */
+	private int bound = 3;
+
+	/**
+	 * Number of verifier threads.
+	 */
+	private int verifiers = 1;
+
+	/**
+	 * Max number of generated states waiting to be checked for success.
+	 */
+	private int capacity = 64;
+
+	/**
+	 * Found solution (when search succeeded). The first verifier finding a solution sets it.
+	 */
+	private AtomicReference<S> solutionFound;
+
+	/**
+	 * Set when the search must stop (a solution found stopped it, or a stage failed); all
+	 * stages stop as soon as they observe it.
+	 */
+	private volatile boolean stop;
+
+	/**
+	 * Lock guarding the table of visited states, shared by all verifiers.
+	 */
+	private final Object visitedLock = new Object();
+
+	/**
+	 * Generated states waiting to be checked for success (bounded, to apply backpressure on the generator).
+	 */
+	private BlockingQueue<Opened<S>> generated;
+
+	/**
+	 * Checked states waiting to be expanded.
+	 */
+	private BlockingQueue<Opened<S>> verified;
+
+	/**
+	 * Number of states in the pipeline: queued, being checked or being expanded. The search is
+	 * over when none is left.
+	 */
+	private AtomicInteger pending;
+
+	/**
+	 * Constructor for class PipelinedSearchEngine.
+	 * @pre. true.
+	 * @post. number of visited states and solution found initialised.
+	 */
+	public PipelinedSearchEngine() {
+		super();
+		visited = new AtomicInteger(0);
+		solutionFound = new AtomicReference<S>(null);
+	}
+
+	/**
+	 * Constructor for class PipelinedSearchEngine.
+	 * @param p is the search problem associated with the engine
+	 * being created.
+	 * @param maxDepth is the maximum depth to be explored in the search.
+	 * @param verifiers is the number of verifier threads.
+	 * @param capacity is the max number of generated states waiting to be checked for success.
+	 * @pre. p!=null.
+	 * @post. A reference to p is stored in field problem. Number of visited states
+	 * and solution found initialised.
+	 */
+	public PipelinedSearchEngine(Problem p, int maxDepth, int verifiers, int capacity) {
+		super(p);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		if (maxDepth<0) throw new IllegalArgumentException("invalid max depth");
+		if (verifiers<=0) throw new IllegalArgumentException("invalid number of verifiers");
+		if (capacity<=0) throw new IllegalArgumentException("invalid queue capacity");
+		bound = maxDepth;
+		this.verifiers = verifiers;
+		this.capacity = capacity;
+		visited = new AtomicInteger(0);
+		solutionFound = new AtomicReference<S>(null);
+	}
+
+
+
+	/**
+	 * Sets the maximum depth, or bound, for the search
+	 * @param depth is new depth to be used for the search.
+	 */
+	public void setMaxDepth(int depth) {
+		this.bound = depth;
+	}
+
+	/**
+	 * Sets the number of verifier threads, checking states for success concurrently.
+	 * @param verifiers is the number of verifiers to use.
+	 */
+	public void setVerifiers(int verifiers) {
+		if (verifiers<=0) throw new IllegalArgumentException("invalid number of verifiers");
+		this.verifiers = verifiers;
+	}
+
+	/**
+	 * Sets the max number of generated states waiting to be checked for success; once reached,
+	 * the generator waits for the verifiers.
+	 * @param capacity is the capacity of the queue of generated states.
+	 */
+	public void setCapacity(int capacity) {
+		if (capacity<=0) throw new IllegalArgumentException("invalid queue capacity");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Starts the search for successful states for problem, running the generation of successors
+	 * and the checks for success as pipeline stages.
+	 * @return true iff a successful state is found in depth smaller than bound.
+	 * @pre. problem!=null.
+	 * @post. the pipelined search is performed, and the result of the search is returned.
+	 */
+	public boolean performSearch() {
+		this.solutionFound.set(null);
+		if (this.problem==null) throw new IllegalStateException("initiating search on a null problem");
+		visited.set(0);
+		stop = false;
+		resetVisited();
+		startAccounting();
+		// we initialise the pipeline with the initial state, to be checked
+		generated = new ArrayBlockingQueue<Opened<S>>(capacity);
+		verified = new LinkedBlockingQueue<Opened<S>>();
+		pending = new AtomicInteger(1);
+		generated.add(new Opened<S>(problem.initialState(), 0));
+		ExecutorService stages = Executors.newFixedThreadPool(verifiers+1);
+		try {
+			List<Future<?>> results = new ArrayList<Future<?>>(verifiers+1);
+			results.add(stages.submit(new Generator()));
+			for (int i = 0; i < verifiers; i++) {
+				results.add(stages.submit(new Verifier()));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		}
+		catch (InterruptedException e) {
+			stop = true;
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			stop = true;
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new IllegalStateException("search stage failed", e.getCause());
+		}
+		finally {
+			stages.shutdownNow();
+			try {
+				stages.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			generated.clear();
+			verified.clear();
+			finishAccounting();
+		}
+		return solutionFound.get()!=null;
+	}
+
+	/**
+	 * @return true iff the stages must stop: a solution stopped the search, no state is left in
+	 * the pipeline, or the budget ran out.
+	 */
+	private boolean over() {
+		return stop || pending.get()==0 || !withinBudget();
+	}
+
+	/**
+	 * Generator stage: expands checked states, feeding their successors to the verifiers. It
+	 * waits when the queue of generated states is full.
+	 */
+	private class Generator implements Runnable {
+
+		public void run() {
+			boolean completed = false;
+			try {
+				while (!over()) {
+					Opened<S> curr = verified.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+					if (curr==null) continue;
+					Iterator<S> successors = successorsOf(curr.state);
+					while (!stop && successors.hasNext()) {
+						Opened<S> next = new Opened<S>(successors.next(), curr.depth+1);
+						pending.incrementAndGet();
+						while (!generated.offer(next, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+							if (over()) return;
+						}
+					}
+					frontierSize(generated.size()+verified.size());
+					pending.decrementAndGet();
+				}
+				completed = true;
+			}
+			catch (InterruptedException e) {
+				completed = true;
+			}
+			finally {
+				// a failing stage stops the others
+				if (!completed) stop = true;
+			}
+		}
+
+	}
+
+	/**
+	 * Verifier stage: checks generated states for success, feeding the ones to expand back to the
+	 * generator. States already visited are skipped.
+	 */
+	private class Verifier implements Runnable {
+
+		public void run() {
+			boolean completed = false;
+			try {
+				while (!over()) {
+					Opened<S> curr = generated.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+					if (curr==null) continue;
+					if (treat(curr)) verified.add(curr);
+					else pending.decrementAndGet();
+				}
+				completed = true;
+			}
+			catch (InterruptedException e) {
+				completed = true;
+			}
+			finally {
+				// a failing stage stops the others
+				if (!completed) stop = true;
+			}
+		}
+
+		/**
+		 * Checks a state for success, unless it was already visited.
+		 * @return true iff the state must be expanded.
+		 */
+		private boolean treat(Opened<S> curr) {
+			int seen;
+			synchronized (visitedLock) {
+				seen = lookupVisited(curr.state, curr.depth);
+			}
+			if (seen==SEEN) return false;
+			accountVisit(curr.depth, seen==UNSEEN);
+			visited.incrementAndGet();
+			if (seen==UNSEEN && successful(curr.state)) {
+				// the solution kept is the last one reached, as in the sequential engines
+				synchronized (PipelinedSearchEngine.this) {
+					solutionFound.set(curr.state);
+					if (solutionReached(curr.state, curr.depth)) stop = true;
+				}
+			}
+			// we only expand states not at the last level to treat
+			return !stop && curr.depth<bound;
+		}
+
+	}
+
+	/**
+	 * A state in the pipeline, with its depth.
+	 */
+	private static class Opened<S> {
+
+		final S state;
+		final int depth;
+
+		Opened(S state, int depth) {
+			this.state = state;
+			this.depth = depth;
+		}
+
+	}
+
+	/**
+	 * Returns the solution found in the last performed search. If search was unsuccessful, then this
+	 * method should not be called. When solutions are enumerated, it is the last one handed over to
+	 * the solution handler, as in the sequential engines.
+	 * @return the solution found in the last performed search.
+	 */
+	public S getSolution() {
+		if (this.solutionFound.get()==null) throw new IllegalStateException("getSolution() can only be called if search was successful.");
+		return this.solutionFound.get();
+	}
+
+
+	/**
+	 * Reports information regarding a previously executed search.
+	 * @pre. performSearch() has been executed and finished.
+	 * @post. A report regarding the search is shown as a string.
+	 * This report consists of the number of visited states and, when duplicate
+	 * detection is enabled, the number of duplicated states skipped. When the search
+	 * ran out of budget, it also describes how far the search got.
+	 */
+	public String report() {
+		return("Number of visited states: "+visited.get()+duplicatesReport()+budgetReport());
+
+	}
+
+
+
+}
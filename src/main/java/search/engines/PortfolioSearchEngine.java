@@ -0,0 +1,256 @@
+package search.engines;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import search.AbstractSearchProblem;
+import search.SolutionHandler;
+import search.State;
+
+/**
+ * Title:        PortfolioSearchEngine<p>
+ * Description:  Class PortfolioSearchEngine races several search strategies on the same problem: each
+ *               of its engines runs concurrently, in a thread of its own, and the first solution found
+ *               cancels the rest. When duplicate detection is enabled (on the portfolio), the engines
+ *               share their table of visited states, so a state visited by one strategy is neither
+ *               verified again nor expanded again (at the same or a greater depth) by the others: the
+ *               results of verifications are shared. The budget and statistics of the portfolio are
+ *               also shared by its engines. Which strategy wins varies a lot between problems, so
+ *               racing them avoids guessing. It can be used with any instance of AbstractSearchProblem
+ *               whose success and getSuccessors routines can be safely called concurrently.<p>
+ * @version 0.1
+ */
+public class PortfolioSearchEngine<S extends State, Problem extends AbstractSearchProblem<S>> extends AbstractBoundedSearchEngine<S,Problem> {
+
+	/**
+	 * Engines racing on the problem.
+	 */
+	private List<AbstractBoundedSearchEngine<S, Problem>> engines;
+
+	/**
+	 * Found solution (when search succeeded).
+	 */
+	private AtomicReference<S> solutionFound;
+
+	/**
+	 * Engine that found the solution (when search succeeded).
+	 */
+	private volatile AbstractBoundedSearchEngine<S, Problem> winner;
+
+	/**
+	 * Budget shared by the engines; it tracks the progress of the whole search.
+	 */
+	private SearchBudget progress;
+
+	/**
+	 * Set when a solution found stops the search (guarded by the portfolio's lock).
+	 */
+	private boolean stopped;
+
+	/**
+	 * Constructor for class PortfolioSearchEngine.
+	 * @param engines are the engines to race (their problem and max depth are set by the portfolio).
+	 * @pre. engines!=null && !engines.isEmpty().
+	 * @post. the portfolio of engines is created.
+	 */
+	public PortfolioSearchEngine(List<? extends AbstractBoundedSearchEngine<S, Problem>> engines) {
+		super();
+		if (engines==null || engines.isEmpty()) throw new IllegalArgumentException("empty portfolio");
+		this.engines = new ArrayList<AbstractBoundedSearchEngine<S, Problem>>(engines);
+		solutionFound = new AtomicReference<S>(null);
+	}
+
+	/**
+	 * Constructor for class PortfolioSearchEngine.
+	 * @param p is the search problem associated with the engine being created.
+	 * @param maxDepth is the maximum depth to be explored by every engine.
+	 * @param engines are the engines to race.
+	 * @pre. p!=null && engines!=null && !engines.isEmpty().
+	 * @post. A reference to p is stored in field problem, and passed to the engines.
+	 */
+	public PortfolioSearchEngine(Problem p, int maxDepth, List<? extends AbstractBoundedSearchEngine<S, Problem>> engines) {
+		this(engines);
+		if (p==null) throw new IllegalArgumentException("creating engine on a null problem");
+		if (maxDepth<0) throw new IllegalArgumentException("invalid max depth");
+		setProblem(p);
+		setMaxDepth(maxDepth);
+	}
+
+	/**
+	 * Sets the problem associated with the portfolio, and with each of its engines.
+	 * @param p is the search problem to be used for search.
+	 */
+	public void setProblem(Problem p) {
+		super.setProblem(p);
+		for (AbstractBoundedSearchEngine<S, Problem> engine : engines) {
+			engine.setProblem(p);
+		}
+	}
+
+	/**
+	 * Sets the maximum depth, or bound, for every engine of the portfolio.
+	 * @param depth is new depth to be used by the engines.
+	 */
+	public void setMaxDepth(int depth) {
+		for (AbstractBoundedSearchEngine<S, Problem> engine : engines) {
+			engine.setMaxDepth(depth);
+		}
+	}
+
+	/**
+	 * Starts the search for successful states for problem, racing the engines of the portfolio.
+	 * @return true iff a successful state is found by some engine.
+	 * @pre. problem!=null.
+	 * @post. the engines are raced, until one of them finds a solution that stops the search (or all
+	 * of them finish), and the result of the search is returned.
+	 */
+	public boolean performSearch() {
+		this.solutionFound.set(null);
+		this.winner = null;
+		if (this.problem==null) throw new IllegalStateException("initiating search on a null problem");
+		stopped = false;
+		resetVisited();
+		startAccounting();
+		// without a budget, the engines still share one, to track the progress of the whole search
+		progress = budget;
+		if (progress==null) {
+			progress = new SearchBudget();
+			progress.start();
+		}
+		for (AbstractBoundedSearchEngine<S, Problem> engine : engines) {
+			// iterative deepening forgets visited states at each iteration, so it cannot share them
+			if (closed!=null && engine instanceof IterativeDeepeningSearchEngine) throw new IllegalStateException("iterative deepening cannot share visited states");
+			engine.share(closed, fingerprinter, progress, statistics);
+		}
+		ExecutorService workers = Executors.newFixedThreadPool(engines.size());
+		try {
+			List<Future<?>> results = new ArrayList<Future<?>>(engines.size());
+			for (AbstractBoundedSearchEngine<S, Problem> engine : engines) {
+				results.add(workers.submit(new Racer(engine)));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		}
+		catch (InterruptedException e) {
+			cancelAll();
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			cancelAll();
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new IllegalStateException("search engine failed", e.getCause());
+		}
+		finally {
+			workers.shutdownNow();
+			try {
+				workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			progress.finish();
+			duplicatesSkipped = 0;
+			for (AbstractBoundedSearchEngine<S, Problem> engine : engines) {
+				duplicatesSkipped += engine.duplicatesSkipped;
+			}
+			finishAccounting();
+		}
+		return solutionFound.get()!=null;
+	}
+
+	/**
+	 * Runs an engine of the portfolio. Solutions it finds are accounted for by the portfolio, and
+	 * the first one stopping the search cancels the other engines.
+	 */
+	private class Racer implements Runnable {
+
+		private final AbstractBoundedSearchEngine<S, Problem> engine;
+
+		Racer(AbstractBoundedSearchEngine<S, Problem> engine) {
+			this.engine = engine;
+		}
+
+		public void run() {
+			engine.performSearch(new SolutionHandler<S>() {
+				public boolean solutionFound(S solution, int depth) {
+					synchronized (PortfolioSearchEngine.this) {
+						// solutions found by other engines after the search was stopped are dropped
+						if (stopped) return false;
+						// the solution kept is the last one reached, as in the sequential engines
+						solutionFound.set(solution);
+						winner = engine;
+						if (solutionReached(solution, depth)) {
+							stopped = true;
+							cancelAll();
+							return false;
+						}
+						return true;
+					}
+				}
+			});
+		}
+
+	}
+
+	private void cancelAll() {
+		for (AbstractBoundedSearchEngine<S, Problem> engine : engines) {
+			engine.cancel();
+		}
+	}
+
+	/**
+	 * Cancels the search in progress, and the one of every engine of the portfolio.
+	 */
+	public void cancel() {
+		super.cancel();
+		cancelAll();
+	}
+
+	/**
+	 * @return the engines of the portfolio.
+	 */
+	public List<AbstractBoundedSearchEngine<S, Problem>> getEngines() {
+		return Collections.unmodifiableList(engines);
+	}
+
+	/**
+	 * @return the engine that found the solution of the last performed search (null if search was unsuccessful).
+	 */
+	public AbstractBoundedSearchEngine<S, Problem> getWinner() {
+		return winner;
+	}
+
+	/**
+	 * Returns the solution found in the last performed search. If search was unsuccessful, then this
+	 * method should not be called. When solutions are enumerated, it is the last one handed over to
+	 * the solution handler, as in the sequential engines.
+	 * @return the solution found in the last performed search.
+	 */
+	public S getSolution() {
+		if (this.solutionFound.get()==null) throw new IllegalStateException("getSolution() can only be called if search was successful.");
+		return this.solutionFound.get();
+	}
+
+	/**
+	 * Reports information regarding a previously executed search.
+	 * @pre. performSearch() has been executed and finished.
+	 * @post. A report regarding the search is shown as a string.
+	 * This report consists of the number of visited states (by all engines), the engine that found
+	 * the solution and, when duplicate detection is enabled, the number of duplicated states skipped
+	 * (by all engines). When the search ran out of budget, it also describes how far the search got.
+	 */
+	public String report() {
+		String solver = (winner==null)?"":", solution found by "+winner.getClass().getSimpleName();
+		return("Number of visited states: "+((progress==null)?0:progress.getVisitedStates())+solver+duplicatesReport()+budgetReport());
+	}
+
+}
@@ -0,0 +1,30 @@
+package search.engines;
+
+/**
+ * Title:        ScoredState<p>
+ * Description:  An opened state of an informed search, together with its depth and heuristic
+ *               score. Scored states are ordered by score, and then by the order in which they
+ *               were opened (so that equally scored states are explored first in, first out).<p>
+ * @version 0.1
+ */
+class ScoredState<S> implements Comparable<ScoredState<S>> {
+
+	final S state;
+	final int depth;
+	final double score;
+	final long order;
+
+	ScoredState(S state, int depth, double score, long order) {
+		this.state = state;
+		this.depth = depth;
+		this.score = score;
+		this.order = order;
+	}
+
+	public int compareTo(ScoredState<S> other) {
+		int byScore = Double.compare(this.score, other.score);
+		if (byScore!=0) return byScore;
+		return (this.order<other.order)?-1:((this.order==other.order)?0:1);
+	}
+
+}
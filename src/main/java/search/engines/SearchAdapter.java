@@ -0,0 +1,28 @@
+package search.engines;
+
+import search.State;
+
+/**
+ * Title:        SearchAdapter<p>
+ * Description:  Search listener ignoring all events, to be extended by listeners only interested
+ *               in some of them.<p>
+ * @version 0.1
+ */
+public abstract class SearchAdapter<S extends State> implements SearchListener<S> {
+
+	public void stateExpanded(S state) {
+	}
+
+	public void successorsGenerated(S state, int generated, long nanos) {
+	}
+
+	public void successEvaluated(S state, boolean successful, long nanos) {
+	}
+
+	public void solutionFound(S solution, int depth) {
+	}
+
+	public void searchFinished(boolean found) {
+	}
+
+}
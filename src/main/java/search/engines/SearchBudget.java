@@ -0,0 +1,255 @@
+package search.engines;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Title:        SearchBudget<p>
+ * Description:  Limits on the work a bounded search engine may perform: a wall-clock time limit, a
+ *               maximum number of visited states and a maximum number of states checked for success
+ *               (calls to the problem's success routine). When a limit is reached, the engine stops
+ *               gracefully, as if the state space was exhausted, and the budget records which limit
+ *               ran out and how far the search got (states visited, states verified, deepest level
+ *               reached and elapsed time), so that the statistics of the search are not lost.
+ *               A limit of 0 means no limit. The progress counters are reset at the beginning of
+ *               each search, and can be safely updated by concurrent workers.<p>
+ * @version 0.1
+ */
+public class SearchBudget {
+
+	/**
+	 * The limits a search budget may impose.
+	 */
+	public enum Limit { TIME, VISITED_STATES, VERIFICATIONS }
+
+	/**
+	 * Time limit for the search, in milliseconds (0 for no limit).
+	 */
+	private long timeLimit = 0;
+
+	/**
+	 * Maximum number of states to visit (0 for no limit).
+	 */
+	private int maxVisitedStates = 0;
+
+	/**
+	 * Maximum number of states to check for success (0 for no limit).
+	 */
+	private int maxVerifications = 0;
+
+	/**
+	 * Time (as given by System.nanoTime()) at which the current search started.
+	 */
+	private long start;
+
+	/**
+	 * Time (as given by System.nanoTime()) at which the last search finished or ran out of budget.
+	 */
+	private volatile long end;
+
+	/**
+	 * Number of states visited in the current search.
+	 */
+	private final AtomicInteger visitedStates = new AtomicInteger(0);
+
+	/**
+	 * Number of states checked for success in the current search.
+	 */
+	private final AtomicInteger verifications = new AtomicInteger(0);
+
+	/**
+	 * Deepest level at which a state was visited in the current search.
+	 */
+	private volatile int deepestLevel;
+
+	/**
+	 * Limit that ran out in the current search (null while all limits hold).
+	 */
+	private volatile Limit exhausted;
+
+	/**
+	 * Constructor for class SearchBudget.
+	 * @pre. true.
+	 * @post. a budget without limits is created.
+	 */
+	public SearchBudget() {
+	}
+
+	/**
+	 * Constructor for class SearchBudget.
+	 * @param timeLimit is the time limit for the search, in milliseconds (0 for no limit).
+	 * @param maxVisitedStates is the maximum number of states to visit (0 for no limit).
+	 * @param maxVerifications is the maximum number of states to check for success (0 for no limit).
+	 * @pre. timeLimit>=0 && maxVisitedStates>=0 && maxVerifications>=0.
+	 * @post. a budget with the given limits is created.
+	 */
+	public SearchBudget(long timeLimit, int maxVisitedStates, int maxVerifications) {
+		setTimeLimit(timeLimit);
+		setMaxVisitedStates(maxVisitedStates);
+		setMaxVerifications(maxVerifications);
+	}
+
+	/**
+	 * Sets the time limit for the search.
+	 * @param timeLimit is the time limit, in milliseconds (0 for no limit).
+	 */
+	public void setTimeLimit(long timeLimit) {
+		if (timeLimit<0) throw new IllegalArgumentException("invalid time limit");
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 * Sets the maximum number of states to visit in the search.
+	 * @param maxVisitedStates is the maximum number of visited states (0 for no limit).
+	 */
+	public void setMaxVisitedStates(int maxVisitedStates) {
+		if (maxVisitedStates<0) throw new IllegalArgumentException("invalid maximum number of visited states");
+		this.maxVisitedStates = maxVisitedStates;
+	}
+
+	/**
+	 * Sets the maximum number of states to check for success in the search.
+	 * @param maxVerifications is the maximum number of verifications (0 for no limit).
+	 */
+	public void setMaxVerifications(int maxVerifications) {
+		if (maxVerifications<0) throw new IllegalArgumentException("invalid maximum number of verifications");
+		this.maxVerifications = maxVerifications;
+	}
+
+	/**
+	 * Starts tracking a new search, forgetting the progress of previous searches.
+	 * @post. progress counters are reset, and the clock is started.
+	 */
+	public void start() {
+		visitedStates.set(0);
+		verifications.set(0);
+		deepestLevel = 0;
+		exhausted = null;
+		start = System.nanoTime();
+		end = 0;
+	}
+
+	/**
+	 * Finishes tracking the current search.
+	 * @post. the clock is stopped (unless it was already stopped by an exhausted limit).
+	 */
+	public void finish() {
+		if (end==0) end = System.nanoTime();
+	}
+
+	/**
+	 * Checks whether the search can go on, i.e., whether all limits still hold. It is meant to be
+	 * called before taking each state to treat (concurrent workers may then slightly overshoot the
+	 * limits on visited states and verifications).
+	 * @return true iff the search can go on; false iff a limit ran out, and the search must stop.
+	 */
+	public boolean check() {
+		if (exhausted!=null) return false;
+		if (maxVisitedStates>0 && visitedStates.get()>=maxVisitedStates) return exhaust(Limit.VISITED_STATES);
+		if (maxVerifications>0 && verifications.get()>=maxVerifications) return exhaust(Limit.VERIFICATIONS);
+		if (timeLimit>0 && elapsedNanos()>=timeLimit*1000000L) return exhaust(Limit.TIME);
+		return true;
+	}
+
+	/**
+	 * Accounts for a visited state.
+	 * @param depth is the depth of the visited state.
+	 */
+	public void visit(int depth) {
+		visitedStates.incrementAndGet();
+		if (depth>deepestLevel) deepestLevel = depth;
+	}
+
+	/**
+	 * Accounts for a state checked for success.
+	 */
+	public void verify() {
+		verifications.incrementAndGet();
+	}
+
+	/**
+	 * @return true iff a limit ran out in the current search.
+	 */
+	public boolean isExhausted() {
+		return exhausted!=null;
+	}
+
+	/**
+	 * @return the limit that ran out in the last search, or null if the search finished within budget.
+	 */
+	public Limit getExhaustedLimit() {
+		return exhausted;
+	}
+
+	/**
+	 * @return the number of states visited in the last search.
+	 */
+	public int getVisitedStates() {
+		return visitedStates.get();
+	}
+
+	/**
+	 * @return the number of states checked for success in the last search.
+	 */
+	public int getVerifications() {
+		return verifications.get();
+	}
+
+	/**
+	 * @return the number of states that can still be checked for success in the current search, 
+	 * before the limit on verifications runs out (Integer.MAX_VALUE if verifications are not limited).
+	 */
+	public int getRemainingVerifications() {
+		if (maxVerifications<=0) return Integer.MAX_VALUE;
+		return Math.max(0, maxVerifications-verifications.get());
+	}
+
+	/**
+	 * @return the deepest level at which a state was visited in the last search.
+	 */
+	public int getDeepestLevel() {
+		return deepestLevel;
+	}
+
+	/**
+	 * @return the time, in milliseconds, spent in the last search (so far, if it is still running).
+	 */
+	public long getElapsedTime() {
+		return elapsedNanos()/1000000L;
+	}
+
+	/**
+	 * Reports how far the last search got, when it ran out of budget.
+	 * @return a description of the exhausted limit and the progress of the search (empty if
+	 * the search finished within budget).
+	 */
+	public String report() {
+		if (exhausted==null) return "";
+		String limit;
+		switch (exhausted) {
+		case TIME:
+			limit = "time limit of "+timeLimit+" ms";
+			break;
+		case VISITED_STATES:
+			limit = "limit of "+maxVisitedStates+" visited states";
+			break;
+		default:
+			limit = "limit of "+maxVerifications+" verifications";
+		}
+		return "search stopped, "+limit+" reached after "+getElapsedTime()+" ms (visited states: "+getVisitedStates()
+				+", verified states: "+getVerifications()+", deepest level reached: "+getDeepestLevel()+")";
+	}
+
+	private long elapsedNanos() {
+		long stop = end;
+		return ((stop==0)?System.nanoTime():stop)-start;
+	}
+
+	private synchronized boolean exhaust(Limit limit) {
+		if (exhausted==null) {
+			exhausted = limit;
+			end = System.nanoTime();
+		}
+		return false;
+	}
+
+}
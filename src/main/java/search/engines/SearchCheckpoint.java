@@ -0,0 +1,178 @@
+package search.engines;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import search.State;
+
+/**
+ * Title:        SearchCheckpoint<p>
+ * Description:  Snapshot of a search in progress, from which the search can be resumed: the
+ *               strategy and bound of the search, the number of visited states, the table of
+ *               visited states (when duplicate detection is enabled) and the frontier of opened
+ *               states, each one accompanied by its depth, in the order in which the strategy
+ *               would treat them. Strategies that keep cursors over the successors of opened
+ *               states (instead of the successors themselves) save, with each state, the number of
+ *               its successors already consumed.<p>
+ * @version 0.1
+ */
+public class SearchCheckpoint<S extends State> {
+
+	/**
+	 * Name of the strategy of the search.
+	 */
+	private String strategy;
+
+	/**
+	 * Maximum depth of the search.
+	 */
+	private int bound;
+
+	/**
+	 * Number of visited states in the search.
+	 */
+	private int visited;
+
+	/**
+	 * Number of duplicated states skipped in the search.
+	 */
+	private int duplicatesSkipped;
+
+	/**
+	 * Table of visited states of the search (null when duplicate detection is disabled).
+	 */
+	private VisitedTable visitedTable;
+
+	/**
+	 * Opened states of the search.
+	 */
+	private List<S> states;
+
+	/**
+	 * Depths of the opened states of the search.
+	 */
+	private int[] depths;
+
+	/**
+	 * Number of successors already consumed of the opened states of the search.
+	 */
+	private int[] consumed;
+
+	/**
+	 * Constructor for class SearchCheckpoint.
+	 * @param strategy is the name of the strategy of the search.
+	 * @param bound is the maximum depth of the search.
+	 * @param visited is the number of visited states in the search.
+	 * @param duplicatesSkipped is the number of duplicated states skipped in the search.
+	 * @param visitedTable is the table of visited states (null if duplicate detection is disabled).
+	 * @pre. strategy!=null.
+	 * @post. a checkpoint with an empty frontier is created.
+	 */
+	public SearchCheckpoint(String strategy, int bound, int visited, int duplicatesSkipped, VisitedTable visitedTable) {
+		if (strategy==null) throw new IllegalArgumentException("null strategy");
+		this.strategy = strategy;
+		this.bound = bound;
+		this.visited = visited;
+		this.duplicatesSkipped = duplicatesSkipped;
+		this.visitedTable = visitedTable;
+		this.states = new ArrayList<S>();
+		this.depths = new int[16];
+		this.consumed = new int[16];
+	}
+
+	/**
+	 * Adds an opened state at the end of the frontier.
+	 * @param s is the opened state.
+	 * @param depth is the depth of s.
+	 */
+	public void add(S s, int depth) {
+		add(s, depth, 0);
+	}
+
+	/**
+	 * Adds an opened state at the end of the frontier, with the number of its successors
+	 * already consumed.
+	 * @param s is the opened state.
+	 * @param depth is the depth of s.
+	 * @param consumed is the number of successors of s already consumed.
+	 */
+	public void add(S s, int depth, int consumed) {
+		if (states.size()==depths.length) {
+			depths = Arrays.copyOf(depths, 2*depths.length);
+			this.consumed = Arrays.copyOf(this.consumed, 2*this.consumed.length);
+		}
+		depths[states.size()] = depth;
+		this.consumed[states.size()] = consumed;
+		states.add(s);
+	}
+
+	/**
+	 * @return the name of the strategy of the search.
+	 */
+	public String getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * @return the maximum depth of the search.
+	 */
+	public int getBound() {
+		return bound;
+	}
+
+	/**
+	 * @return the number of visited states in the search.
+	 */
+	public int getVisited() {
+		return visited;
+	}
+
+	/**
+	 * @return the number of duplicated states skipped in the search.
+	 */
+	public int getDuplicatesSkipped() {
+		return duplicatesSkipped;
+	}
+
+	/**
+	 * @return the table of visited states (null if duplicate detection was disabled).
+	 */
+	public VisitedTable getVisitedTable() {
+		return visitedTable;
+	}
+
+	/**
+	 * @return the number of opened states in the frontier.
+	 */
+	public int size() {
+		return states.size();
+	}
+
+	/**
+	 * @param i is the position of an opened state in the frontier.
+	 * @return the i-th opened state.
+	 */
+	public S getState(int i) {
+		return states.get(i);
+	}
+
+	/**
+	 * @param i is the position of an opened state in the frontier.
+	 * @return the depth of the i-th opened state.
+	 */
+	public int getDepth(int i) {
+		if (i<0 || i>=states.size()) throw new IndexOutOfBoundsException("invalid position in frontier: "+i);
+		return depths[i];
+	}
+
+	/**
+	 * @param i is the position of an opened state in the frontier.
+	 * @return the number of successors already consumed of the i-th opened state.
+	 */
+	public int getConsumed(int i) {
+		if (i<0 || i>=states.size()) throw new IndexOutOfBoundsException("invalid position in frontier: "+i);
+		return consumed[i];
+	}
+
+}
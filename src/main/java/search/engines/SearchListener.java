@@ -0,0 +1,53 @@
+package search.engines;
+
+import search.State;
+
+/**
+ * Title:        SearchListener<p>
+ * Description:  Interface for receiving the events of a search as they happen: states expanded,
+ *               successors generated, states checked for success (with the time each check took),
+ *               solutions found and the end of the search. Listeners are registered in a search
+ *               engine before searching; engines without listeners pay nothing for events. Events
+ *               are delivered in the thread that produces them, so listeners of parallel engines
+ *               must be thread safe, and all listeners should return quickly.<p>
+ * @version 0.1
+ */
+public interface SearchListener<S extends State> {
+
+	/**
+	 * Receives a state about to be expanded (i.e., whose successors are about to be computed).
+	 * @param state is the state being expanded.
+	 */
+	public void stateExpanded(S state);
+
+	/**
+	 * Receives the outcome of expanding a state. When successors are produced lazily, it is
+	 * received once all of them were produced.
+	 * @param state is the expanded state.
+	 * @param generated is the number of successors generated for state.
+	 * @param nanos is the time spent generating them, in nanoseconds.
+	 */
+	public void successorsGenerated(S state, int generated, long nanos);
+
+	/**
+	 * Receives the outcome of checking a state for success.
+	 * @param state is the checked state.
+	 * @param successful is true iff state is successful.
+	 * @param nanos is the time spent checking state, in nanoseconds.
+	 */
+	public void successEvaluated(S state, boolean successful, long nanos);
+
+	/**
+	 * Receives a solution found by the search.
+	 * @param solution is the successful state found.
+	 * @param depth is the depth at which solution was found.
+	 */
+	public void solutionFound(S solution, int depth);
+
+	/**
+	 * Receives the end of the search.
+	 * @param found is true iff some solution was found.
+	 */
+	public void searchFinished(boolean found);
+
+}
@@ -0,0 +1,341 @@
+package search.engines;
+
+import java.util.Arrays;
+
+/**
+ * Title:        SearchStatistics<p>
+ * Description:  Statistics of a search, filled in by the engine while searching: states visited at
+ *               each depth, states expanded and successors generated (and so, the branching factor of
+ *               the search), duplicated states skipped, time spent computing successors and checking
+ *               states for success (in total, and its distribution over calls), peak size of the
+ *               frontier and time to the first solution. They tell, e.g., whether a slow search is
+ *               dominated by the generation of successors or by the success routine of the problem.
+ *               Statistics are reset at the beginning of each search, and can be safely updated by
+ *               concurrent workers.<p>
+ * @version 0.1
+ */
+public class SearchStatistics {
+
+	/**
+	 * Time (as given by System.nanoTime()) at which the current search started.
+	 */
+	private long start;
+
+	/**
+	 * Time (as given by System.nanoTime()) at which the last search finished (0 while it is running).
+	 */
+	private long end;
+
+	/**
+	 * Number of states visited at each depth.
+	 */
+	private int[] visitedPerDepth;
+
+	/**
+	 * Deepest level at which a state was visited (-1 if no state was visited).
+	 */
+	private int deepestLevel;
+
+	/**
+	 * Number of successors generated.
+	 */
+	private long generatedSuccessors;
+
+	/**
+	 * Number of duplicated states skipped.
+	 */
+	private int duplicatesSkipped;
+
+	/**
+	 * Max number of opened states (or frames of opened states) in the frontier.
+	 */
+	private int peakFrontier;
+
+	/**
+	 * Time (as given by System.nanoTime()) at which the first solution was found (0 if none was found).
+	 */
+	private long firstSolution;
+
+	/**
+	 * Time spent computing successors of states, one sample per expanded state.
+	 */
+	private final Timing successors = new Timing();
+
+	/**
+	 * Time spent checking states for success, one sample per verification.
+	 */
+	private final Timing success = new Timing();
+
+	/**
+	 * Constructor for class SearchStatistics.
+	 * @pre. true.
+	 * @post. empty statistics are created.
+	 */
+	public SearchStatistics() {
+		start();
+		end = start;
+	}
+
+	/**
+	 * Starts collecting the statistics of a new search, forgetting the ones of previous searches.
+	 */
+	public synchronized void start() {
+		visitedPerDepth = new int[8];
+		deepestLevel = -1;
+		generatedSuccessors = 0;
+		duplicatesSkipped = 0;
+		peakFrontier = 0;
+		firstSolution = 0;
+		successors.clear();
+		success.clear();
+		start = System.nanoTime();
+		end = 0;
+	}
+
+	/**
+	 * Finishes collecting the statistics of the current search.
+	 * @param duplicatesSkipped is the number of duplicated states skipped in the search.
+	 */
+	public synchronized void finish(int duplicatesSkipped) {
+		this.duplicatesSkipped = duplicatesSkipped;
+		end = System.nanoTime();
+	}
+
+	/**
+	 * Accounts for a visited state.
+	 * @param depth is the depth of the visited state.
+	 */
+	public synchronized void visit(int depth) {
+		if (depth>=visitedPerDepth.length) visitedPerDepth = Arrays.copyOf(visitedPerDepth, Math.max(depth+1, 2*visitedPerDepth.length));
+		visitedPerDepth[depth]++;
+		if (depth>deepestLevel) deepestLevel = depth;
+	}
+
+	/**
+	 * Accounts for an expanded state.
+	 * @param generated is the number of successors generated for the state.
+	 * @param nanos is the time spent computing them, in nanoseconds.
+	 */
+	public synchronized void expand(int generated, long nanos) {
+		generatedSuccessors += generated;
+		successors.record(nanos);
+	}
+
+	/**
+	 * Accounts for a state checked for success.
+	 * @param nanos is the time spent checking the state, in nanoseconds.
+	 */
+	public synchronized void verify(long nanos) {
+		success.record(nanos);
+	}
+
+	/**
+	 * Accounts for the current size of the frontier.
+	 * @param size is the number of opened states (or frames of opened states) in the frontier.
+	 */
+	public synchronized void frontier(int size) {
+		if (size>peakFrontier) peakFrontier = size;
+	}
+
+	/**
+	 * Accounts for a solution found.
+	 */
+	public synchronized void solution() {
+		if (firstSolution==0) firstSolution = System.nanoTime();
+	}
+
+	/**
+	 * @return the number of states visited in the last search.
+	 */
+	public synchronized int getVisitedStates() {
+		int visited = 0;
+		for (int v : visitedPerDepth) visited += v;
+		return visited;
+	}
+
+	/**
+	 * @param depth is a depth of the search.
+	 * @return the number of states visited at depth in the last search.
+	 */
+	public synchronized int getVisitedStates(int depth) {
+		return (depth<0 || depth>=visitedPerDepth.length)?0:visitedPerDepth[depth];
+	}
+
+	/**
+	 * @return the deepest level at which a state was visited in the last search (-1 if none was).
+	 */
+	public synchronized int getDeepestLevel() {
+		return deepestLevel;
+	}
+
+	/**
+	 * @return the number of states expanded in the last search.
+	 */
+	public synchronized int getExpandedStates() {
+		return (int) successors.count;
+	}
+
+	/**
+	 * @return the number of successors generated in the last search.
+	 */
+	public synchronized long getGeneratedSuccessors() {
+		return generatedSuccessors;
+	}
+
+	/**
+	 * @return the effective branching factor of the last search: the mean number of successors
+	 * generated per expanded state (0 if no state was expanded).
+	 */
+	public synchronized double getBranchingFactor() {
+		return (successors.count==0)?0:((double) generatedSuccessors)/successors.count;
+	}
+
+	/**
+	 * @return the number of duplicated states skipped in the last search.
+	 */
+	public synchronized int getDuplicatesSkipped() {
+		return duplicatesSkipped;
+	}
+
+	/**
+	 * @return the number of states checked for success in the last search.
+	 */
+	public synchronized int getVerifications() {
+		return (int) success.count;
+	}
+
+	/**
+	 * @return the total time, in milliseconds, spent computing successors in the last search.
+	 */
+	public synchronized long getSuccessorsTime() {
+		return successors.total/1000000L;
+	}
+
+	/**
+	 * Returns a percentile of the time spent computing the successors of a state. Percentiles are
+	 * approximated within 1/16 of their values.
+	 * @param percentile is the percentile to return, between 0 and 100.
+	 * @return the percentile of the time spent expanding a state, in microseconds.
+	 */
+	public synchronized long getSuccessorsTimePercentile(double percentile) {
+		return successors.percentile(percentile)/1000L;
+	}
+
+	/**
+	 * @return the total time, in milliseconds, spent checking states for success in the last search.
+	 */
+	public synchronized long getSuccessTime() {
+		return success.total/1000000L;
+	}
+
+	/**
+	 * Returns a percentile of the time spent checking a state for success. Percentiles are
+	 * approximated within 1/16 of their values.
+	 * @param percentile is the percentile to return, between 0 and 100.
+	 * @return the percentile of the time spent checking a state, in microseconds.
+	 */
+	public synchronized long getSuccessTimePercentile(double percentile) {
+		return success.percentile(percentile)/1000L;
+	}
+
+	/**
+	 * @return the max number of opened states (or frames of opened states, for depth-first engines)
+	 * in the frontier during the last search.
+	 */
+	public synchronized int getPeakFrontier() {
+		return peakFrontier;
+	}
+
+	/**
+	 * @return the time, in milliseconds, to the first solution found in the last search (-1 if none was found).
+	 */
+	public synchronized long getTimeToFirstSolution() {
+		return (firstSolution==0)?-1:(firstSolution-start)/1000000L;
+	}
+
+	/**
+	 * @return the time, in milliseconds, spent in the last search (so far, if it is still running).
+	 */
+	public synchronized long getElapsedTime() {
+		return (((end==0)?System.nanoTime():end)-start)/1000000L;
+	}
+
+	/**
+	 * Reports the statistics of the last search.
+	 * @return a description of the statistics, as a string.
+	 */
+	public synchronized String report() {
+		StringBuilder report = new StringBuilder();
+		report.append("visited states by depth: ");
+		report.append(Arrays.toString(Arrays.copyOf(visitedPerDepth, deepestLevel+1)));
+		report.append(", expanded states: ").append(getExpandedStates());
+		report.append(", branching factor: ").append(String.format("%.2f", getBranchingFactor()));
+		report.append(", duplicated states skipped: ").append(duplicatesSkipped);
+		report.append(", successors: ").append(successors.report());
+		report.append(", success: ").append(success.report());
+		report.append(", peak frontier: ").append(peakFrontier);
+		report.append(", first solution after: ");
+		report.append((firstSolution==0)?"none found":(getTimeToFirstSolution()+" ms"));
+		report.append(", elapsed: ").append(getElapsedTime()).append(" ms");
+		return report.toString();
+	}
+
+	/**
+	 * Distribution of the times of a kind of call: count, total and a log-linear histogram of
+	 * samples (16 buckets per power of two), good for percentiles within 1/16 of their values.
+	 */
+	private static class Timing {
+
+		private static final int SUB_BUCKETS = 16;
+
+		private final long[] buckets = new long[61*SUB_BUCKETS];
+		private long count;
+		private long total;
+
+		void clear() {
+			Arrays.fill(buckets, 0);
+			count = 0;
+			total = 0;
+		}
+
+		void record(long nanos) {
+			if (nanos<0) nanos = 0;
+			buckets[bucket(nanos)]++;
+			count++;
+			total += nanos;
+		}
+
+		long percentile(double percentile) {
+			if (percentile<0 || percentile>100) throw new IllegalArgumentException("invalid percentile");
+			if (count==0) return 0;
+			long rank = Math.max(1, (long) Math.ceil(percentile/100*count));
+			long seen = 0;
+			for (int i = 0; i < buckets.length; i++) {
+				seen += buckets[i];
+				if (seen>=rank) return highest(i);
+			}
+			return highest(buckets.length-1);
+		}
+
+		String report() {
+			return count+" calls, "+(total/1000000L)+" ms (p50: "+(percentile(50)/1000L)+" us, p90: "
+					+(percentile(90)/1000L)+" us, p99: "+(percentile(99)/1000L)+" us)";
+		}
+
+		private static int bucket(long nanos) {
+			if (nanos<SUB_BUCKETS) return (int) nanos;
+			int exponent = 63-Long.numberOfLeadingZeros(nanos);
+			int sub = (int) ((nanos>>>(exponent-4)) & (SUB_BUCKETS-1));
+			return (exponent-3)*SUB_BUCKETS+sub;
+		}
+
+		private static long highest(int bucket) {
+			if (bucket<SUB_BUCKETS) return bucket;
+			int exponent = bucket/SUB_BUCKETS+3;
+			long lowest = ((long) (SUB_BUCKETS+bucket%SUB_BUCKETS))<<(exponent-4);
+			return lowest+(1L<<(exponent-4))-1;
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+package search.engines;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import search.State;
+
+/**
+ * Title:        SiblingGroups<p>
+ * Description:  Groups of sibling states (successors of the same state) to be checked for success
+ *               together, and outcomes of states checked ahead of their treatment, along with a
+ *               sibling. States are kept by identity. It can be safely updated by concurrent workers.<p>
+ * @version 0.1
+ */
+class SiblingGroups<S extends State> {
+
+	/**
+	 * Group of siblings of each state, until one of them is checked for success.
+	 */
+	private final Map<S, List<S>> groups = new IdentityHashMap<S, List<S>>();
+
+	/**
+	 * Outcomes of states checked for success along with a sibling, until they are treated.
+	 */
+	private final Map<S, Boolean> verdicts = new IdentityHashMap<S, Boolean>();
+
+	/**
+	 * Adds a group of siblings (a single state is no group).
+	 * @param siblings are the successors of a state.
+	 */
+	synchronized void add(List<S> siblings) {
+		if (siblings.size()<2) return;
+		for (S s : siblings) {
+			groups.put(s, siblings);
+		}
+	}
+
+	/**
+	 * Takes the group of siblings of a state: siblings are then no longer grouped.
+	 * @param s is a state.
+	 * @return the group of siblings of s, or null if it has none.
+	 */
+	synchronized List<S> takeGroup(S s) {
+		List<S> siblings = groups.remove(s);
+		if (siblings!=null) {
+			for (S sibling : siblings) {
+				groups.remove(sibling);
+			}
+		}
+		return siblings;
+	}
+
+	/**
+	 * Forgets a state that is not going to be checked for success (e.g., because it was skipped as
+	 * a duplicate): it leaves its group of siblings, and its outcome is dropped if it was checked.
+	 * @param s is a state.
+	 */
+	synchronized void forget(S s) {
+		groups.remove(s);
+		verdicts.remove(s);
+	}
+
+	/**
+	 * Records the outcome of checking a state for success ahead of its treatment.
+	 */
+	synchronized void record(S s, boolean successful) {
+		verdicts.put(s, successful);
+	}
+
+	/**
+	 * @return true iff s was checked for success ahead of its treatment, and its outcome was not taken yet.
+	 */
+	synchronized boolean isChecked(S s) {
+		return verdicts.containsKey(s);
+	}
+
+	/**
+	 * Takes the outcome of checking a state for success, if it was checked ahead of its treatment.
+	 * @param s is a state.
+	 * @return whether s is successful, or null if s was not checked yet.
+	 */
+	synchronized Boolean takeVerdict(S s) {
+		return verdicts.remove(s);
+	}
+
+}
@@ -0,0 +1,56 @@
+package search.engines;
+
+import search.State;
+
+/**
+ * Title:        StateQueue<p>
+ * Description:  FIFO queue of opened states, as used by breadth-first engines. Each state is
+ *               accompanied by its depth, which is kept apart from the state (so that implementations
+ *               need not allocate a pair, nor box the depth, for each queued state): the depth of the
+ *               state at the head of the queue is queried before polling it.<p>
+ * @version 0.1
+ */
+public interface StateQueue<S extends State> {
+
+	/**
+	 * Adds a state at the end of the queue.
+	 * @param state is the state to add.
+	 * @param depth is the depth of the state.
+	 */
+	public void offer(S state, int depth);
+
+	/**
+	 * @return the depth of the state at the head of the queue.
+	 * @pre. !isEmpty().
+	 */
+	public int peekDepth();
+
+	/**
+	 * Removes the state at the head of the queue.
+	 * @return the state at the head of the queue, or null if the queue is empty.
+	 */
+	public S poll();
+
+	/**
+	 * @return the number of states in the queue.
+	 */
+	public int size();
+
+	/**
+	 * @return true iff the queue has no states.
+	 */
+	public boolean isEmpty();
+
+	/**
+	 * Removes all states from the queue.
+	 */
+	public void clear();
+
+	/**
+	 * Adds all states in the queue, in queue order and accompanied by their depths, to a checkpoint.
+	 * The queue is not modified.
+	 * @param checkpoint is the checkpoint the states are added to.
+	 */
+	public void saveTo(SearchCheckpoint<S> checkpoint);
+
+}
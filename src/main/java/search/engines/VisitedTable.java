@@ -0,0 +1,194 @@
+package search.engines;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Title:        VisitedTable<p>
+ * Description:  Table of visited states used by the bounded search engines for detecting
+ *               duplicated states. States are stored by their 64 bit fingerprint, together with
+ *               the shallowest depth at which they were visited. The table is an open addressing
+ *               hash table over primitive arrays, which grows on demand up to a maximum number
+ *               of states; once that bound is reached, new states are no longer recorded (so
+ *               the table never uses more memory than the bound allows).<p>
+ * @version 0.1
+ */
+public class VisitedTable {
+
+	/**
+	 * Initial number of slots of the table.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Fingerprint used in place of 0, which marks empty slots.
+	 */
+	private static final long ZERO_REPLACEMENT = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Fingerprints of the stored states (0 for empty slots).
+	 */
+	private long[] fingerprints;
+
+	/**
+	 * Shallowest depth at which each stored state was visited.
+	 */
+	private int[] depths;
+
+	/**
+	 * Number of stored states.
+	 */
+	private int size;
+
+	/**
+	 * Maximum number of states to store.
+	 */
+	private int maxStates;
+
+	/**
+	 * Number of states that could not be recorded because the table was full.
+	 */
+	private long untracked;
+
+	/**
+	 * Constructor for class VisitedTable.
+	 * @param maxStates is the maximum number of states to be recorded in the table.
+	 * @pre. maxStates>0.
+	 * @post. an empty table, bounded to maxStates states, is created.
+	 */
+	public VisitedTable(int maxStates) {
+		if (maxStates<=0) throw new IllegalArgumentException("invalid maximum number of states");
+		this.maxStates = maxStates;
+		clear();
+	}
+
+	/**
+	 * Returns the shallowest depth at which a state with the given fingerprint was recorded.
+	 * @param fingerprint is the fingerprint of the state to look for.
+	 * @return the depth of the state, or -1 if no state with that fingerprint was recorded.
+	 */
+	public int depthOf(long fingerprint) {
+		int slot = slotOf(fix(fingerprint));
+		return (fingerprints[slot]==0)?-1:depths[slot];
+	}
+
+	/**
+	 * Records that a state with the given fingerprint was visited at the given depth. If the
+	 * state was already recorded, the shallowest of both depths is kept.
+	 * @param fingerprint is the fingerprint of the visited state.
+	 * @param depth is the depth at which the state was visited.
+	 * @return false iff the state could not be recorded because the table is full.
+	 */
+	public boolean record(long fingerprint, int depth) {
+		long key = fix(fingerprint);
+		int slot = slotOf(key);
+		if (fingerprints[slot]!=0) {
+			if (depth<depths[slot]) depths[slot] = depth;
+			return true;
+		}
+		if (size>=maxStates) {
+			untracked++;
+			return false;
+		}
+		if (2*(size+1)>fingerprints.length) {
+			grow();
+			slot = slotOf(key);
+		}
+		fingerprints[slot] = key;
+		depths[slot] = depth;
+		size++;
+		return true;
+	}
+
+	/**
+	 * @return the number of states recorded in the table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of visited states that were not recorded because the table was full.
+	 */
+	public long getUntracked() {
+		return untracked;
+	}
+
+	/**
+	 * Removes all states from the table, releasing its memory.
+	 */
+	public void clear() {
+		fingerprints = new long[INITIAL_CAPACITY];
+		depths = new int[INITIAL_CAPACITY];
+		size = 0;
+		untracked = 0;
+	}
+
+	/**
+	 * Writes the table in a compact binary form.
+	 * @param out is where the table is written to.
+	 * @throws IOException if the table cannot be written.
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(maxStates);
+		out.writeLong(untracked);
+		out.writeInt(size);
+		for (int i = 0; i < fingerprints.length; i++) {
+			if (fingerprints[i]!=0) {
+				out.writeLong(fingerprints[i]);
+				out.writeInt(depths[i]);
+			}
+		}
+	}
+
+	/**
+	 * Reads a table written with write.
+	 * @param in is where the table is read from.
+	 * @return the table read.
+	 * @throws IOException if the table cannot be read.
+	 */
+	public static VisitedTable read(DataInput in) throws IOException {
+		VisitedTable table = new VisitedTable(in.readInt());
+		long untracked = in.readLong();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			long fingerprint = in.readLong();
+			table.record(fingerprint, in.readInt());
+		}
+		table.untracked = untracked;
+		return table;
+	}
+
+	private static long fix(long fingerprint) {
+		return (fingerprint==0)?ZERO_REPLACEMENT:fingerprint;
+	}
+
+	/**
+	 * Returns the slot holding the given key, or the empty slot where it should be stored.
+	 */
+	private int slotOf(long key) {
+		int mask = fingerprints.length-1;
+		long hash = key*0x9E3779B97F4A7C15L;
+		int slot = (int) (hash^(hash>>>32)) & mask;
+		while (fingerprints[slot]!=0 && fingerprints[slot]!=key) {
+			slot = (slot+1) & mask;
+		}
+		return slot;
+	}
+
+	private void grow() {
+		long[] oldFingerprints = fingerprints;
+		int[] oldDepths = depths;
+		fingerprints = new long[oldFingerprints.length*2];
+		depths = new int[oldDepths.length*2];
+		for (int i = 0; i < oldFingerprints.length; i++) {
+			if (oldFingerprints[i]!=0) {
+				int slot = slotOf(oldFingerprints[i]);
+				fingerprints[slot] = oldFingerprints[i];
+				depths[slot] = oldDepths[i];
+			}
+		}
+	}
+
+}
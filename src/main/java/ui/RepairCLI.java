@@ -8,7 +8,9 @@ import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
+import mujava.api.Mutant;
 import repairer.BasicProgramRepairer;
+import repairer.FixCandidateHeuristic;
 import repairer.JMLAnnotatedClass;
 
 /**
@@ -19,13 +21,27 @@ import repairer.JMLAnnotatedClass;
  */
 public class RepairCLI {
 
+	/**
+	 * Time between checkpoints of the search, in milliseconds.
+	 */
+	private static final long CHECKPOINT_INTERVAL = 10 * 60 * 1000L;
+
 	/**
 	 * Main method of CLI interface to Stryker. It uses Apache CLI to parse command line options:
 	 * -p for qualified path to class
 	 * -c for class name
 	 * -m for method to fix
 	 * -d for max depth for the search for fixes.
-	 * All arguments are mandatory, except for max depth. Default max depth: 3.
+	 * -b for beam width; when given, beam search is used for the search for fixes.
+	 * -o for mutation operator priors used to score candidates in beam search, e.g.: ROR=0.5,AORB=0.2
+	 * -t for the time limit of the search, in seconds.
+	 * -f for the max number of fixes to look for (0 for all fixes up to max depth).
+	 * -k for a checkpoint file; the search is checkpointed every 10 minutes, and resumed from the file if it exists.
+	 * -w for a number of workers; when given, parallel bfs is used for the search for fixes.
+	 * -x for a number of workers; when given, parallel dfs is used for the search for fixes.
+	 * All arguments are mandatory, except for max depth, beam width, operator priors, time limit, max fixes, checkpoint file
+	 * and workers. At most one of -b, -w and -x can be given, and none of them together with -k.
+	 * Default max depth: 3. Default max fixes: 1.
 	 * @param args
 	 */
 	public static void main(String[] args) {
@@ -47,6 +63,34 @@ public class RepairCLI {
 		Option scope = new Option("s", "scope", true, "scope");
 		scope.setRequired(false);
 		
+		Option beam = new Option("b", "beam-width", true, "beam width; when given, beam search is used for the search for fixes");
+		beam.setRequired(false);
+		beam.setType(Integer.class);
+		
+		Option priors = new Option("o", "operator-priors", true, "mutation operator priors for scoring candidates in beam search e.g.: ROR=0.5,AORB=0.2");
+		priors.setRequired(false);
+		priors.setArgs(Option.UNLIMITED_VALUES);
+		priors.setValueSeparator(',');
+		
+		Option timeLimit = new Option("t", "time-limit", true, "time limit for the search, in seconds; when reached, the search stops and reports its statistics");
+		timeLimit.setRequired(false);
+		timeLimit.setType(Integer.class);
+		
+		Option fixes = new Option("f", "fixes", true, "max number of fixes to look for; 0 looks for all fixes up to max depth");
+		fixes.setRequired(false);
+		fixes.setType(Integer.class);
+		
+		Option checkpoint = new Option("k", "checkpoint", true, "checkpoint file for the search (dfs and bfs only); the search resumes from it if it exists");
+		checkpoint.setRequired(false);
+		
+		Option bfsWorkers = new Option("w", "parallel-bfs", true, "number of workers; when given, parallel bfs is used for the search for fixes, each worker verifying candidates in a sandbox of its own");
+		bfsWorkers.setRequired(false);
+		bfsWorkers.setType(Integer.class);
+		
+		Option dfsWorkers = new Option("x", "parallel-dfs", true, "number of workers; when given, parallel dfs is used for the search for fixes, each worker verifying candidates in a sandbox of its own");
+		dfsWorkers.setRequired(false);
+		dfsWorkers.setType(Integer.class);
+		
 		Option help = new Option("h", "help", false, "print commands");
 		help.setRequired(false);
 		
@@ -62,6 +106,13 @@ public class RepairCLI {
 		options.addOption(depth);
 		options.addOption(classes);
 		options.addOption(scope);
+		options.addOption(beam);
+		options.addOption(priors);
+		options.addOption(timeLimit);
+		options.addOption(fixes);
+		options.addOption(checkpoint);
+		options.addOption(bfsWorkers);
+		options.addOption(dfsWorkers);
 
 		CommandLineParser parser = new BasicParser();
 		try {
@@ -71,6 +122,9 @@ public class RepairCLI {
 				formatter.printHelp( "stryker", options );
 				return;
 			}
+			int strategies = (cmd.hasOption("b")?1:0) + (cmd.hasOption("w")?1:0) + (cmd.hasOption("x")?1:0);
+			if (strategies > 1) throw new IllegalArgumentException("Incorrect options.  Only one of beam width, parallel bfs and parallel dfs can be given.");
+			if (strategies > 0 && cmd.hasOption("k")) throw new IllegalArgumentException("Incorrect options.  Checkpoints are only supported by dfs and bfs; they cannot be combined with beam width, parallel bfs or parallel dfs.");
 			String qualifiedPath = cmd.getOptionValue("p");
 			String clazz = cmd.getOptionValue("c");
 			String methodToFix = cmd.getOptionValue("m");
@@ -94,6 +148,42 @@ public class RepairCLI {
 				String typeScope = cmd.getOptionValue('s');
 				repairer.setScope(typeScope);
 			}
+			if (cmd.hasOption("b")) {
+				int beamWidth = Integer.parseInt(cmd.getOptionValue("b"));
+				if (beamWidth <= 0) throw new NumberFormatException("Incorrect options.  Beam width must be a positive integer.");
+				FixCandidateHeuristic heuristic = new FixCandidateHeuristic();
+				if (cmd.hasOption("o")) {
+					for (String prior : cmd.getOptionValues('o')) {
+						String[] operatorAndPrior = prior.split("=");
+						if (operatorAndPrior.length != 2) throw new IllegalArgumentException("Incorrect options.  Operator priors must be given as OPERATOR=prior.");
+						heuristic.setOperatorPrior(Mutant.valueOf(operatorAndPrior[0].trim()), Double.parseDouble(operatorAndPrior[1].trim()));
+					}
+				}
+				repairer.setBeamStrategy(beamWidth, heuristic);
+			}
+			if (cmd.hasOption("w")) {
+				int workers = Integer.parseInt(cmd.getOptionValue("w"));
+				if (workers <= 0) throw new NumberFormatException("Incorrect options.  Number of workers must be a positive integer.");
+				repairer.setParallelBfsStrategy(workers);
+			}
+			if (cmd.hasOption("x")) {
+				int workers = Integer.parseInt(cmd.getOptionValue("x"));
+				if (workers <= 0) throw new NumberFormatException("Incorrect options.  Number of workers must be a positive integer.");
+				repairer.setParallelDfsStrategy(workers);
+			}
+			if (cmd.hasOption("t")) {
+				int seconds = Integer.parseInt(cmd.getOptionValue("t"));
+				if (seconds <= 0) throw new NumberFormatException("Incorrect options.  Time limit must be a positive integer.");
+				repairer.setBudget(seconds * 1000L, 0, 0);
+			}
+			if (cmd.hasOption("f")) {
+				int maxFixes = Integer.parseInt(cmd.getOptionValue("f"));
+				if (maxFixes < 0) throw new NumberFormatException("Incorrect options.  Max fixes must be a non-negative integer.");
+				repairer.setMaxFixes(maxFixes);
+			}
+			if (cmd.hasOption("k")) {
+				repairer.setCheckpointing(cmd.getOptionValue("k"), CHECKPOINT_INTERVAL);
+			}
 			repairer.repair();
 		}
 		catch (ParseException e) {
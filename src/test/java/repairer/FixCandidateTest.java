@@ -0,0 +1,79 @@
+package repairer;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+
+import mujava.api.MutantIdentifier;
+import mujava.util.JustCodeDigest;
+
+import org.junit.Test;
+
+import search.State;
+
+public class FixCandidateTest {
+
+	/**
+	 * Two candidates built from the same program are equal, as states and as objects, and
+	 * have the same fingerprint and hash code.
+	 */
+	@Test
+	public void candidatesFromSameProgramAreEqual() {
+		FixCandidate c1 = new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_1"));
+		FixCandidate c2 = new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_1"));
+		assertTrue("candidates are equal as states", c1.equals((State) c2));
+		assertTrue("candidates are equal as objects", c1.equals((Object) c2));
+		assertTrue("candidates have the same fingerprint", c1.fingerprint()==c2.fingerprint());
+		assertTrue("candidates have the same hash code", c1.hashCode()==c2.hashCode());
+	}
+
+	/**
+	 * Candidates built from different programs are different, and have different fingerprints.
+	 */
+	@Test
+	public void candidatesFromDifferentProgramsAreDifferent() {
+		FixCandidate c1 = new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_1"));
+		FixCandidate c2 = new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_2"));
+		assertFalse("candidates are different", c1.equals((Object) c2));
+		assertFalse("candidates have different fingerprints", c1.fingerprint()==c2.fingerprint());
+	}
+
+	/**
+	 * Equal candidates are recognised as such by hash based collections.
+	 */
+	@Test
+	public void candidatesCanBeUsedInHashSets() {
+		Set<FixCandidate> candidates = new HashSet<FixCandidate>();
+		candidates.add(new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_1")));
+		candidates.add(new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_1")));
+		candidates.add(new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_2")));
+		assertTrue("only two different candidates are stored", candidates.size()==2);
+	}
+
+	/**
+	 * A candidate produced in memory equals the candidate of the same program on disk, and it is
+	 * only written to disk when its program is requested.
+	 */
+	@Test
+	public void inMemoryCandidatesAreWrittenLazily() throws IOException {
+		String source = new String(Files.readAllBytes(Paths.get("src/test/resources/java/TestClass_1.java")), "UTF-8");
+		String folder = Files.createTempDirectory("candidate").toString() + "/";
+		FixCandidate onDisk = new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_1"));
+		FixCandidate inMemory = new FixCandidate(folder, "TestClass_1", source, JustCodeDigest.digest(source), new LinkedList<MutantIdentifier>());
+		assertTrue("candidates are equal", inMemory.equals((Object) onDisk));
+		assertFalse("comparing candidates does not write them", inMemory.isWritten());
+		assertFalse("candidate file does not exist yet", new File(folder + "TestClass_1.java").exists());
+		assertTrue("program is written where expected", inMemory.getProgram().getFilePath().equals(new File(folder + "TestClass_1.java").getAbsolutePath()));
+		assertTrue("candidate is written", inMemory.isWritten());
+		assertTrue("written program is the same", Arrays.equals(inMemory.getProgram().getMd5Digest(), onDisk.getDigest()));
+	}
+
+}
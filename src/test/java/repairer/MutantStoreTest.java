@@ -0,0 +1,132 @@
+package repairer;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MutantStoreTest {
+
+	private static byte[] digest(int seed) {
+		byte[] digest = new byte[16];
+		for (int i = 0; i < digest.length; i++) {
+			digest[i] = (byte) (i < 4 ? seed >>> (8 * i) : i);
+		}
+		return digest;
+	}
+
+	/**
+	 * Digests are compared by value: a copy of a stored digest is a repeated mutant.
+	 */
+	@Test
+	public void repeatedMutantsAreDroppedByValue() {
+		MutantStore store = new MutantStore();
+		int generation = store.newGeneration();
+		assertTrue("first mutant is kept", store.offer(digest(1), 1, generation));
+		assertFalse("copy of the mutant is dropped", store.offer(digest(1).clone(), 1, generation));
+		assertTrue("another mutant is kept", store.offer(digest(2), 1, generation));
+		assertTrue("one mutant was dropped", store.getDropped()==1);
+		assertTrue("two mutants are stored", store.size()==2);
+	}
+
+	/**
+	 * Digests differing only in their low 64 bits are different mutants.
+	 */
+	@Test
+	public void allDigestBitsAreUsed() {
+		MutantStore store = new MutantStore();
+		int generation = store.newGeneration();
+		byte[] d1 = digest(1);
+		byte[] d2 = digest(1);
+		d2[15]++;
+		assertTrue("first mutant is kept", store.offer(d1, 1, generation));
+		assertTrue("mutant with a different low half is kept", store.offer(d2, 1, generation));
+	}
+
+	/**
+	 * Across generations, mutants generated again are only dropped when they come from a greater depth,
+	 * whatever the candidate they come from.
+	 */
+	@Test
+	public void repeatedMutantsAcrossGenerations() {
+		MutantStore store = new MutantStore();
+		assertTrue("mutant is kept", store.offer(digest(1), 2, store.newGeneration()));
+		assertTrue("same mutant at the same depth is kept", store.offer(digest(1), 2, store.newGeneration()));
+		assertFalse("same mutant at a greater depth is dropped", store.offer(digest(1), 3, store.newGeneration()));
+		assertTrue("same mutant at a shallower depth is kept", store.offer(digest(1), 1, store.newGeneration()));
+		assertFalse("same mutant from the previous depth is now dropped", store.offer(digest(1), 2, store.newGeneration()));
+	}
+
+	/**
+	 * Whether a mutant is dropped does not depend on the order in which mutants are generated: a mutant
+	 * reached at the same depth through two candidates is kept for both, in any order.
+	 */
+	@Test
+	public void droppingDoesNotDependOnTheOrder() {
+		MutantStore inOrder = new MutantStore();
+		MutantStore reversed = new MutantStore();
+		assertTrue("first path keeps the mutant", inOrder.offer(digest(1), 2, inOrder.newGeneration()));
+		assertTrue("second path keeps the mutant", inOrder.offer(digest(1), 2, inOrder.newGeneration()));
+		assertTrue("second path keeps the mutant when first", reversed.offer(digest(1), 2, reversed.newGeneration()));
+		assertTrue("first path keeps the mutant when second", reversed.offer(digest(1), 2, reversed.newGeneration()));
+	}
+
+	/**
+	 * When dropping deeper repeats is disabled, only repeats of the seed and of the same generation are dropped.
+	 */
+	@Test
+	public void deeperRepeatsAreKeptWhenDisabled() {
+		MutantStore store = new MutantStore();
+		store.setDropDeeperRepeats(false);
+		store.seed(digest(0));
+		int generation = store.newGeneration();
+		assertTrue("mutant is kept", store.offer(digest(1), 1, generation));
+		assertFalse("repeat of the same generation is dropped", store.offer(digest(1), 1, generation));
+		assertTrue("same mutant at a greater depth is kept", store.offer(digest(1), 2, store.newGeneration()));
+		assertFalse("mutant repeating the seed is dropped", store.offer(digest(0), 2, store.newGeneration()));
+	}
+
+	/**
+	 * Mutants repeating the seeded program are dropped, and seeding it again does not count as a drop.
+	 */
+	@Test
+	public void mutantsRepeatingTheSeedAreDropped() {
+		MutantStore store = new MutantStore();
+		store.seed(digest(1));
+		store.seed(digest(1));
+		assertTrue("seeding does not drop mutants", store.getDropped()==0);
+		assertFalse("mutant repeating the seed is dropped", store.offer(digest(1), 1, store.newGeneration()));
+	}
+
+	/**
+	 * The store grows beyond its initial capacity, keeping all stored mutants.
+	 */
+	@Test
+	public void storeGrows() {
+		MutantStore store = new MutantStore();
+		int generation = store.newGeneration();
+		for (int i = 0; i < 5000; i++) {
+			assertTrue("new mutant is kept", store.offer(digest(i), 1, generation));
+		}
+		for (int i = 0; i < 5000; i++) {
+			assertFalse("repeated mutant is dropped", store.offer(digest(i), 1, generation));
+		}
+		assertTrue("all mutants are stored", store.size()==5000);
+	}
+
+	/**
+	 * Once full, the store keeps new mutants without storing them.
+	 */
+	@Test
+	public void storeIsBounded() {
+		MutantStore store = new MutantStore(2);
+		int generation = store.newGeneration();
+		assertTrue("new mutant is kept", store.offer(digest(1), 1, generation));
+		assertTrue("new mutant is kept", store.offer(digest(2), 1, generation));
+		assertTrue("new mutant is kept once the store is full", store.offer(digest(3), 1, generation));
+		assertTrue("mutant not stored is kept again", store.offer(digest(3), 1, generation));
+		assertFalse("stored mutant is still dropped", store.offer(digest(1), 1, generation));
+		assertTrue("the store is full", store.size()==2);
+	}
+
+}
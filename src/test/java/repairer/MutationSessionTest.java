@@ -0,0 +1,101 @@
+package repairer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MutationSessionTest {
+
+	/**
+	 * Describes mutants by their last mutation and the digest of their program, in a canonical order.
+	 */
+	private static List<String> describe(List<FixCandidate> mutants) {
+		List<String> descriptions = new ArrayList<String>();
+		for (FixCandidate mutant : mutants) {
+			List<String> mutations = new ArrayList<String>();
+			for (int i = 0; i < mutant.getMutations().size(); i++) {
+				mutations.add(mutant.getMutations().get(i).toString());
+			}
+			descriptions.add(mutations + Arrays.toString(mutant.getDigest()));
+		}
+		Collections.sort(descriptions);
+		return descriptions;
+	}
+
+	private static List<FixCandidate> generate(MuJavaAPI api) {
+		FixCandidate candidate = new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_2"));
+		return api.generateMutants(candidate, "method");
+	}
+
+	/**
+	 * The program of TestClass_4 can be mutated twice.
+	 */
+	private static FixCandidate twiceMutable() {
+		return new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_4"));
+	}
+
+	private static String outputDirectory() throws IOException {
+		return Files.createTempDirectory("mutants").toString() + "/";
+	}
+
+	/**
+	 * Generating mutants twice in the same (warm) session gives the same mutants as generating them in
+	 * two cold sessions.
+	 */
+	@Test
+	public void warmSessionGeneratesTheSameMutants() throws IOException {
+		MutationSession session = new MutationSession();
+		List<String> firstWarm = describe(generate(new MuJavaAPI(outputDirectory(), session)));
+		List<String> secondWarm = describe(generate(new MuJavaAPI(outputDirectory(), session)));
+		assertEquals("the second generation reused the environment", 1, session.getWarmGenerations());
+		List<String> firstCold = describe(generate(new MuJavaAPI(outputDirectory())));
+		List<String> secondCold = describe(generate(new MuJavaAPI(outputDirectory())));
+		assertFalse("mutants are generated", firstWarm.isEmpty());
+		assertEquals("cold sessions generate the same mutants", firstCold, secondCold);
+		assertEquals("the first generation of the session is cold", firstCold, firstWarm);
+		assertEquals("the warm generation gives the same mutants", firstCold, secondWarm);
+	}
+
+	/**
+	 * Mutating a mutant in a warm session, right after mutating the original program (as a search does),
+	 * gives the same mutants as mutating it in a cold session: the environment holds the mutant's class,
+	 * not the stale one of the original program.
+	 */
+	@Test
+	public void warmSessionGeneratesTheSameMutantsOfAMutant() throws IOException {
+		MutationSession session = new MutationSession();
+		List<FixCandidate> firstGeneration = new MuJavaAPI(outputDirectory(), session).generateMutants(twiceMutable(), "method");
+		assertFalse("mutants are generated", firstGeneration.isEmpty());
+		FixCandidate mutant = firstGeneration.get(0);
+		List<String> warm = describe(new MuJavaAPI(outputDirectory(), session).generateMutants(mutant, "method"));
+		assertEquals("the mutant was mutated in the warm environment", 1, session.getWarmGenerations());
+		List<String> cold = describe(new MuJavaAPI(outputDirectory()).generateMutants(mutant, "method"));
+		assertFalse("mutants of the mutant are generated", cold.isEmpty());
+		assertEquals("the warm generation gives the same mutants of the mutant", cold, warm);
+		for (FixCandidate secondGeneration : new MuJavaAPI(outputDirectory()).generateMutants(mutant, "method")) {
+			assertEquals("mutants of the mutant keep its mutation", mutant.getMutations().get(0).toString(), secondGeneration.getMutations().get(0).toString());
+		}
+	}
+
+	/**
+	 * A session is no longer warm once another session generated mutants.
+	 */
+	@Test
+	public void sessionCoolsDownWhenAnotherOneGenerates() throws IOException {
+		MutationSession session = new MutationSession();
+		generate(new MuJavaAPI(outputDirectory(), session));
+		generate(new MuJavaAPI(outputDirectory()));
+		generate(new MuJavaAPI(outputDirectory(), session));
+		assertTrue("no generation reused the environment", session.getWarmGenerations()==0);
+	}
+
+}
@@ -5,6 +5,10 @@ import static org.junit.Assert.*;
 import java.util.Arrays;
 import java.util.List;
 
+import mujava.api.Mutant;
+import mujava.api.MutantIdentifier;
+import openjava.ptree.Literal;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -128,5 +132,194 @@ public class StrykerRepairSearchProblemTest {
 		StrykerRepairSearchProblem problem = new StrykerRepairSearchProblem(program, "twicePlusOne", dependencies);
 		assertTrue("merged relevant classes is correct", problem.mergedRelevantClasses().compareTo(program.getClassName()+",a.b.Clase1,a.Main,a.b.util.Pair")==0);
 	}
+	
+	/**
+	 * Builds a mutation of a given line, replacing literal line by literal line+1.
+	 */
+	private static MutantIdentifier mutation(Mutant op, int line) {
+		MutantIdentifier mutation = new MutantIdentifier(op, Literal.makeLiteral(line), Literal.makeLiteral(line+1));
+		mutation.setAffectedLine(line);
+		return mutation;
+	}
+	
+	private static FixCandidate candidate(MutantIdentifier... mutations) {
+		return new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_1"), Arrays.asList(mutations));
+	}
+	
+	/**
+	 * Marks a candidate as generated from ancestors verified to be valid.
+	 */
+	private static FixCandidate withValidPrefixes(FixCandidate candidate) {
+		candidate.setValidPrefixes(true);
+		return candidate;
+	}
+	
+	private static StrykerRepairSearchProblem testClass1Problem() {
+		return new StrykerRepairSearchProblem(new JMLAnnotatedClass("src/test/resources/java/", "TestClass_1"), "method");
+	}
+	
+	@Test
+	public void testInCanonicalOrder_differentLinesInOrder() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		assertTrue("mutations of increasing lines are in canonical order", problem.inCanonicalOrder(candidate(mutation(Mutant.ROR, 7), mutation(Mutant.AORB, 8))));
+	}
+	
+	@Test
+	public void testInCanonicalOrder_differentLinesOutOfOrder() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		assertFalse("mutations of decreasing lines are not in canonical order", problem.inCanonicalOrder(candidate(mutation(Mutant.AORB, 8), mutation(Mutant.ROR, 7))));
+	}
+	
+	@Test
+	public void testInCanonicalOrder_sameLineNeverPruned() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		assertTrue("mutations of the same line are not pruned", problem.inCanonicalOrder(candidate(mutation(Mutant.ROR, 8), mutation(Mutant.AORB, 8))));
+		assertTrue("mutations of the same line are not pruned, in any order", problem.inCanonicalOrder(candidate(mutation(Mutant.AORB, 8), mutation(Mutant.ROR, 8))));
+	}
+	
+	@Test
+	public void testInCanonicalOrder_outOfMethodNeverPruned() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		assertTrue("mutations outside the method are not pruned", problem.inCanonicalOrder(candidate(mutation(Mutant.IHD, 8), mutation(Mutant.ROR, 7))));
+		assertTrue("mutations outside the method are not pruned, in any order", problem.inCanonicalOrder(candidate(mutation(Mutant.ROR, 8), mutation(Mutant.IHD, 7))));
+	}
+	
+	@Test
+	public void testInCanonicalOrder_onlyLastTwoMutationsCompared() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		assertTrue("a single mutation is in canonical order", problem.inCanonicalOrder(candidate(mutation(Mutant.ROR, 8))));
+		assertFalse("last mutation before the previous one is pruned", problem.inCanonicalOrder(candidate(mutation(Mutant.ROR, 5), mutation(Mutant.ROR, 9), mutation(Mutant.AORB, 8))));
+	}
+	
+	/**
+	 * Returns the successor of a candidate whose last mutation, at a given line, produces the given code.
+	 */
+	private static FixCandidate successor(List<FixCandidate> successors, int line, String mutant) {
+		for (FixCandidate successor : successors) {
+			MutantIdentifier last = successor.getMutations().get(successor.getMutations().size()-1);
+			if (last.getAffectedLine()==line && last.getMutant().toFlattenString().trim().equals(mutant)) return successor;
+		}
+		return null;
+	}
+	
+	@Test
+	public void testInCanonicalOrder_outOfOrderPairPrunedAndSameProgram() {
+		JMLAnnotatedClass program = new JMLAnnotatedClass("src/test/resources/java/", "TestClass_5");
+		StrykerRepairSearchProblem problem = new StrykerRepairSearchProblem(program, "method");
+		List<FixCandidate> successors = problem.getSuccessors(problem.initialState());
+		FixCandidate first = successor(successors, 3, "a - 2");
+		FixCandidate second = successor(successors, 4, "b + 3");
+		assertNotNull("the first line is mutated", first);
+		assertNotNull("the second line is mutated", second);
+		FixCandidate inOrder = successor(problem.getSuccessors(first), 4, "b + 3");
+		FixCandidate outOfOrder = successor(problem.getSuccessors(second), 3, "a - 2");
+		assertNotNull("the pair is generated in order", inOrder);
+		assertNotNull("the pair is generated out of order", outOfOrder);
+		assertFalse("the out of order pair is not in canonical order", problem.inCanonicalOrder(outOfOrder));
+		assertTrue("both pairs give the same program", Arrays.equals(inOrder.getDigest(), outOfOrder.getDigest()));
+		StrykerRepairSearchProblem canonical = new StrykerRepairSearchProblem(program, "method");
+		canonical.setCanonicalOrder(true);
+		assertNotNull("the in order pair is kept", successor(canonical.getSuccessors(first), 4, "b + 3"));
+		assertNull("the out of order pair is pruned", successor(canonical.getSuccessors(second), 3, "a - 2"));
+	}
+	
+	@Test
+	public void testContainsNogood_disabledByDefault() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		problem.learnNogood(candidate(mutation(Mutant.ROR, 7)));
+		assertTrue("no nogoods are learned by default", problem.getLearnedNogoods()==0);
+		assertFalse("no candidates are pruned by default", problem.containsNogood(candidate(mutation(Mutant.ROR, 7))));
+	}
+	
+	@Test
+	public void testContainsNogood_learnedMutationIsSkipped() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		problem.setNogoodLearning(true);
+		problem.learnNogood(withValidPrefixes(candidate(mutation(Mutant.AORB, 8), mutation(Mutant.ROR, 7))));
+		assertTrue("only the last mutation is learned", problem.getLearnedNogoods()==1);
+		assertTrue("the nogood is skipped", problem.containsNogood(candidate(mutation(Mutant.ROR, 7))));
+		assertTrue("the nogood is skipped after other mutations", problem.containsNogood(candidate(mutation(Mutant.AORB, 9), mutation(Mutant.ROR, 7))));
+		assertTrue("the nogood is skipped when later mutations touch other lines", problem.containsNogood(candidate(mutation(Mutant.ROR, 7), mutation(Mutant.AORB, 9))));
+		assertFalse("the first mutation is not learned", problem.containsNogood(candidate(mutation(Mutant.AORB, 8))));
+	}
+	
+	@Test
+	public void testContainsNogood_notLearnedFromInvalidAncestors() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		problem.setNogoodLearning(true);
+		FixCandidate invalidChild = candidate(mutation(Mutant.AORB, 8), mutation(Mutant.ROR, 8));
+		problem.learnNogood(invalidChild);
+		assertTrue("the candidate is known to be invalid", invalidChild.isKnownInvalid());
+		assertTrue("no nogood is learned when an ancestor may be the offending one", problem.getLearnedNogoods()==0);
+		assertFalse("candidates with the last mutation are not pruned", problem.containsNogood(candidate(mutation(Mutant.ROR, 8))));
+	}
+	
+	@Test
+	public void testContainsNogood_keptWhenLaterMutationTouchesItsLine() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		problem.setNogoodLearning(true);
+		problem.learnNogood(candidate(mutation(Mutant.ROR, 7)));
+		assertFalse("a later mutation of the same line may fix the nogood", problem.containsNogood(candidate(mutation(Mutant.ROR, 7), mutation(Mutant.AORB, 7))));
+	}
+	
+	/**
+	 * Marks a candidate as verified to be invalid.
+	 */
+	private static FixCandidate invalid(FixCandidate candidate) {
+		candidate.setValid(false);
+		return candidate;
+	}
+	
+	@Test
+	public void testPrunedMutation_subtreeOfInvalidCandidateSkipped() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		problem.setNogoodLearning(true);
+		FixCandidate candidate = invalid(candidate(mutation(Mutant.ROR, 7)));
+		assertTrue("mutations of other lines are pruned", problem.prunedMutation(candidate, mutation(Mutant.AORB, 8)));
+		assertFalse("mutations of the offending line are kept", problem.prunedMutation(candidate, mutation(Mutant.AORB, 7)));
+		assertTrue("mutations outside the method are pruned", problem.prunedMutation(candidate, mutation(Mutant.IHD, 7)));
+	}
+	
+	@Test
+	public void testPrunedMutation_validOrUnverifiedCandidatesNotPruned() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		problem.setNogoodLearning(true);
+		FixCandidate valid = candidate(mutation(Mutant.ROR, 7));
+		valid.setValid(true);
+		assertFalse("mutations of valid candidates are kept", problem.prunedMutation(valid, mutation(Mutant.AORB, 8)));
+		assertFalse("mutations of unverified candidates are kept", problem.prunedMutation(candidate(mutation(Mutant.ROR, 7)), mutation(Mutant.AORB, 8)));
+		problem.setNogoodLearning(false);
+		assertFalse("nothing is pruned when not learning nogoods", problem.prunedMutation(invalid(candidate(mutation(Mutant.ROR, 7))), mutation(Mutant.AORB, 8)));
+	}
+	
+	@Test
+	public void testPrunedMutation_anyMutationMayBeOffendingWithInvalidAncestors() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		problem.setNogoodLearning(true);
+		FixCandidate candidate = invalid(candidate(mutation(Mutant.ROR, 7), mutation(Mutant.AORB, 9)));
+		assertFalse("mutations of the line of an earlier mutation are kept", problem.prunedMutation(candidate, mutation(Mutant.AORB, 7)));
+		assertFalse("mutations of the line of the last mutation are kept", problem.prunedMutation(candidate, mutation(Mutant.ROR, 9)));
+		assertTrue("mutations of other lines are pruned", problem.prunedMutation(candidate, mutation(Mutant.ROR, 8)));
+		FixCandidate fromValidAncestors = invalid(withValidPrefixes(candidate(mutation(Mutant.ROR, 7), mutation(Mutant.AORB, 9))));
+		assertTrue("only the last mutation is offending when ancestors are valid", problem.prunedMutation(fromValidAncestors, mutation(Mutant.AORB, 7)));
+	}
+	
+	@Test
+	public void testPrunedMutation_nothingPrunedWhenOffendingMutationIsOutsideTheMethod() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		problem.setNogoodLearning(true);
+		FixCandidate candidate = invalid(candidate(mutation(Mutant.IHD, 7)));
+		assertFalse("mutations are kept", problem.prunedMutation(candidate, mutation(Mutant.AORB, 8)));
+	}
+	
+	@Test
+	public void testContainsNogood_forgottenWhenDisabled() {
+		StrykerRepairSearchProblem problem = testClass1Problem();
+		problem.setNogoodLearning(true);
+		problem.learnNogood(candidate(mutation(Mutant.ROR, 7)));
+		problem.setNogoodLearning(false);
+		assertTrue("nogoods are forgotten", problem.getLearnedNogoods()==0);
+		assertFalse("nogoods no longer prune candidates", problem.containsNogood(candidate(mutation(Mutant.ROR, 7))));
+	}
 
 }
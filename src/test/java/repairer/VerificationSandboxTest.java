@@ -0,0 +1,42 @@
+package repairer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class VerificationSandboxTest {
+
+	/**
+	 * A sandbox is a copy of the compilation sandbox, in a directory of its own, deleted with the sandbox.
+	 */
+	@Test
+	public void sandboxIsACopyOfTheCompilationSandbox() throws IOException {
+		VerificationSandbox sandbox = VerificationSandbox.create("src/test/resources/java/");
+		File sourceDir = new File(sandbox.getSourceDir());
+		assertTrue("classes are copied", new File(sourceDir, "TestClass_2.java").exists());
+		assertFalse("the sandbox is not the compilation sandbox", sourceDir.getCanonicalPath().equals(new File("src/test/resources/java/").getCanonicalPath()));
+		assertTrue("the sandbox is deleted", sandbox.delete());
+		assertFalse("the copy is deleted", sourceDir.exists());
+	}
+
+	/**
+	 * A candidate that does not compile is found invalid by the child JVM, in the sandbox.
+	 */
+	@Test
+	public void candidateThatDoesNotCompileIsInvalid() throws IOException {
+		VerificationSandbox sandbox = VerificationSandbox.create("src/test/resources/java/");
+		try {
+			FixCandidate candidate = new FixCandidate(new JMLAnnotatedClass("src/test/resources/java/", "whatever"));
+			assertEquals("the candidate is invalid", VerificationSandbox.Verdict.INVALID, sandbox.verify(candidate, new Properties()));
+		} finally {
+			sandbox.delete();
+		}
+	}
+
+}
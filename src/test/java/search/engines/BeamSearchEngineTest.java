@@ -0,0 +1,168 @@
+package search.engines;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import search.Heuristic;
+import search.engines.IntSearchFixture.BatchFindIntProblem;
+import search.engines.IntSearchFixture.FindIntProblem;
+import search.engines.IntSearchFixture.IntState;
+/**
+ * Unit tests for search engine BeamSearchEngine.
+ *
+ */
+public class BeamSearchEngineTest {
+
+	/**
+	 * Heuristic that scores states by their depth (leading to a breadth-first exploration).
+	 */
+	public class DepthHeuristic implements Heuristic<IntState> {
+		
+		public double score(IntState s, int depth) {
+			return depth;
+		}
+		
+	}
+	
+	/**
+	 * Heuristic that scores states by their distance to a given goal.
+	 */
+	public class DistanceHeuristic implements Heuristic<IntState> {
+		
+		private int goal;
+		
+		public DistanceHeuristic(int goal) {
+			this.goal = goal;
+		}
+		
+		public double score(IntState s, int depth) {
+			return Math.abs(goal-s.getValue());
+		}
+		
+	}
+	
+	/**
+	 * Search for 0 up to depth 0, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testBeamWithNilBoundsSuccess() {
+		FindIntProblem problem = new FindIntProblem(0);
+		BeamSearchEngine<IntState, FindIntProblem> engine = 
+				new BeamSearchEngine<IntState, FindIntProblem>(new DepthHeuristic(), 1024);
+		engine.setProblem(problem);
+		engine.setMaxDepth(0);
+		assertTrue("number 0 should be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 1 up to depth 0, starting from 0. Should fail!
+	 */
+	@Test
+	public void testBeamWithNilBoundsFail() {
+		FindIntProblem problem = new FindIntProblem(1);
+		BeamSearchEngine<IntState, FindIntProblem> engine = 
+				new BeamSearchEngine<IntState, FindIntProblem>(new DepthHeuristic(), 1024);
+		engine.setProblem(problem);
+		engine.setMaxDepth(0);
+		assertFalse("number 1 should not be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 2 up to depth 1, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testBeamSuccessWithinBounds() {
+		FindIntProblem problem = new FindIntProblem(2);
+		BeamSearchEngine<IntState, FindIntProblem> engine = 
+				new BeamSearchEngine<IntState, FindIntProblem>(new DepthHeuristic(), 1024);
+		engine.setProblem(problem);
+		engine.setMaxDepth(1);
+		assertTrue("number 2 should be found in depth 1", engine.performSearch());
+	}
+
+	/**
+	 * Search for 2 up to depth 0, starting from 0. Should fail!
+	 */
+	@Test
+	public void testBeamSuccessOutsideBounds() {
+		FindIntProblem problem = new FindIntProblem(2);
+		BeamSearchEngine<IntState, FindIntProblem> engine = 
+				new BeamSearchEngine<IntState, FindIntProblem>(new DepthHeuristic(), 1024);
+		engine.setProblem(problem);
+		engine.setMaxDepth(0);
+		assertFalse("number 2 should be not be found up to depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testBeamSuccessInsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(20);
+		BeamSearchEngine<IntState, FindIntProblem> engine = 
+				new BeamSearchEngine<IntState, FindIntProblem>(new DepthHeuristic(), 1024);
+		engine.setProblem(problem);
+		engine.setMaxDepth(10);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0. Should fail!
+	 */
+	@Test
+	public void testBeamSuccessOutsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(21);
+		BeamSearchEngine<IntState, FindIntProblem> engine = 
+				new BeamSearchEngine<IntState, FindIntProblem>(new DepthHeuristic(), 1024);
+		engine.setProblem(problem);
+		engine.setMaxDepth(10);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, with a beam of width 1 guided by the distance 
+	 * to 20. Should succeed, visiting a single state per level.
+	 */
+	@Test
+	public void testBeamGuidedByHeuristic() {
+		FindIntProblem problem = new FindIntProblem(20);
+		BeamSearchEngine<IntState, FindIntProblem> engine = 
+				new BeamSearchEngine<IntState, FindIntProblem>(problem, new DistanceHeuristic(20), 1, 10);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+		assertTrue("a single state per level should be visited", engine.report().startsWith("Number of visited states: 11,"));
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, with a beam of width 1 misguided by the distance 
+	 * to 10 (so that the beam reaches 10 at depth 5, and then only grows by one per level). Should 
+	 * fail, since beam search is incomplete.
+	 */
+	@Test
+	public void testBeamMissesSolutionOutsideBeam() {
+		FindIntProblem problem = new FindIntProblem(20);
+		BeamSearchEngine<IntState, FindIntProblem> engine = 
+				new BeamSearchEngine<IntState, FindIntProblem>(problem, new DistanceHeuristic(10), 1, 10);
+		assertFalse("number 20 should not be found with a misguided beam of width 1", engine.performSearch());
+	}
+
+	/**
+	 * Search for 20 up to depth 4, starting from 0, with a beam of width 2, on a problem checking
+	 * states in batches. Should fail, checking siblings kept in the beam together, but never
+	 * checking children discarded from the beam.
+	 */
+	@Test
+	public void testBeamBatchesOnlyKeptSiblings() {
+		BatchFindIntProblem problem = new BatchFindIntProblem(20);
+		BeamSearchEngine<IntState, FindIntProblem> engine = 
+				new BeamSearchEngine<IntState, FindIntProblem>(problem, new DistanceHeuristic(20), 2, 4);
+		SearchStatistics statistics = new SearchStatistics();
+		engine.setStatistics(statistics);
+		assertFalse("number 20 should not be found (search up to depth 4)", engine.performSearch());
+		assertTrue("siblings should be checked together", problem.batchCalls>0);
+		assertEquals("only visited states should be checked", statistics.getVisitedStates(), problem.checked);
+	}
+
+}
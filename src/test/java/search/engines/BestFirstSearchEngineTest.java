@@ -0,0 +1,137 @@
+package search.engines;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import search.Heuristic;
+import search.engines.IntSearchFixture.FindIntProblem;
+import search.engines.IntSearchFixture.IntState;
+/**
+ * Unit tests for search engine BestFirstSearchEngine.
+ *
+ */
+public class BestFirstSearchEngineTest {
+
+	/**
+	 * Heuristic that scores states by their depth (leading to a breadth-first exploration).
+	 */
+	public class DepthHeuristic implements Heuristic<IntState> {
+		
+		public double score(IntState s, int depth) {
+			return depth;
+		}
+		
+	}
+	
+	/**
+	 * Heuristic that scores states by their distance to a given goal.
+	 */
+	public class DistanceHeuristic implements Heuristic<IntState> {
+		
+		private int goal;
+		
+		public DistanceHeuristic(int goal) {
+			this.goal = goal;
+		}
+		
+		public double score(IntState s, int depth) {
+			return Math.abs(goal-s.getValue());
+		}
+		
+	}
+	
+	/**
+	 * Search for 0 up to depth 0, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testBestFirstWithNilBoundsSuccess() {
+		FindIntProblem problem = new FindIntProblem(0);
+		BestFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BestFirstSearchEngine<IntState, FindIntProblem>(new DepthHeuristic());
+		engine.setProblem(problem);
+		engine.setMaxDepth(0);
+		assertTrue("number 0 should be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 1 up to depth 0, starting from 0. Should fail!
+	 */
+	@Test
+	public void testBestFirstWithNilBoundsFail() {
+		FindIntProblem problem = new FindIntProblem(1);
+		BestFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BestFirstSearchEngine<IntState, FindIntProblem>(new DepthHeuristic());
+		engine.setProblem(problem);
+		engine.setMaxDepth(0);
+		assertFalse("number 1 should not be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 2 up to depth 1, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testBestFirstSuccessWithinBounds() {
+		FindIntProblem problem = new FindIntProblem(2);
+		BestFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BestFirstSearchEngine<IntState, FindIntProblem>(new DepthHeuristic());
+		engine.setProblem(problem);
+		engine.setMaxDepth(1);
+		assertTrue("number 2 should be found in depth 1", engine.performSearch());
+	}
+
+	/**
+	 * Search for 2 up to depth 0, starting from 0. Should fail!
+	 */
+	@Test
+	public void testBestFirstSuccessOutsideBounds() {
+		FindIntProblem problem = new FindIntProblem(2);
+		BestFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BestFirstSearchEngine<IntState, FindIntProblem>(new DepthHeuristic());
+		engine.setProblem(problem);
+		engine.setMaxDepth(0);
+		assertFalse("number 2 should be not be found up to depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testBestFirstSuccessInsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(20);
+		BestFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BestFirstSearchEngine<IntState, FindIntProblem>(new DepthHeuristic());
+		engine.setProblem(problem);
+		engine.setMaxDepth(10);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0. Should fail!
+	 */
+	@Test
+	public void testBestFirstSuccessOutsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(21);
+		BestFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BestFirstSearchEngine<IntState, FindIntProblem>(new DepthHeuristic());
+		engine.setProblem(problem);
+		engine.setMaxDepth(10);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, guided by the distance to 20. Should succeed,
+	 * visiting only the states along a path to 20.
+	 */
+	@Test
+	public void testBestFirstGuidedByHeuristic() {
+		FindIntProblem problem = new FindIntProblem(20);
+		BestFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BestFirstSearchEngine<IntState, FindIntProblem>(problem, new DistanceHeuristic(20), 10);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+		assertTrue("only the states along a path to 20 should be visited", engine.report().equals("Number of visited states: 11"));
+	}
+	
+	
+}
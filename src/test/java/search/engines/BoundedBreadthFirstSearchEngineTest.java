@@ -1,15 +1,25 @@
 package search.engines;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
 import org.junit.Test;
 
-import search.AbstractSearchProblem;
-import search.State;
+import search.SolutionHandler;
+import search.StateSerializer;
+import search.engines.IntSearchFixture.BatchFindIntProblem;
+import search.engines.IntSearchFixture.FindIntProblem;
+import search.engines.IntSearchFixture.IntState;
+import search.engines.IntSearchFixture.IntStateFingerprinter;
 /**
  * Unit tests for search engine BoundedBreadthFirstSearchEngine.
  * @author aguirre
@@ -17,100 +27,6 @@ import search.State;
  */
 public class BoundedBreadthFirstSearchEngineTest {
 
-	/**
-	 * IntState is a simple search state represented simply as an integer number.
-	 * @author aguirre
-	 *
-	 */
-	public class IntState implements State {
-		
-		private int value;  // value of current state
-		
-		/**
-		 * Constructor of IntState. Sets value of state to the parameter
-		 * @param value is the value to set the state.
-		 */
-		public IntState(int value) {
-			this.value = value;
-		}
-
-		/**
-		 * Returns the value of the current state.
-		 * @return value of the current state.
-		 */
-		public int getValue() {
-			return value;
-		}
-		
-		/**
-		 * Indicates whether two states are equal or not.
-		 */
-		public boolean equals(State other) {
-			if (!(other instanceof IntState)) return false;
-			IntState otherIntState = (IntState) other;
-			return (this.value==otherIntState.value);
-		}
-		
-	}
-	
-	/**
-	 * Simple search problem defined for testing purposes.
-	 * The search problem simply consists in searching for an integer
-	 * value in a state space of integers. Initial state is 0.
-	 * Successors of a state i are (i+1) and (i+2). A state is successful if it's
-	 * equal to the goal of the problem (set with the constructor).
-	 * @author aguirre
-	 *
-	 */
-	public class FindIntProblem implements AbstractSearchProblem<IntState> {
-		
-		private int goal; // value to search for.
-
-		/**
-		 * Constructor for FindIntProblem. Sets the value to search for.
-		 * @param goal is the value to search for.
-		 */
-		public FindIntProblem(int goal) {
-			this.goal = goal;
-		}
-
-		/**
-		 * Returns the initial state of the problem. In this case
-		 * the initial state is zero.		
-		 */
-		public IntState initialState() {
-			return new IntState(0);
-		}
-
-		/**
-		 * Returns the successors of an initial state. In this case, the successors
-		 * of a value i are (i+1) and (i+2).
-		 */
-		public List<IntState> getSuccessors(IntState s) {
-			List<IntState> children = new LinkedList<IntState>();
-			children.add(new IntState(s.getValue()+1));
-			children.add(new IntState(s.getValue()+2));
-			return children;
-		}
-
-		/**
-		 * It decides whether a state is successful or not, comparing it with
-		 * the goal of the problem. Returns true iff s is the goal
-		 */
-		public boolean success(IntState s) {
-			return (this.goal==s.getValue());
-		}
-		
-		/**
-		 * It sets the goal of the problem.
-		 * @param goal is the new value to search for.
-		 */
-		public void setGoal(int goal) {
-			this.goal = goal;
-		}
-		
-	}
-	
 	/**
 	 * Search for 0 up to depth 0, starting from 0. Should succeed!
 	 */
@@ -188,6 +104,427 @@ public class BoundedBreadthFirstSearchEngineTest {
 		engine.setMaxDepth(10);
 		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
 	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, with duplicate detection. Should succeed!
+	 */
+	@Test
+	public void testBoundedBfsWithDuplicateDetectionSuccess() {
+		FindIntProblem problem = new FindIntProblem(20);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setDuplicateDetection(new IntStateFingerprinter(), 1000);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, with duplicate detection. Should fail,
+	 * visiting each of the numbers 0 to 20 once, instead of the 2047 states visited without
+	 * duplicate detection. The other 18 of the 39 states reached (0, and two successors for
+	 * each of 0 to 18) are skipped as duplicated.
+	 */
+	@Test
+	public void testBoundedBfsWithDuplicateDetectionFail() {
+		FindIntProblem problem = new FindIntProblem(21);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> plain = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		assertFalse("number 21 should not be found (search up to depth 10)", plain.performSearch());
+		assertEquals("Number of visited states: 2047", plain.report());
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setDuplicateDetection(new IntStateFingerprinter(), 1000);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals("Number of visited states: 21, duplicated states skipped: 18", engine.report());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, visiting at most 100 states. Should fail,
+	 * reporting that the visited states budget ran out.
+	 */
+	@Test
+	public void testBoundedBfsVisitedStatesBudgetExhausted() {
+		FindIntProblem problem = new FindIntProblem(20);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setBudget(new SearchBudget(0, 100, 0));
+		assertFalse("number 20 should not be found visiting 100 states", engine.performSearch());
+		assertEquals(SearchBudget.Limit.VISITED_STATES, engine.getExhaustedBudget());
+		assertEquals(100, engine.getBudget().getVisitedStates());
+		assertTrue("exhausted budget should be reported", engine.report().contains("search stopped"));
+	}
+
+	/**
+	 * Search for 2 up to depth 1, starting from 0, verifying at most 2 states. Should fail,
+	 * reporting that the verifications budget ran out.
+	 */
+	@Test
+	public void testBoundedBfsVerificationsBudgetExhausted() {
+		FindIntProblem problem = new FindIntProblem(2);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 1);
+		engine.setBudget(new SearchBudget(0, 0, 2));
+		assertFalse("number 2 should not be found verifying 2 states", engine.performSearch());
+		assertEquals(SearchBudget.Limit.VERIFICATIONS, engine.getExhaustedBudget());
+	}
+
+	/**
+	 * Search for 2 up to depth 1, starting from 0, verifying at most 3 states. Should succeed!
+	 */
+	@Test
+	public void testBoundedBfsWithinBudgetSuccess() {
+		FindIntProblem problem = new FindIntProblem(2);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 1);
+		engine.setBudget(new SearchBudget(0, 0, 3));
+		assertTrue("number 2 should be found verifying 3 states", engine.performSearch());
+		assertNull("budget should not be exhausted", engine.getExhaustedBudget());
+	}
+
+	/**
+	 * Search for all occurrences of 2 up to depth 2, starting from 0. Should find 2
+	 * at depth 1 (0,2) and at depth 2 (0,1,2), in that order.
+	 */
+	@Test
+	public void testBoundedBfsFindAllSolutions() {
+		FindIntProblem problem = new FindIntProblem(2);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 2);
+		final List<Integer> depths = new LinkedList<Integer>();
+		assertTrue("number 2 should be found up to depth 2", engine.performSearch(new SolutionHandler<IntState>() {
+			public boolean solutionFound(IntState solution, int depth) {
+				depths.add(depth);
+				return true;
+			}
+		}));
+		assertEquals(2, depths.size());
+		assertEquals(1, depths.get(0).intValue());
+		assertEquals(2, depths.get(1).intValue());
+	}
+
+	/**
+	 * Search for the first occurrence of 2 up to depth 2, starting from 0. Should find only one.
+	 */
+	@Test
+	public void testBoundedBfsFindFirstSolutions() {
+		FindIntProblem problem = new FindIntProblem(2);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 2);
+		assertEquals(1, engine.findSolutions(1).size());
+		assertEquals(2, engine.getSolution().getValue());
+	}
+
+	/**
+	 * Serialiser for IntState, which simply writes the value of the state.
+	 */
+	public class IntStateSerializer implements StateSerializer<IntState> {
+		
+		public void write(IntState s, DataOutput out) throws IOException {
+			out.writeInt(s.getValue());
+		}
+		
+		public IntState read(DataInput in) throws IOException {
+			return new IntState(in.readInt());
+		}
+		
+	}
 	
-	
+	/**
+	 * Search for 21 up to depth 10, starting from 0, stopped after visiting 100 states and then
+	 * resumed from its checkpoint. Should fail, visiting the same states as an uninterrupted search.
+	 */
+	@Test
+	public void testBoundedBfsResumedFromCheckpointFail() throws IOException {
+		File checkpoint = File.createTempFile("search", ".checkpoint");
+		checkpoint.delete();
+		FindIntProblem problem = new FindIntProblem(21);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setCheckpointing(checkpoint, new IntStateSerializer(), 60000);
+		engine.setBudget(new SearchBudget(0, 100, 0));
+		assertFalse("search should run out of budget", engine.performSearch());
+		assertTrue("checkpoint should be saved", checkpoint.exists());
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> resumed = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		resumed.setCheckpointing(checkpoint, new IntStateSerializer(), 60000);
+		resumed.resumeFrom(checkpoint, new IntStateSerializer());
+		assertFalse("number 21 should not be found (search up to depth 10)", resumed.performSearch());
+		assertEquals("Number of visited states: 2047", resumed.report());
+		assertFalse("checkpoint should be deleted", checkpoint.exists());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, stopped after visiting 5 states and then
+	 * resumed from its checkpoint. Should succeed!
+	 */
+	@Test
+	public void testBoundedBfsResumedFromCheckpointSuccess() throws IOException {
+		File checkpoint = File.createTempFile("search", ".checkpoint");
+		checkpoint.delete();
+		FindIntProblem problem = new FindIntProblem(20);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setCheckpointing(checkpoint, new IntStateSerializer(), 60000);
+		engine.setBudget(new SearchBudget(0, 5, 0));
+		engine.performSearch();
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> resumed = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		resumed.resumeFrom(checkpoint, new IntStateSerializer());
+		checkpoint.delete();
+		assertTrue("number 20 should be found (search up to depth 10)", resumed.performSearch());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, with at most 16 opened states in memory at
+	 * each end of the queue. Should fail, visiting the same states as a search without spilling.
+	 */
+	@Test
+	public void testBoundedBfsWithFrontierSpillingFail() {
+		FindIntProblem problem = new FindIntProblem(21);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setFrontierSpilling(new File(System.getProperty("java.io.tmpdir")), new IntStateSerializer(), 16);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals("Number of visited states: 2047", engine.report());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, with at most 16 opened states in memory at
+	 * each end of the queue. Should succeed!
+	 */
+	@Test
+	public void testBoundedBfsWithFrontierSpillingSuccess() {
+		FindIntProblem problem = new FindIntProblem(20);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setFrontierSpilling(new File(System.getProperty("java.io.tmpdir")), new IntStateSerializer(), 16);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+		assertEquals(20, engine.getSolution().getValue());
+	}
+
+	/**
+	 * States offered to a disk spilling queue are polled in FIFO order, whether they were kept
+	 * in memory or spilled, and only a bounded number of them are kept in memory.
+	 */
+	@Test
+	public void testDiskSpillingQueueIsFifo() {
+		DiskSpillingQueue<IntState> queue = 
+				new DiskSpillingQueue<IntState>(new File(System.getProperty("java.io.tmpdir")), new IntStateSerializer(), 4);
+		int next = 0;
+		for (int i = 0; i < 30; i++) {
+			queue.offer(new IntState(i), i%5);
+			if (i%3==0) {
+				assertEquals(next%5, queue.peekDepth());
+				assertEquals(next++, queue.poll().getValue());
+			}
+			assertTrue("at most 8 states should be kept in memory", queue.inMemory()<=8);
+		}
+		assertEquals(30-next, queue.size());
+		SearchCheckpoint<IntState> checkpoint = new SearchCheckpoint<IntState>("bfs", 10, 0, 0, null);
+		queue.saveTo(checkpoint);
+		assertEquals(30-next, checkpoint.size());
+		for (int i = 0; i < checkpoint.size(); i++) {
+			assertEquals(next+i, checkpoint.getState(i).getValue());
+			assertEquals((next+i)%5, checkpoint.getDepth(i));
+		}
+		while (!queue.isEmpty()) {
+			assertEquals(next%5, queue.peekDepth());
+			assertEquals(next++, queue.poll().getValue());
+		}
+		assertEquals(30, next);
+		assertNull(queue.poll());
+		queue.clear();
+	}
+
+	/**
+	 * States offered to an array state queue are polled in FIFO order, also when the
+	 * queue grows while its head is not at the beginning of the buffer.
+	 */
+	@Test
+	public void testArrayStateQueueIsFifo() {
+		ArrayStateQueue<IntState> queue = new ArrayStateQueue<IntState>();
+		int next = 0;
+		for (int i = 0; i < 100; i++) {
+			queue.offer(new IntState(i), i);
+			if (i%2==0) {
+				assertEquals(next, queue.peekDepth());
+				assertEquals(next++, queue.poll().getValue());
+			}
+		}
+		assertEquals(50, queue.size());
+		for (int i = 0; i < queue.size(); i++) {
+			assertEquals(next+i, queue.get(i).getValue());
+		}
+		while (!queue.isEmpty()) {
+			assertEquals(next++, queue.poll().getValue());
+		}
+		assertEquals(100, next);
+		assertNull(queue.poll());
+	}
+
+	/**
+	 * Search for 21 up to depth 3, starting from 0, collecting statistics. Should fail, visiting
+	 * 2^d states at each depth d, with a branching factor of 2.
+	 */
+	@Test
+	public void testBoundedBfsStatistics() {
+		FindIntProblem problem = new FindIntProblem(21);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 3);
+		SearchStatistics statistics = new SearchStatistics();
+		engine.setStatistics(statistics);
+		assertFalse("number 21 should not be found (search up to depth 3)", engine.performSearch());
+		assertEquals(15, statistics.getVisitedStates());
+		for (int depth = 0; depth <= 3; depth++) {
+			assertEquals(1<<depth, statistics.getVisitedStates(depth));
+		}
+		assertEquals(3, statistics.getDeepestLevel());
+		assertEquals(7, statistics.getExpandedStates());
+		assertEquals(2.0, statistics.getBranchingFactor(), 0.0001);
+		assertEquals(15, statistics.getVerifications());
+		assertEquals(8, statistics.getPeakFrontier());
+		assertEquals(-1, statistics.getTimeToFirstSolution());
+		assertTrue(statistics.getSuccessTimePercentile(50)<=statistics.getSuccessTimePercentile(99));
+		assertTrue(statistics.report().startsWith("visited states by depth: [1, 2, 4, 8], expanded states: 7"));
+	}
+
+	/**
+	 * Search for 3 up to depth 3, starting from 0, collecting statistics. Should succeed, 
+	 * recording the time to the solution.
+	 */
+	@Test
+	public void testBoundedBfsStatisticsSuccess() {
+		FindIntProblem problem = new FindIntProblem(3);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 3);
+		SearchStatistics statistics = new SearchStatistics();
+		engine.setStatistics(statistics);
+		assertTrue("number 3 should be found (search up to depth 3)", engine.performSearch());
+		assertTrue(statistics.getTimeToFirstSolution()>=0);
+		assertEquals(2, statistics.getDeepestLevel());
+	}
+
+	/**
+	 * Search listener counting the events of a search.
+	 */
+	public class CountingListener implements SearchListener<IntState> {
+		
+		int expanded = 0;
+		int generated = 0;
+		int evaluated = 0;
+		int solutions = 0;
+		int finished = 0;
+		boolean found = false;
+		
+		public void stateExpanded(IntState state) {
+			expanded++;
+		}
+		
+		public void successorsGenerated(IntState state, int generated, long nanos) {
+			this.generated += generated;
+		}
+		
+		public void successEvaluated(IntState state, boolean successful, long nanos) {
+			evaluated++;
+		}
+		
+		public void solutionFound(IntState solution, int depth) {
+			solutions++;
+		}
+		
+		public void searchFinished(boolean found) {
+			finished++;
+			this.found = found;
+		}
+		
+	}
+
+	/**
+	 * Search for 21 up to depth 3, starting from 0, with a listener. Should fail, and the listener
+	 * should receive the events of the search.
+	 */
+	@Test
+	public void testBoundedBfsListenerFail() {
+		FindIntProblem problem = new FindIntProblem(21);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 3);
+		CountingListener listener = new CountingListener();
+		engine.addSearchListener(listener);
+		assertFalse("number 21 should not be found (search up to depth 3)", engine.performSearch());
+		assertEquals(7, listener.expanded);
+		assertEquals(14, listener.generated);
+		assertEquals(15, listener.evaluated);
+		assertEquals(0, listener.solutions);
+		assertEquals(1, listener.finished);
+		assertFalse(listener.found);
+	}
+
+	/**
+	 * Search for 3 up to depth 3, starting from 0, with a listener. Should succeed, and the listener
+	 * should receive the solution. Once removed, the listener should not receive further events.
+	 */
+	@Test
+	public void testBoundedBfsListenerSuccess() {
+		FindIntProblem problem = new FindIntProblem(3);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 3);
+		CountingListener listener = new CountingListener();
+		engine.addSearchListener(listener);
+		assertTrue("number 3 should be found (search up to depth 3)", engine.performSearch());
+		assertEquals(1, listener.solutions);
+		assertEquals(1, listener.finished);
+		assertTrue(listener.found);
+		engine.removeSearchListener(listener);
+		assertTrue("number 3 should be found (search up to depth 3)", engine.performSearch());
+		assertEquals(1, listener.finished);
+	}
+
+	/**
+	 * Search for 21 up to depth 3, starting from 0, on a problem checking states in batches. Should
+	 * fail, checking each pair of siblings in a single call.
+	 */
+	@Test
+	public void testBoundedBfsBatchSuccessFail() {
+		BatchFindIntProblem problem = new BatchFindIntProblem(21);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 3);
+		SearchStatistics statistics = new SearchStatistics();
+		engine.setStatistics(statistics);
+		assertFalse("number 21 should not be found (search up to depth 3)", engine.performSearch());
+		assertEquals("only the initial state should be checked alone", 1, problem.singleCalls);
+		assertEquals("each pair of siblings should be checked together", 7, problem.batchCalls);
+		assertEquals(15, statistics.getVerifications());
+	}
+
+	/**
+	 * Search for 3 up to depth 3, starting from 0, on a problem checking states in batches, with
+	 * duplicate detection. Should succeed!
+	 */
+	@Test
+	public void testBoundedBfsBatchSuccessWithDuplicateDetection() {
+		BatchFindIntProblem problem = new BatchFindIntProblem(3);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 3);
+		engine.setDuplicateDetection(new IntStateFingerprinter(), 1000);
+		assertTrue("number 3 should be found (search up to depth 3)", engine.performSearch());
+		assertTrue("solution found should be 3", engine.getSolution().getValue()==3);
+	}
+
+	/**
+	 * Search for 21 up to depth 5, starting from 0, on a problem checking states in batches,
+	 * verifying at most 4 states. Should fail, checking no more states than the budget allows 
+	 * (siblings checked together are charged to the budget, and batches are cut to what is left).
+	 */
+	@Test
+	public void testBoundedBfsBatchSuccessWithinVerificationsBudget() {
+		BatchFindIntProblem problem = new BatchFindIntProblem(21);
+		BoundedBreadthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>(problem, 5);
+		SearchBudget budget = new SearchBudget(0, 0, 4);
+		engine.setBudget(budget);
+		assertFalse("number 21 should not be found verifying 4 states", engine.performSearch());
+		assertEquals(SearchBudget.Limit.VERIFICATIONS, engine.getExhaustedBudget());
+		assertEquals("4 states should be checked", 4, problem.checked);
+		assertEquals("each state checked should be charged once", 4, budget.getVerifications());
+	}
+
 }
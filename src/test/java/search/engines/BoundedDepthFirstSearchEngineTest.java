@@ -1,15 +1,24 @@
 package search.engines;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
 
 import org.junit.Test;
 
-import search.AbstractSearchProblem;
-import search.State;
+import search.BatchSearchProblem;
+import search.LazySearchProblem;
+import search.StateSerializer;
+import search.engines.IntSearchFixture.FindIntProblem;
+import search.engines.IntSearchFixture.IntState;
+import search.engines.IntSearchFixture.IntStateFingerprinter;
 /**
  * Unit tests for search engine BoundedDepthFirstSearchEngine.
  * @author aguirre
@@ -17,100 +26,6 @@ import search.State;
  */
 public class BoundedDepthFirstSearchEngineTest {
 
-	/**
-	 * IntState is a simple search state represented simply as an integer number.
-	 * @author aguirre
-	 *
-	 */
-	public class IntState implements State {
-		
-		private int value;  // value of current state
-		
-		/**
-		 * Constructor of IntState. Sets value of state to the parameter
-		 * @param value is the value to set the state.
-		 */
-		public IntState(int value) {
-			this.value = value;
-		}
-
-		/**
-		 * Returns the value of the current state.
-		 * @return value of the current state.
-		 */
-		public int getValue() {
-			return value;
-		}
-		
-		/**
-		 * Indicates whether two states are equal or not.
-		 */
-		public boolean equals(State other) {
-			if (!(other instanceof IntState)) return false;
-			IntState otherIntState = (IntState) other;
-			return (this.value==otherIntState.value);
-		}
-		
-	}
-	
-	/**
-	 * Simple search problem defined for testing purposes.
-	 * The search problem simply consists in searching for an integer
-	 * value in a state space of integers. Initial state is 0.
-	 * Successors of a state i are (i+1) and (i+2). A state is successful if it's
-	 * equal to the goal of the problem (set with the constructor).
-	 * @author aguirre
-	 *
-	 */
-	public class FindIntProblem implements AbstractSearchProblem<IntState> {
-		
-		private int goal; // value to search for.
-
-		/**
-		 * Constructor for FindIntProblem. Sets the value to search for.
-		 * @param goal is the value to search for.
-		 */
-		public FindIntProblem(int goal) {
-			this.goal = goal;
-		}
-
-		/**
-		 * Returns the initial state of the problem. In this case
-		 * the initial state is zero.		
-		 */
-		public IntState initialState() {
-			return new IntState(0);
-		}
-
-		/**
-		 * Returns the successors of an initial state. In this case, the successors
-		 * of a value i are (i+1) and (i+2).
-		 */
-		public List<IntState> getSuccessors(IntState s) {
-			List<IntState> children = new LinkedList<IntState>();
-			children.add(new IntState(s.getValue()+1));
-			children.add(new IntState(s.getValue()+2));
-			return children;
-		}
-
-		/**
-		 * It decides whether a state is successful or not, comparing it with
-		 * the goal of the problem. Returns true iff s is the goal
-		 */
-		public boolean success(IntState s) {
-			return (this.goal==s.getValue());
-		}
-		
-		/**
-		 * It sets the goal of the problem.
-		 * @param goal is the new value to search for.
-		 */
-		public void setGoal(int goal) {
-			this.goal = goal;
-		}
-		
-	}
-	
 	/**
 	 * Search for 0 up to depth 0, starting from 0. Should succeed!
 	 */
@@ -188,6 +103,267 @@ public class BoundedDepthFirstSearchEngineTest {
 		engine.setMaxDepth(10);
 		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
 	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, with duplicate detection. Should succeed!
+	 */
+	@Test
+	public void testBoundedDfsWithDuplicateDetectionSuccess() {
+		FindIntProblem problem = new FindIntProblem(20);
+		BoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setDuplicateDetection(new IntStateFingerprinter(), 1000);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, with duplicate detection. Should fail,
+	 * visiting each of the numbers 0 to 20 once, instead of the 2047 states visited without
+	 * duplicate detection. The other 18 of the 39 states reached (0, and two successors for
+	 * each of 0 to 18) are skipped as duplicated.
+	 */
+	@Test
+	public void testBoundedDfsWithDuplicateDetectionFail() {
+		FindIntProblem problem = new FindIntProblem(21);
+		BoundedDepthFirstSearchEngine<IntState, FindIntProblem> plain = 
+				new BoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		assertFalse("number 21 should not be found (search up to depth 10)", plain.performSearch());
+		assertEquals("Number of visited states: 2047", plain.report());
+		BoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setDuplicateDetection(new IntStateFingerprinter(), 1000);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals("Number of visited states: 21, duplicated states skipped: 18", engine.report());
+	}
+
+	/**
+	 * Lazy version of FindIntProblem, which counts the successors it generates.
+	 */
+	public class LazyFindIntProblem extends FindIntProblem implements LazySearchProblem<IntState> {
+		
+		private int generated = 0; // number of successors generated so far.
+		
+		public LazyFindIntProblem(int goal) {
+			super(goal);
+		}
+		
+		/**
+		 * Returns the successors (i+1) and (i+2) of a state i, building each one
+		 * only when it is requested.
+		 */
+		public Iterator<IntState> getSuccessorsIterator(final IntState s) {
+			return new Iterator<IntState>() {
+				private int next = 1;
+				
+				public boolean hasNext() {
+					return next<=2;
+				}
+				
+				public IntState next() {
+					generated++;
+					return new IntState(s.getValue()+(next++));
+				}
+				
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+		
+		public int getGenerated() {
+			return generated;
+		}
+		
+	}
+	
+	/**
+	 * Search for 1 up to depth 1, starting from 0, on a lazy problem. Should succeed
+	 * without generating the second successor of 0.
+	 */
+	@Test
+	public void testBoundedDfsOnLazyProblemSuccess() {
+		LazyFindIntProblem problem = new LazyFindIntProblem(1);
+		BoundedDepthFirstSearchEngine<IntState, LazyFindIntProblem> engine = 
+				new BoundedDepthFirstSearchEngine<IntState, LazyFindIntProblem>(problem, 1);
+		assertTrue("number 1 should be found in depth 1", engine.performSearch());
+		assertEquals("only one successor should be generated", 1, problem.getGenerated());
+	}
+
+	/**
+	 * Lazy problem also able to check states for success in batches, counting its batch calls.
+	 */
+	public class LazyBatchFindIntProblem extends LazyFindIntProblem implements BatchSearchProblem<IntState> {
+		
+		private int batchCalls = 0; // number of batches checked so far.
+		
+		public LazyBatchFindIntProblem(int goal) {
+			super(goal);
+		}
+		
+		public boolean[] success(List<IntState> states) {
+			batchCalls++;
+			boolean[] outcomes = new boolean[states.size()];
+			for (int i = 0; i < states.size(); i++) {
+				outcomes[i] = success(states.get(i));
+			}
+			return outcomes;
+		}
+		
+		public int getBatchCalls() {
+			return batchCalls;
+		}
+		
+	}
+	
+	/**
+	 * Search for 1 up to depth 1, starting from 0, on a lazy problem able to check states in
+	 * batches. Should succeed without generating the second successor of 0 (dfs does not gather
+	 * siblings, as it may never treat them).
+	 */
+	@Test
+	public void testBoundedDfsOnLazyBatchProblemSuccess() {
+		LazyBatchFindIntProblem problem = new LazyBatchFindIntProblem(1);
+		BoundedDepthFirstSearchEngine<IntState, LazyBatchFindIntProblem> engine = 
+				new BoundedDepthFirstSearchEngine<IntState, LazyBatchFindIntProblem>(problem, 1);
+		assertTrue("number 1 should be found in depth 1", engine.performSearch());
+		assertEquals("only one successor should be generated", 1, problem.getGenerated());
+		assertEquals("no states should be checked in batches", 0, problem.getBatchCalls());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, on a lazy problem. Should fail!
+	 */
+	@Test
+	public void testBoundedDfsOnLazyProblemFail() {
+		LazyFindIntProblem problem = new LazyFindIntProblem(21);
+		BoundedDepthFirstSearchEngine<IntState, LazyFindIntProblem> engine = 
+				new BoundedDepthFirstSearchEngine<IntState, LazyFindIntProblem>(problem, 10);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for -1 up to depth 40, starting from 0, for at most 100 milliseconds. Should
+	 * fail, reporting that the time budget ran out.
+	 */
+	@Test
+	public void testBoundedDfsTimeBudgetExhausted() {
+		FindIntProblem problem = new FindIntProblem(-1);
+		BoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 40);
+		engine.setBudget(new SearchBudget(100, 0, 0));
+		assertFalse("number -1 should not be found", engine.performSearch());
+		assertEquals(SearchBudget.Limit.TIME, engine.getExhaustedBudget());
+	}
+
+	/**
+	 * Serialiser for IntState, which simply writes the value of the state.
+	 */
+	public class IntStateSerializer implements StateSerializer<IntState> {
+		
+		public void write(IntState s, DataOutput out) throws IOException {
+			out.writeInt(s.getValue());
+		}
+		
+		public IntState read(DataInput in) throws IOException {
+			return new IntState(in.readInt());
+		}
+		
+	}
+	
+	/**
+	 * Search for 21 up to depth 10, starting from 0, stopped after visiting 100 states and then
+	 * resumed from its checkpoint. Should fail, visiting the same states as an uninterrupted search.
+	 */
+	@Test
+	public void testBoundedDfsResumedFromCheckpointFail() throws IOException {
+		File checkpoint = File.createTempFile("search", ".checkpoint");
+		checkpoint.delete();
+		FindIntProblem problem = new FindIntProblem(21);
+		BoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setCheckpointing(checkpoint, new IntStateSerializer(), 60000);
+		engine.setBudget(new SearchBudget(0, 100, 0));
+		assertFalse("search should run out of budget", engine.performSearch());
+		assertTrue("checkpoint should be saved", checkpoint.exists());
+		BoundedDepthFirstSearchEngine<IntState, FindIntProblem> resumed = 
+				new BoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		resumed.setCheckpointing(checkpoint, new IntStateSerializer(), 60000);
+		resumed.resumeFrom(checkpoint, new IntStateSerializer());
+		assertFalse("number 21 should not be found (search up to depth 10)", resumed.performSearch());
+		assertEquals("Number of visited states: 2047", resumed.report());
+		assertFalse("checkpoint should be deleted", checkpoint.exists());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, stopped after visiting 5 states and then
+	 * resumed from its checkpoint. Should succeed!
+	 */
+	@Test
+	public void testBoundedDfsResumedFromCheckpointSuccess() throws IOException {
+		File checkpoint = File.createTempFile("search", ".checkpoint");
+		checkpoint.delete();
+		FindIntProblem problem = new FindIntProblem(20);
+		BoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new BoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		engine.setCheckpointing(checkpoint, new IntStateSerializer(), 60000);
+		engine.setBudget(new SearchBudget(0, 5, 0));
+		engine.performSearch();
+		BoundedDepthFirstSearchEngine<IntState, FindIntProblem> resumed = 
+				new BoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 10);
+		resumed.resumeFrom(checkpoint, new IntStateSerializer());
+		checkpoint.delete();
+		assertTrue("number 20 should be found (search up to depth 10)", resumed.performSearch());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, on a lazy problem, stopped after visiting 100
+	 * states and then resumed from its checkpoint. Taking the checkpoint should generate no 
+	 * successors still to visit, and the resumed search should visit the same states as an
+	 * uninterrupted search.
+	 */
+	@Test
+	public void testBoundedDfsOnLazyProblemCheckpointDoesNotGenerateSuccessors() throws IOException {
+		LazyFindIntProblem uninterrupted = new LazyFindIntProblem(21);
+		BoundedDepthFirstSearchEngine<IntState, LazyFindIntProblem> engine = 
+				new BoundedDepthFirstSearchEngine<IntState, LazyFindIntProblem>(uninterrupted, 10);
+		engine.setBudget(new SearchBudget(0, 100, 0));
+		engine.performSearch();
+		File checkpoint = File.createTempFile("search", ".checkpoint");
+		checkpoint.delete();
+		LazyFindIntProblem problem = new LazyFindIntProblem(21);
+		engine = new BoundedDepthFirstSearchEngine<IntState, LazyFindIntProblem>(problem, 10);
+		engine.setCheckpointing(checkpoint, new IntStateSerializer(), 60000);
+		engine.setBudget(new SearchBudget(0, 100, 0));
+		assertFalse("search should run out of budget", engine.performSearch());
+		assertTrue("checkpoint should be saved", checkpoint.exists());
+		assertEquals("checkpoint should generate no successors", uninterrupted.getGenerated(), problem.getGenerated());
+		BoundedDepthFirstSearchEngine<IntState, LazyFindIntProblem> resumed = 
+				new BoundedDepthFirstSearchEngine<IntState, LazyFindIntProblem>(new LazyFindIntProblem(21), 10);
+		resumed.resumeFrom(checkpoint, new IntStateSerializer());
+		checkpoint.delete();
+		assertFalse("number 21 should not be found (search up to depth 10)", resumed.performSearch());
+		assertEquals("Number of visited states: 2047", resumed.report());
+	}
+
+	/**
+	 * Elements pushed onto a depth stack are popped in LIFO order, with their depths,
+	 * also after the stack grows.
+	 */
+	@Test
+	public void testDepthStackIsLifo() {
+		DepthStack<IntState> stack = new DepthStack<IntState>();
+		for (int i = 0; i < 40; i++) {
+			stack.push(new IntState(i), i%7);
+		}
+		assertEquals(40, stack.size());
+		assertEquals(3, stack.get(3).getValue());
+		assertEquals(3, stack.getDepth(3));
+		for (int i = 39; i >= 0; i--) {
+			assertEquals(i%7, stack.peekDepth());
+			assertEquals(i, stack.pop().getValue());
+		}
+		assertTrue(stack.isEmpty());
+	}
 	
 	
 }
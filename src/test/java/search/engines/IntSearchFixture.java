@@ -0,0 +1,185 @@
+package search.engines;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import search.AbstractSearchProblem;
+import search.BatchSearchProblem;
+import search.Fingerprinter;
+import search.State;
+/**
+ * Search states and problems over integers, shared by the unit tests of the search engines.
+ *
+ */
+public class IntSearchFixture {
+
+	/**
+	 * IntState is a simple search state represented simply as an integer number.
+	 *
+	 */
+	public static class IntState implements State {
+
+		private int value;  // value of current state
+
+		/**
+		 * Constructor of IntState. Sets value of state to the parameter
+		 * @param value is the value to set the state.
+		 */
+		public IntState(int value) {
+			this.value = value;
+		}
+
+		/**
+		 * Returns the value of the current state.
+		 * @return value of the current state.
+		 */
+		public int getValue() {
+			return value;
+		}
+
+		/**
+		 * Indicates whether two states are equal or not.
+		 */
+		public boolean equals(State other) {
+			if (!(other instanceof IntState)) return false;
+			IntState otherIntState = (IntState) other;
+			return (this.value==otherIntState.value);
+		}
+
+	}
+
+	/**
+	 * Simple search problem defined for testing purposes.
+	 * The search problem simply consists in searching for an integer
+	 * value in a state space of integers. Initial state is 0.
+	 * Successors of a state i are (i+1) and (i+2). A state is successful if it's
+	 * equal to the goal of the problem (set with the constructor).
+	 *
+	 */
+	public static class FindIntProblem implements AbstractSearchProblem<IntState> {
+
+		private int goal; // value to search for.
+
+		/**
+		 * Constructor for FindIntProblem. Sets the value to search for.
+		 * @param goal is the value to search for.
+		 */
+		public FindIntProblem(int goal) {
+			this.goal = goal;
+		}
+
+		/**
+		 * Returns the initial state of the problem. In this case
+		 * the initial state is zero.
+		 */
+		public IntState initialState() {
+			return new IntState(0);
+		}
+
+		/**
+		 * Returns the successors of an initial state. In this case, the successors
+		 * of a value i are (i+1) and (i+2).
+		 */
+		public List<IntState> getSuccessors(IntState s) {
+			List<IntState> children = new LinkedList<IntState>();
+			children.add(new IntState(s.getValue()+1));
+			children.add(new IntState(s.getValue()+2));
+			return children;
+		}
+
+		/**
+		 * It decides whether a state is successful or not, comparing it with
+		 * the goal of the problem. Returns true iff s is the goal
+		 */
+		public boolean success(IntState s) {
+			return (this.goal==s.getValue());
+		}
+
+		/**
+		 * It sets the goal of the problem.
+		 * @param goal is the new value to search for.
+		 */
+		public void setGoal(int goal) {
+			this.goal = goal;
+		}
+
+	}
+
+	/**
+	 * FindIntProblem checking states for success in batches, counting its calls and the states it checks.
+	 */
+	public static class BatchFindIntProblem extends FindIntProblem implements BatchSearchProblem<IntState> {
+
+		int batchCalls = 0;
+		int singleCalls = 0;
+		int checked = 0;
+
+		public BatchFindIntProblem(int goal) {
+			super(goal);
+		}
+
+		public boolean success(IntState s) {
+			singleCalls++;
+			checked++;
+			return super.success(s);
+		}
+
+		public boolean[] success(List<IntState> states) {
+			batchCalls++;
+			checked += states.size();
+			boolean[] outcomes = new boolean[states.size()];
+			for (int i = 0; i < states.size(); i++) {
+				outcomes[i] = super.success(states.get(i));
+			}
+			return outcomes;
+		}
+
+	}
+
+	/**
+	 * FindIntProblem whose success routine takes some time, counting the calls started once a
+	 * solution was found. It can be used by concurrent workers.
+	 */
+	public static class SlowFindIntProblem extends FindIntProblem {
+
+		private final long delay;
+		private final AtomicBoolean solved = new AtomicBoolean(false);
+		private final AtomicInteger callsAfterSolution = new AtomicInteger(0);
+
+		public SlowFindIntProblem(int goal, long delay) {
+			super(goal);
+			this.delay = delay;
+		}
+
+		public boolean success(IntState s) {
+			if (solved.get()) callsAfterSolution.incrementAndGet();
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			boolean success = super.success(s);
+			if (success) solved.set(true);
+			return success;
+		}
+
+		public int getCallsAfterSolution() {
+			return callsAfterSolution.get();
+		}
+
+	}
+
+	/**
+	 * Fingerprinter for IntState, which simply uses the value of the state.
+	 */
+	public static class IntStateFingerprinter implements Fingerprinter<IntState> {
+
+		public long fingerprint(IntState s) {
+			return s.getValue();
+		}
+
+	}
+
+}
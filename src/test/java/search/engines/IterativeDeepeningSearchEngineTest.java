@@ -0,0 +1,152 @@
+package search.engines;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import search.engines.IntSearchFixture.BatchFindIntProblem;
+import search.engines.IntSearchFixture.FindIntProblem;
+import search.engines.IntSearchFixture.IntState;
+/**
+ * Unit tests for search engine IterativeDeepeningSearchEngine.
+ *
+ */
+public class IterativeDeepeningSearchEngineTest {
+
+	/**
+	 * Search for 0 up to depth 0, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testIterativeDeepeningWithNilBoundsSuccess() {
+		FindIntProblem problem = new FindIntProblem(0);
+		IterativeDeepeningSearchEngine<IntState, FindIntProblem> engine = 
+				new IterativeDeepeningSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setMaxDepth(0);
+		assertTrue("number 0 should be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 1 up to depth 0, starting from 0. Should fail!
+	 */
+	@Test
+	public void testIterativeDeepeningWithNilBoundsFail() {
+		FindIntProblem problem = new FindIntProblem(1);
+		IterativeDeepeningSearchEngine<IntState, FindIntProblem> engine = 
+				new IterativeDeepeningSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setMaxDepth(0);
+		assertFalse("number 1 should not be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 2 up to depth 1, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testIterativeDeepeningSuccessWithinBounds() {
+		FindIntProblem problem = new FindIntProblem(2);
+		IterativeDeepeningSearchEngine<IntState, FindIntProblem> engine = 
+				new IterativeDeepeningSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setMaxDepth(1);
+		assertTrue("number 2 should be found in depth 1", engine.performSearch());
+	}
+
+	/**
+	 * Search for 2 up to depth 0, starting from 0. Should fail!
+	 */
+	@Test
+	public void testIterativeDeepeningSuccessOutsideBounds() {
+		FindIntProblem problem = new FindIntProblem(2);
+		IterativeDeepeningSearchEngine<IntState, FindIntProblem> engine = 
+				new IterativeDeepeningSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setMaxDepth(0);
+		assertFalse("number 2 should be not be found up to depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testIterativeDeepeningSuccessInsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(20);
+		IterativeDeepeningSearchEngine<IntState, FindIntProblem> engine = 
+				new IterativeDeepeningSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setMaxDepth(10);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0. Should fail!
+	 */
+	@Test
+	public void testIterativeDeepeningSuccessOutsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(21);
+		IterativeDeepeningSearchEngine<IntState, FindIntProblem> engine = 
+				new IterativeDeepeningSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setMaxDepth(10);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 4 up to depth 4, starting from 0. 4 is first reachable at depth 2 (0,2,4),
+	 * so the solution must be found in the third iteration.
+	 */
+	@Test
+	public void testIterativeDeepeningFindsShallowestSolution() {
+		FindIntProblem problem = new FindIntProblem(4);
+		IterativeDeepeningSearchEngine<IntState, FindIntProblem> engine = 
+				new IterativeDeepeningSearchEngine<IntState, FindIntProblem>(problem, 4);
+		assertTrue("number 4 should be found (search up to depth 4)", engine.performSearch());
+		assertTrue("solution found should be 4", engine.getSolution().getValue()==4);
+		assertTrue("solution should be found in the third iteration", engine.report().contains("iterations: 3"));
+	}
+
+	/**
+	 * Search for 21 up to depth 3, starting from 0. Should fail, checking each state of the
+	 * search tree (1+2+4+8 states) for success only once, even though shallower states are
+	 * visited in several iterations.
+	 */
+	@Test
+	public void testIterativeDeepeningVerifiesEachStateOnce() {
+		FindIntProblem problem = new FindIntProblem(21);
+		IterativeDeepeningSearchEngine<IntState, FindIntProblem> engine = 
+				new IterativeDeepeningSearchEngine<IntState, FindIntProblem>(problem, 3);
+		assertFalse("number 21 should not be found (search up to depth 3)", engine.performSearch());
+		assertTrue("each state should be checked once", engine.report().contains("verified states: 15"));
+	}
+	
+	/**
+	 * Search for all occurrences of 2 up to depth 2, starting from 0. Should find 2
+	 * once in each of the last two iterations, verifying each state only once.
+	 */
+	@Test
+	public void testIterativeDeepeningFindAllSolutions() {
+		FindIntProblem problem = new FindIntProblem(2);
+		IterativeDeepeningSearchEngine<IntState, FindIntProblem> engine = 
+				new IterativeDeepeningSearchEngine<IntState, FindIntProblem>(problem, 2);
+		assertEquals(2, engine.findSolutions(0).size());
+		assertTrue("each state should be verified once", engine.report().contains("verified states: 7"));
+	}
+
+	/**
+	 * Search for 21 up to depth 3, starting from 0, on a problem checking states in batches. Should
+	 * fail, checking the pairs of siblings at the bound of each iteration together.
+	 */
+	@Test
+	public void testIterativeDeepeningBatchesSiblingsAtTheBound() {
+		BatchFindIntProblem problem = new BatchFindIntProblem(21);
+		IterativeDeepeningSearchEngine<IntState, FindIntProblem> engine = 
+				new IterativeDeepeningSearchEngine<IntState, FindIntProblem>(problem, 3);
+		assertFalse("number 21 should not be found (search up to depth 3)", engine.performSearch());
+		assertEquals("only the initial state should be checked alone", 1, problem.singleCalls);
+		assertEquals("each pair of siblings at the bound should be checked together", 1+2+4, problem.batchCalls);
+		assertEquals("each state at the bound should be checked once", 1+2+4+8, problem.checked);
+	}
+
+}
@@ -0,0 +1,145 @@
+package search.engines;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import search.Heuristic;
+import search.engines.IntSearchFixture.FindIntProblem;
+import search.engines.IntSearchFixture.IntState;
+import search.engines.IntSearchFixture.IntStateFingerprinter;
+/**
+ * Unit tests for search engine MonteCarloSearchEngine.
+ *
+ */
+public class MonteCarloSearchEngineTest {
+
+	/**
+	 * Search for 0 up to depth 0, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testMonteCarloWithNilBoundsSuccess() {
+		FindIntProblem problem = new FindIntProblem(0);
+		MonteCarloSearchEngine<IntState, FindIntProblem> engine = 
+				new MonteCarloSearchEngine<IntState, FindIntProblem>(problem, 0, 10, 42);
+		assertTrue("number 0 should be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 1 up to depth 0, starting from 0. Should fail!
+	 */
+	@Test
+	public void testMonteCarloWithNilBoundsFail() {
+		FindIntProblem problem = new FindIntProblem(1);
+		MonteCarloSearchEngine<IntState, FindIntProblem> engine = 
+				new MonteCarloSearchEngine<IntState, FindIntProblem>(problem, 0, 10, 42);
+		assertFalse("number 1 should not be found in depth 0", engine.performSearch());
+		assertEquals("no descents should be performed", 0, engine.getDescents());
+	}
+
+	/**
+	 * Search for 10 up to depth 10, starting from 0, in 100 descents. Should succeed!
+	 */
+	@Test
+	public void testMonteCarloSuccessInsideBounds() {
+		FindIntProblem problem = new FindIntProblem(10);
+		MonteCarloSearchEngine<IntState, FindIntProblem> engine = 
+				new MonteCarloSearchEngine<IntState, FindIntProblem>(problem, 10, 100, 42);
+		assertTrue("number 10 should be found (search up to depth 10)", engine.performSearch());
+		assertTrue("solution found should be 10", engine.getSolution().getValue()==10);
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, in 100 descents. Should fail, after
+	 * performing all descents.
+	 */
+	@Test
+	public void testMonteCarloSuccessOutsideBounds() {
+		FindIntProblem problem = new FindIntProblem(21);
+		MonteCarloSearchEngine<IntState, FindIntProblem> engine = 
+				new MonteCarloSearchEngine<IntState, FindIntProblem>(problem, 10, 100, 42);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals("all descents should be performed", 100, engine.getDescents());
+		assertTrue("descents should be reported", engine.report().contains("descents: 100"));
+	}
+
+	/**
+	 * Searches for 15 up to depth 10 with the same seed should follow the same descents.
+	 */
+	@Test
+	public void testMonteCarloReproducibleWithSeed() {
+		FindIntProblem problem = new FindIntProblem(15);
+		MonteCarloSearchEngine<IntState, FindIntProblem> engine = 
+				new MonteCarloSearchEngine<IntState, FindIntProblem>(problem, 10, 1000, 7);
+		boolean first = engine.performSearch();
+		String firstReport = engine.report();
+		MonteCarloSearchEngine<IntState, FindIntProblem> other = 
+				new MonteCarloSearchEngine<IntState, FindIntProblem>(problem, 10, 1000, 7);
+		assertEquals("searches with the same seed should have the same outcome", first, other.performSearch());
+		assertEquals("searches with the same seed should visit the same states", firstReport, other.report());
+		engine.performSearch();
+		assertEquals("repeated searches should visit the same states", firstReport, engine.report());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, with duplicate detection. Should fail, and
+	 * states visited by several descents should only be checked once.
+	 */
+	@Test
+	public void testMonteCarloWithDuplicateDetection() {
+		FindIntProblem problem = new FindIntProblem(21);
+		MonteCarloSearchEngine<IntState, FindIntProblem> engine = 
+				new MonteCarloSearchEngine<IntState, FindIntProblem>(problem, 10, 100, 42);
+		engine.setDuplicateDetection(new IntStateFingerprinter(), 1000);
+		SearchStatistics statistics = new SearchStatistics();
+		engine.setStatistics(statistics);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertTrue("at most states 0 to 20 should be checked", statistics.getVerifications()<=21);
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, learning first moves with a heuristic
+	 * (distance to 20). Should succeed!
+	 */
+	@Test
+	public void testMonteCarloWithFirstMoveLearning() {
+		FindIntProblem problem = new FindIntProblem(20);
+		MonteCarloSearchEngine<IntState, FindIntProblem> engine = 
+				new MonteCarloSearchEngine<IntState, FindIntProblem>(problem, 10, 10000, 42);
+		engine.setFirstMoveLearning(MonteCarloSearchEngine.DEFAULT_EXPLORATION, new Heuristic<IntState>() {
+			public double score(IntState s, int depth) {
+				return Math.abs(20-s.getValue());
+			}
+		});
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, descending until 500 states are visited. Should fail,
+	 * reporting that the visited states budget ran out.
+	 */
+	@Test
+	public void testMonteCarloUntilBudgetExhausted() {
+		FindIntProblem problem = new FindIntProblem(21);
+		MonteCarloSearchEngine<IntState, FindIntProblem> engine = 
+				new MonteCarloSearchEngine<IntState, FindIntProblem>(problem, 10, 0, 42);
+		engine.setBudget(new SearchBudget(0, 500, 0));
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals(SearchBudget.Limit.VISITED_STATES, engine.getExhaustedBudget());
+	}
+
+	/**
+	 * Descending without limit requires a budget.
+	 */
+	@Test(expected=IllegalStateException.class)
+	public void testMonteCarloUnlimitedWithoutBudget() {
+		FindIntProblem problem = new FindIntProblem(21);
+		MonteCarloSearchEngine<IntState, FindIntProblem> engine = 
+				new MonteCarloSearchEngine<IntState, FindIntProblem>(problem, 10, 0, 42);
+		engine.performSearch();
+	}
+	
+	
+}
@@ -0,0 +1,145 @@
+package search.engines;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import search.engines.IntSearchFixture.FindIntProblem;
+import search.engines.IntSearchFixture.IntState;
+import search.engines.IntSearchFixture.SlowFindIntProblem;
+/**
+ * Unit tests for search engine ParallelBoundedDepthFirstSearchEngine.
+ *
+ */
+public class ParallelBoundedDepthFirstSearchEngineTest {
+
+	/**
+	 * Search for 0 up to depth 0, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testParallelBoundedDfsWithNilBoundsSuccess() {
+		FindIntProblem problem = new FindIntProblem(0);
+		ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setParallelism(4);
+		engine.setMaxDepth(0);
+		assertTrue("number 0 should be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 1 up to depth 0, starting from 0. Should fail!
+	 */
+	@Test
+	public void testParallelBoundedDfsWithNilBoundsFail() {
+		FindIntProblem problem = new FindIntProblem(1);
+		ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setParallelism(4);
+		engine.setMaxDepth(0);
+		assertFalse("number 1 should not be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 2 up to depth 1, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testParallelBoundedDfsSuccessWithinBounds() {
+		FindIntProblem problem = new FindIntProblem(2);
+		ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setParallelism(4);
+		engine.setMaxDepth(1);
+		assertTrue("number 2 should be found in depth 1", engine.performSearch());
+	}
+
+	/**
+	 * Search for 2 up to depth 0, starting from 0. Should fail!
+	 */
+	@Test
+	public void testParallelBoundedDfsSuccessOutsideBounds() {
+		FindIntProblem problem = new FindIntProblem(2);
+		ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setParallelism(4);
+		engine.setMaxDepth(0);
+		assertFalse("number 2 should be not be found up to depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testParallelBoundedDfsSuccessInsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(20);
+		ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setParallelism(4);
+		engine.setMaxDepth(10);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0. Should fail!
+	 */
+	@Test
+	public void testParallelBoundedDfsSuccessOutsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(21);
+		ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem>();
+		engine.setProblem(problem);
+		engine.setParallelism(4);
+		engine.setMaxDepth(10);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, with a single worker. Should succeed!
+	 */
+	@Test
+	public void testParallelBoundedDfsSingleWorker() {
+		FindIntProblem problem = new FindIntProblem(20);
+		ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 10, 1);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+		assertTrue("solution found should be 20", engine.getSolution().getValue()==20);
+	}
+
+	/**
+	 * Search for 9 up to depth 10, starting from 0, with 4 workers, on a problem taking 5 milliseconds
+	 * to check each state. Should succeed, with each of the other workers checking at most the state it
+	 * was taking when the solution was found.
+	 */
+	@Test
+	public void testParallelBoundedDfsSolutionStopsOtherWorkers() {
+		SlowFindIntProblem problem = new SlowFindIntProblem(9, 5);
+		ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 10, 4);
+		assertTrue("number 9 should be found (search up to depth 10)", engine.performSearch());
+		assertTrue("other workers should stop once the solution is found", problem.getCallsAfterSolution()<=3);
+	}
+
+	/**
+	 * Search for all occurrences of 4 up to depth 4, starting from 0, with 4 workers. Should find
+	 * the 5 ways of reaching 4, and keep the last solution found, as the sequential engines do.
+	 */
+	@Test
+	public void testParallelBoundedDfsEnumerationKeepsLastSolution() {
+		FindIntProblem problem = new FindIntProblem(4);
+		ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem> engine = 
+				new ParallelBoundedDepthFirstSearchEngine<IntState, FindIntProblem>(problem, 4, 4);
+		List<IntState> solutions = engine.findSolutions(0);
+		assertEquals(5, solutions.size());
+		assertSame("the last solution found should be kept", solutions.get(solutions.size()-1), engine.getSolution());
+	}
+
+}
@@ -0,0 +1,109 @@
+package search.engines;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import search.engines.IntSearchFixture.FindIntProblem;
+import search.engines.IntSearchFixture.IntState;
+import search.engines.IntSearchFixture.IntStateFingerprinter;
+/**
+ * Unit tests for search engine PipelinedSearchEngine.
+ *
+ */
+public class PipelinedSearchEngineTest {
+
+	/**
+	 * Search for 0 up to depth 0, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testPipelinedWithNilBoundsSuccess() {
+		FindIntProblem problem = new FindIntProblem(0);
+		PipelinedSearchEngine<IntState, FindIntProblem> engine = 
+				new PipelinedSearchEngine<IntState, FindIntProblem>(problem, 0, 1, 16);
+		assertTrue("number 0 should be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 1 up to depth 0, starting from 0. Should fail!
+	 */
+	@Test
+	public void testPipelinedWithNilBoundsFail() {
+		FindIntProblem problem = new FindIntProblem(1);
+		PipelinedSearchEngine<IntState, FindIntProblem> engine = 
+				new PipelinedSearchEngine<IntState, FindIntProblem>(problem, 0, 1, 16);
+		assertFalse("number 1 should not be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testPipelinedSuccessInsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(20);
+		PipelinedSearchEngine<IntState, FindIntProblem> engine = 
+				new PipelinedSearchEngine<IntState, FindIntProblem>(problem, 10, 1, 16);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+		assertTrue("solution found should be 20", engine.getSolution().getValue()==20);
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0. Should fail, after visiting every state
+	 * up to depth 10.
+	 */
+	@Test
+	public void testPipelinedSuccessOutsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(21);
+		PipelinedSearchEngine<IntState, FindIntProblem> engine = 
+				new PipelinedSearchEngine<IntState, FindIntProblem>(problem, 10, 1, 16);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals("Number of visited states: 2047", engine.report());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, with several verifiers and a queue holding a
+	 * single generated state. Should fail, after visiting every state up to depth 10.
+	 */
+	@Test
+	public void testPipelinedWithBackpressure() {
+		FindIntProblem problem = new FindIntProblem(21);
+		PipelinedSearchEngine<IntState, FindIntProblem> engine = 
+				new PipelinedSearchEngine<IntState, FindIntProblem>(problem, 10, 4, 1);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals("Number of visited states: 2047", engine.report());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, with duplicate detection. Should fail, and
+	 * each state should be checked for success only once.
+	 */
+	@Test
+	public void testPipelinedWithDuplicateDetection() {
+		FindIntProblem problem = new FindIntProblem(21);
+		PipelinedSearchEngine<IntState, FindIntProblem> engine = 
+				new PipelinedSearchEngine<IntState, FindIntProblem>(problem, 10, 2, 16);
+		engine.setDuplicateDetection(new IntStateFingerprinter(), 1000);
+		SearchStatistics statistics = new SearchStatistics();
+		engine.setStatistics(statistics);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals("states 0 to 20 should be checked once", 21, statistics.getVerifications());
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, visiting at most 100 states. Should fail,
+	 * reporting that the visited states budget ran out.
+	 */
+	@Test
+	public void testPipelinedVisitedStatesBudgetExhausted() {
+		FindIntProblem problem = new FindIntProblem(21);
+		PipelinedSearchEngine<IntState, FindIntProblem> engine = 
+				new PipelinedSearchEngine<IntState, FindIntProblem>(problem, 10, 1, 16);
+		engine.setBudget(new SearchBudget(0, 100, 0));
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals(SearchBudget.Limit.VISITED_STATES, engine.getExhaustedBudget());
+	}
+	
+	
+}
@@ -0,0 +1,133 @@
+package search.engines;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import search.engines.IntSearchFixture.FindIntProblem;
+import search.engines.IntSearchFixture.IntState;
+import search.engines.IntSearchFixture.IntStateFingerprinter;
+/**
+ * Unit tests for search engine PortfolioSearchEngine.
+ *
+ */
+public class PortfolioSearchEngineTest {
+
+	/**
+	 * Creates a portfolio racing bounded dfs and bfs on problem.
+	 */
+	private PortfolioSearchEngine<IntState, FindIntProblem> dfsAndBfs(FindIntProblem problem, int maxDepth) {
+		List<AbstractBoundedSearchEngine<IntState, FindIntProblem>> engines = new ArrayList<AbstractBoundedSearchEngine<IntState, FindIntProblem>>();
+		engines.add(new BoundedDepthFirstSearchEngine<IntState, FindIntProblem>());
+		engines.add(new BoundedBreadthFirstSearchEngine<IntState, FindIntProblem>());
+		return new PortfolioSearchEngine<IntState, FindIntProblem>(problem, maxDepth, engines);
+	}
+	
+	/**
+	 * Search for 0 up to depth 0, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testPortfolioWithNilBoundsSuccess() {
+		FindIntProblem problem = new FindIntProblem(0);
+		PortfolioSearchEngine<IntState, FindIntProblem> engine = dfsAndBfs(problem, 0);
+		assertTrue("number 0 should be found in depth 0", engine.performSearch());
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0. Should succeed!
+	 */
+	@Test
+	public void testPortfolioSuccessInsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(20);
+		PortfolioSearchEngine<IntState, FindIntProblem> engine = dfsAndBfs(problem, 10);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+		assertTrue("solution found should be 20", engine.getSolution().getValue()==20);
+		assertTrue("winner should be reported", engine.getWinner()!=null);
+		assertTrue("winner should be reported", engine.report().contains("solution found by"));
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0. Should fail!
+	 */
+	@Test
+	public void testPortfolioSuccessOutsideBiggerBounds() {
+		FindIntProblem problem = new FindIntProblem(21);
+		PortfolioSearchEngine<IntState, FindIntProblem> engine = dfsAndBfs(problem, 10);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertTrue("no winner should be reported", engine.getWinner()==null);
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, with duplicate detection. Should fail, and
+	 * each state should be checked for success only once, by one of the engines.
+	 */
+	@Test
+	public void testPortfolioSharesVisitedStates() {
+		FindIntProblem problem = new FindIntProblem(21);
+		PortfolioSearchEngine<IntState, FindIntProblem> engine = dfsAndBfs(problem, 10);
+		engine.setDuplicateDetection(new IntStateFingerprinter(), 1000);
+		SearchStatistics statistics = new SearchStatistics();
+		engine.setStatistics(statistics);
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals("states 0 to 20 should be checked once", 21, statistics.getVerifications());
+		assertTrue("duplicated states should be reported", engine.report().contains("duplicated states skipped"));
+	}
+
+	/**
+	 * Search for 20 up to depth 10, starting from 0, with duplicate detection, twice. Both
+	 * searches should succeed (visited states are forgotten between searches).
+	 */
+	@Test
+	public void testPortfolioRepeatedSearches() {
+		FindIntProblem problem = new FindIntProblem(20);
+		PortfolioSearchEngine<IntState, FindIntProblem> engine = dfsAndBfs(problem, 10);
+		engine.setDuplicateDetection(new IntStateFingerprinter(), 1000);
+		assertTrue("number 20 should be found (search up to depth 10)", engine.performSearch());
+		assertTrue("number 20 should be found again (search up to depth 10)", engine.performSearch());
+	}
+
+	/**
+	 * Search for one solution (20) up to depth 10, starting from 0. Only one should be reported.
+	 */
+	@Test
+	public void testPortfolioFindSolutions() {
+		FindIntProblem problem = new FindIntProblem(20);
+		PortfolioSearchEngine<IntState, FindIntProblem> engine = dfsAndBfs(problem, 10);
+		List<IntState> solutions = engine.findSolutions(1);
+		assertEquals("one solution should be found", 1, solutions.size());
+		assertTrue("solution found should be 20", solutions.get(0).getValue()==20);
+	}
+
+	/**
+	 * Search for 21 up to depth 10, starting from 0, visiting at most 100 states (among all 
+	 * engines). Should fail, reporting that the visited states budget ran out.
+	 */
+	@Test
+	public void testPortfolioSharesBudget() {
+		FindIntProblem problem = new FindIntProblem(21);
+		PortfolioSearchEngine<IntState, FindIntProblem> engine = dfsAndBfs(problem, 10);
+		engine.setBudget(new SearchBudget(0, 100, 0));
+		assertFalse("number 21 should not be found (search up to depth 10)", engine.performSearch());
+		assertEquals(SearchBudget.Limit.VISITED_STATES, engine.getExhaustedBudget());
+	}
+
+	/**
+	 * Iterative deepening forgets visited states at each iteration, so it cannot race sharing them.
+	 */
+	@Test(expected=IllegalStateException.class)
+	public void testPortfolioIterativeDeepeningWithDuplicateDetection() {
+		FindIntProblem problem = new FindIntProblem(20);
+		List<AbstractBoundedSearchEngine<IntState, FindIntProblem>> engines = new ArrayList<AbstractBoundedSearchEngine<IntState, FindIntProblem>>();
+		engines.add(new IterativeDeepeningSearchEngine<IntState, FindIntProblem>());
+		PortfolioSearchEngine<IntState, FindIntProblem> engine = new PortfolioSearchEngine<IntState, FindIntProblem>(problem, 10, engines);
+		engine.setDuplicateDetection(new IntStateFingerprinter(), 1000);
+		engine.performSearch();
+	}
+	
+	
+}
@@ -0,0 +1,16 @@
+
+public class TestClass_4 {
+
+	
+	public void method() {
+		int a = 1;
+		int b = a + 2;
+		if (a > b + 3 && b * 5 >= 25) {
+			System.out.println("lalala");
+		} else {
+			System.out.println("lololo");
+		} //mutGenLimit 2
+	}
+	
+	
+}
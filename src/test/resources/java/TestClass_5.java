@@ -0,0 +1,14 @@
+
+public class TestClass_5 {
+
+	
+	public void method() {
+		int a = 1;
+		int b = 2;
+		a = a + 2; //mutGenLimit 1
+		b = b * 3; //mutGenLimit 1
+		System.out.println(a + b);
+	}
+	
+	
+}